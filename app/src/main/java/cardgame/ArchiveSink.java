@@ -0,0 +1,271 @@
+// ArchiveSink.java
+
+package cardgame;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes every stream into one archive file, in the {@link OutputArchive} format, through a single channel.
+ *
+ * Each stream fills its own small buffer and appends it as a segment when full or closed. Appends reserve their
+ * place with an atomic counter and use positional writes, so streams on different threads never wait for each
+ * other. The index is written when the sink is closed.
+ */
+final class ArchiveSink implements OutputSink {
+
+    /**
+     * Bytes of text per segment. Each open stream holds one buffer of this size.
+     */
+    static final int SEGMENT_SIZE = 1024;
+
+    private final FileChannel channel;
+    private final AtomicLong end = new AtomicLong(OutputArchive.HEADER);    // Where the next segment goes
+    private final List<Stream> streams = new ArrayList<>();                // Guarded by this
+    private final Set<String> names = new HashSet<>();
+    private boolean closed = false;
+
+    /**
+     * Creates the archive and writes its header.
+     *
+     * @param file the archive file, replaced if present.
+     * @throws IOException if the file can't be written to.
+     */
+    ArchiveSink(File file) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = ByteBuffer.allocate(OutputArchive.HEADER);
+        header.putInt(OutputArchive.MAGIC).put(OutputArchive.VERSION).flip();
+        writeAt(header, 0);
+    }
+
+    /**
+     * Adds a stream to the archive.
+     *
+     * @param name the stream name, unique in the archive.
+     * @return a writer for the stream.
+     * @throws IOException if the archive is closed.
+     * @throws IllegalArgumentException if the name is already in the archive.
+     */
+    @Override
+    public synchronized Writer open(String name) throws IOException {
+        if (closed) throw new IOException("Archive closed");
+        if (!names.add(name)) throw new IllegalArgumentException("Stream already in archive: " + name);
+        Stream s = new Stream(streams.size(), name);
+        streams.add(s);
+        return s;
+    }
+
+    /**
+     * Closes every stream, then writes the index and the trailer that points to it.
+     *
+     * @throws IOException if the archive can't be written.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            for (Stream s : streams) {
+                s.close();
+            }
+
+            // Index: the streams in the order they were opened, then the trailer:
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(32 * streams.size() + 16);
+            DataOutputStream out = new DataOutputStream(bytes);
+            long indexOffset = end.get();   // Every stream is closed, so nothing else is appended
+            out.writeInt(streams.size());
+            for (Stream s : streams) {
+                out.writeUTF(s.name);
+                out.writeLong(s.length);
+                out.writeLong(s.last);
+            }
+            out.writeLong(indexOffset);
+            out.writeInt(OutputArchive.MAGIC);
+            writeAt(ByteBuffer.wrap(bytes.toByteArray()), indexOffset);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Writes a buffer at a position in the archive.
+     *
+     * @param buffer the bytes to write.
+     * @param position the file position.
+     * @throws IOException if the bytes can't be written.
+     */
+    private void writeAt(ByteBuffer buffer, long position) throws IOException {
+        writeFully(channel, buffer, position);
+    }
+
+    /**
+     * Writes a whole buffer at a position in a channel shared by many threads.
+     *
+     * @param channel the file channel.
+     * @param buffer the bytes to write.
+     * @param position the file position.
+     * @throws IOException if the bytes can't be written.
+     */
+    static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        // An interrupt during a channel write closes the channel for every thread, so hold it until afterwards:
+        boolean interrupted = Thread.interrupted();
+        try {
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        } finally {
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * One stream of the archive. Text is encoded as UTF-8 into a segment buffer, which is appended to the
+     * archive when full and when the stream is closed; each segment points back to the stream's previous one.
+     */
+    private final class Stream extends Writer {
+
+        private final int id;
+        private final String name;
+        private byte[] segment = null;      // Segment header and text, allocated on first write
+        private ByteBuffer buffer = null;
+        private int used = 0;               // Text bytes in the segment
+        private long length = 0;            // Text bytes appended so far
+        private long last = -1;             // Position of the last segment appended
+        private boolean closed = false;
+
+        /**
+         * Constructs an empty stream.
+         *
+         * @param id the stream's position in the index.
+         * @param name the stream's name.
+         */
+        Stream(int id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            synchronized (lock) {
+                ensureOpen();
+                for (int i = off; i < off + len; i++) {
+                    char c = cbuf[i];
+                    if (c >= 0x80) {
+                        writeBytes(new String(cbuf, i, off + len - i).getBytes(StandardCharsets.UTF_8));
+                        return;
+                    }
+                    put((byte) c);
+                }
+            }
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            synchronized (lock) {
+                ensureOpen();
+                for (int i = off; i < off + len; i++) {
+                    char c = str.charAt(i);
+                    if (c >= 0x80) {
+                        writeBytes(str.substring(i, off + len).getBytes(StandardCharsets.UTF_8));
+                        return;
+                    }
+                    put((byte) c);
+                }
+            }
+        }
+
+        /**
+         * Does nothing: the text is appended to the archive a segment at a time.
+         */
+        @Override
+        public void flush() {
+        }
+
+        /**
+         * Appends the last segment. The stream can't be written to afterwards.
+         *
+         * @throws IOException if the segment can't be written.
+         */
+        @Override
+        public void close() throws IOException {
+            synchronized (lock) {
+                if (closed) return;
+                closed = true;
+                appendSegment();
+                segment = null;
+                buffer = null;
+            }
+        }
+
+        /**
+         * Checks the stream can still be written to.
+         *
+         * @throws IOException if it has been closed.
+         */
+        private void ensureOpen() throws IOException {
+            if (closed) throw new IOException("Stream closed: " + name);
+        }
+
+        /**
+         * Adds encoded text to the segment.
+         *
+         * @param bytes the UTF-8 bytes.
+         * @throws IOException if a full segment can't be written.
+         */
+        private void writeBytes(byte[] bytes) throws IOException {
+            for (byte b : bytes) {
+                put(b);
+            }
+        }
+
+        /**
+         * Adds one byte to the segment, appending the segment first if it is full.
+         *
+         * @param b the byte.
+         * @throws IOException if the full segment can't be written.
+         */
+        private void put(byte b) throws IOException {
+            if (segment == null) {
+                segment = new byte[OutputArchive.SEGMENT_HEADER + SEGMENT_SIZE];
+                buffer = ByteBuffer.wrap(segment);
+            } else if (used == SEGMENT_SIZE) {
+                appendSegment();
+            }
+            segment[OutputArchive.SEGMENT_HEADER + used++] = b;
+        }
+
+        /**
+         * Appends the segment to the end of the archive, if it holds any text, and starts a new one.
+         *
+         * @throws IOException if the segment can't be written.
+         */
+        private void appendSegment() throws IOException {
+            if (used == 0) return;
+            int size = OutputArchive.SEGMENT_HEADER + used;
+            long position = end.getAndAdd(size);
+            buffer.clear();
+            buffer.putInt(0, id).putInt(4, used).putLong(8, last).limit(size);
+            writeAt(buffer, position);
+            last = position;
+            length += used;
+            used = 0;
+        }
+    }
+}
@@ -0,0 +1,303 @@
+// ArrayEngine.java
+
+package cardgame;
+
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Struct-of-arrays game state and single-threaded turn loop, for games with up to millions of players.
+ *
+ * Instead of a {@link Player} and a {@link Deck} object per seat, every hand lives in one {@code int[]}
+ * (four slots per player) and every deck is a fixed-size ring segment of one {@code int[]}, with its read and
+ * write counters in two more arrays. A round-robin pass walks all of them in address order.
+ *
+ * The rules, the turn order and the random numbers are exactly those of {@link SequentialEngine} with ring decks:
+ * each player's {@link java.util.Random} is reproduced inline from a {@code long[]} of seeds, so the same seed
+ * plays the same game, down to the log files. Above 65,536 players the decks hold fewer cards than ring decks,
+ * to fit in memory, so a game can differ once a deck fills: the turn that would overfill it is skipped.
+ */
+final class ArrayEngine {
+
+    private static final int HAND_SIZE = 4;
+
+    /**
+     * Most deck slots in all: 64 MB of cards. Up to 65,536 players every deck holds as many cards as a
+     * {@link RingDeck}; above that the segments shrink to fit.
+     */
+    private static final int MAX_DECK_SLOTS = 1 << 24;
+
+    /**
+     * Smallest deck segment, whatever the game size. A deck rarely holds more than a few cards.
+     */
+    private static final int MIN_DECK_CAPACITY = 16;
+
+    // java.util.Random's linear congruential generator:
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+    private static final long ADDEND = 0xBL;
+    private static final long MASK = (1L << 48) - 1;
+
+    private final GameContext context;
+    private final int n;
+    private final int capacity;             // Cards per deck segment, a power of two
+    private final int mask;
+    private final int[] hands;              // Player p's hand is hands[4p .. 4p+3], in hand order
+    private final int[] decks;              // Deck d's cards are decks[d*capacity .. (d+1)*capacity - 1]
+    private final int[] heads;              // Cards drawn from each deck so far
+    private final int[] tails;              // Cards added to each deck so far
+    private final long[] turns;
+    private final long[] seeds;             // Each player's random state
+    private final PlayerLog[] logs;
+    private final int[] scratch = new int[HAND_SIZE];   // A hand copied out for logging
+
+    /**
+     * Deals a validated pack, like {@link CardGame}: 4 cards to each player in turn, then the rest to each deck.
+     *
+     * @param context the game the players belong to.
+     * @param numPlayers the number of players (and decks).
+     * @param pack the card values, 8 per player, in pack order.
+     * @param logFactory opens each player's log.
+     * @throws IOException if a log can't be opened.
+     */
+    ArrayEngine(GameContext context, int numPlayers, int[] pack, PlayerLogFactory logFactory) throws IOException {
+        this.context = context;
+        this.n = numPlayers;
+        this.capacity = Math.max(MIN_DECK_CAPACITY,
+                Math.min(RingDeck.capacityFor(numPlayers), Integer.highestOneBit(MAX_DECK_SLOTS / numPlayers)));
+        this.mask = capacity - 1;
+        this.hands = new int[HAND_SIZE * n];
+        this.decks = new int[capacity * n];
+        this.heads = new int[n];
+        this.tails = new int[n];
+        this.turns = new long[n];
+        this.seeds = new long[n];
+        this.logs = new PlayerLog[n];
+
+        for (int p = 0; p < n; p++) {
+            logs[p] = logFactory.open(p + 1);
+        }
+        int index = 0;
+        for (int i = 0; i < HAND_SIZE * n; i++) {
+            hands[(i % n) * HAND_SIZE + i / n] = pack[index++];
+        }
+        for (int i = 0; i < HAND_SIZE * n; i++) {
+            int d = i % n;
+            decks[d * capacity + (tails[d]++ & mask)] = pack[index++];
+        }
+    }
+
+    /**
+     * Plays until a player wins, in the same way as {@link SequentialEngine#run}.
+     *
+     * @param order the order of turns.
+     * @param seed seeds the turn order and every player's discard choices.
+     * @throws IllegalStateException if no player can take a turn, which the deck sizes rule out.
+     */
+    void run(TurnOrder order, long seed) {
+        Random scheduler = new Random(seed);
+        for (int p = 0; p < n; p++) {
+            seeds[p] = (SequentialEngine.playerSeed(seed, p + 1) ^ MULTIPLIER) & MASK;    // As Random.setSeed
+        }
+
+        // Log the initial hands; the lowest ID with a winning hand wins at once:
+        for (int p = 0; p < n; p++) {
+            logs[p].initialHand(copyHand(p), HAND_SIZE);
+            if (hasWinningHand(p) && context.claimWin(p + 1)) {
+                logs[p].won(copyHand(p), HAND_SIZE);
+                logs[p].close();
+            }
+        }
+
+        int next = 0;
+        int idleTurns = 0;
+        while (!context.isOver()) {
+            int p = order == TurnOrder.ROUND_ROBIN ? next : scheduler.nextInt(n);
+            next = next + 1 == n ? 0 : next + 1;
+
+            if (takeTurn(p)) {
+                idleTurns = 0;
+            } else if (++idleTurns % n == 0 && !anyCanTakeTurn()) {
+                throw new IllegalStateException("No player can take a turn.");
+            }
+        }
+
+        // Game over - final logs:
+        int winnerId = context.getWinnerId();
+        for (int p = 0; p < n; p++) {
+            if (p + 1 == winnerId) continue;
+            logs[p].informed(winnerId, copyHand(p), HAND_SIZE);
+            logs[p].close();
+        }
+    }
+
+    /**
+     * One turn for a player: draw from the left deck, discard a random non-preferred card to the right deck.
+     *
+     * @param p the player's index (ID - 1).
+     * @return true if a turn was taken, false if the left deck was empty or the right deck full.
+     */
+    private boolean takeTurn(int p) {
+        int left = p;
+        int right = p + 1 == n ? 0 : p + 1;
+        if (tails[right] - heads[right] == capacity) return false;     // Only draw if the discard will fit
+        if (heads[left] == tails[left]) return false;
+
+        int drawn = decks[left * capacity + (heads[left]++ & mask)];
+
+        // Choose from the hand and the drawn card (slot 4), preferring to keep the player's own denomination:
+        int base = p * HAND_SIZE;
+        int id = p + 1;
+        int notPreferred = (drawn != id ? 1 : 0);
+        for (int i = 0; i < HAND_SIZE; i++) {
+            notPreferred += hands[base + i] != id ? 1 : 0;
+        }
+        int choice;
+        if (notPreferred == 0) {
+            choice = nextInt(p, HAND_SIZE + 1);
+        } else {
+            int k = nextInt(p, notPreferred);
+            choice = HAND_SIZE;
+            for (int i = 0; i < HAND_SIZE; i++) {
+                if (hands[base + i] != id && k-- == 0) {
+                    choice = i;
+                    break;
+                }
+            }
+        }
+
+        // Remove the choice, keeping the order of the rest, with the drawn card last:
+        int discarded = drawn;
+        if (choice < HAND_SIZE) {
+            discarded = hands[base + choice];
+            for (int i = choice; i < HAND_SIZE - 1; i++) {
+                hands[base + i] = hands[base + i + 1];
+            }
+            hands[base + HAND_SIZE - 1] = drawn;
+        }
+
+        decks[right * capacity + (tails[right]++ & mask)] = discarded;
+        turns[p]++;
+
+        logs[p].turn(drawn, left + 1, discarded, right + 1, copyHand(p), HAND_SIZE);
+        if (hasWinningHand(p) && context.claimWin(id)) {
+            logs[p].won(copyHand(p), HAND_SIZE);
+            logs[p].close();
+        }
+        return true;
+    }
+
+    /**
+     * Checks for four of a kind.
+     *
+     * @param p the player's index.
+     * @return true if all four cards are the same.
+     */
+    private boolean hasWinningHand(int p) {
+        int base = p * HAND_SIZE;
+        int v = hands[base];
+        return hands[base + 1] == v && hands[base + 2] == v && hands[base + 3] == v;
+    }
+
+    /**
+     * Checks whether any player could take a turn.
+     *
+     * @return true if some player's left deck holds a card and its right deck has space.
+     */
+    private boolean anyCanTakeTurn() {
+        for (int p = 0; p < n; p++) {
+            int right = p + 1 == n ? 0 : p + 1;
+            if (heads[p] != tails[p] && tails[right] - heads[right] < capacity) return true;
+        }
+        return false;
+    }
+
+    /**
+     * {@link java.util.Random#nextInt(int)} on a player's random state.
+     *
+     * @param p the player's index.
+     * @param bound the exclusive upper bound.
+     * @return a value from 0 to bound - 1.
+     */
+    private int nextInt(int p, int bound) {
+        int r = next31(p);
+        int m = bound - 1;
+        if ((bound & m) == 0) {
+            return (int) ((bound * (long) r) >> 31);
+        }
+        for (int u = r; u - (r = u % bound) + m < 0; u = next31(p)) {
+            // Reject the values that would bias the result
+        }
+        return r;
+    }
+
+    /**
+     * Advances a player's random state, as {@code java.util.Random.next(31)}.
+     *
+     * @param p the player's index.
+     * @return 31 random bits.
+     */
+    private int next31(int p) {
+        long s = (seeds[p] * MULTIPLIER + ADDEND) & MASK;
+        seeds[p] = s;
+        return (int) (s >>> (48 - 31));
+    }
+
+    /**
+     * Copies a hand out for a log, which may read it straight away.
+     *
+     * @param p the player's index.
+     * @return the shared scratch array holding the hand.
+     */
+    private int[] copyHand(int p) {
+        System.arraycopy(hands, p * HAND_SIZE, scratch, 0, HAND_SIZE);
+        return scratch;
+    }
+
+    /**
+     * Gets the number of decks.
+     *
+     * @return the number of decks, one per player.
+     */
+    int getNumDecks() {
+        return n;
+    }
+
+    /**
+     * Shows a deck's contents as a space-separated string, like {@link Deck#contentsAsString()}.
+     *
+     * @param deckId the deck ID, from 1.
+     * @return the cards from top to bottom.
+     */
+    String contentsAsString(int deckId) {
+        int d = deckId - 1;
+        StringBuilder sb = new StringBuilder();
+        for (int i = heads[d]; i != tails[d]; i++) {
+            if (sb.length() > 0) sb.append(' ');
+            sb.append(decks[d * capacity + (i & mask)]);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Gets the number of turns a player has taken.
+     *
+     * @param playerId the player ID, from 1.
+     * @return the turn count.
+     */
+    long getTurnCount(int playerId) {
+        return turns[playerId - 1];
+    }
+
+    /**
+     * Gets the number of turns taken by all players.
+     *
+     * @return the total turn count.
+     */
+    long getTotalTurns() {
+        long total = 0;
+        for (long t : turns) {
+            total += t;
+        }
+        return total;
+    }
+}
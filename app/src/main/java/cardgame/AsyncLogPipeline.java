@@ -0,0 +1,296 @@
+// AsyncLogPipeline.java
+
+package cardgame;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous, batched player logging.
+ *
+ * Players only put a small {@link LogRecord} on a bounded queue, so a turn never waits for the disk.
+ * One or more writer threads take records in batches, format them with the same text as {@link TextPlayerLog},
+ * and flush each file once per batch. Each player always goes to the same writer thread, so its lines stay in order.
+ * If the writers fall behind, a full queue makes players wait rather than use unbounded memory.
+ *
+ * A writer thread only stops at the marker {@link #close()} queues, so players never wait on a queue nobody takes
+ * from: a record that can't be written is reported and skipped, and an interrupt is ignored. If a writer thread
+ * dies anyway, e.g. out of memory, the pipeline fails: players drop their records, and flush and close report it.
+ */
+public class AsyncLogPipeline implements PlayerLogFactory, AutoCloseable {
+
+    /**
+     * Default number of records each writer thread's queue holds.
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 8192;
+
+    private static final int MAX_BATCH = 1024;
+    private static final long FAILURE_CHECK_MILLIS = 10;    // How often a waiting thread checks for a dead writer
+
+    private final OutputSink sink;
+    private final List<BlockingQueue<LogRecord>> queues = new ArrayList<>();
+    private final List<Thread> writers = new ArrayList<>();
+    private final List<Writer> opened = Collections.synchronizedList(new ArrayList<>());
+    private volatile IOException firstError = null;
+    private volatile CountDownLatch synced = null;  // Counts down the writer threads during a flush
+    private volatile boolean failed = false;        // A writer thread has died: records are dropped
+
+    /**
+     * Starts the writer threads, writing to files in a directory.
+     *
+     * @param outDir the output directory, created if not present.
+     * @param writerThreads the number of writer threads.
+     * @param queueCapacity the number of records each writer thread's queue holds.
+     */
+    public AsyncLogPipeline(File outDir, int writerThreads, int queueCapacity) {
+        this(OutputSink.directory(outDir), writerThreads, queueCapacity);
+    }
+
+    /**
+     * Starts the writer threads, writing to the streams of an output sink.
+     *
+     * @param sink the output sink.
+     * @param writerThreads the number of writer threads.
+     * @param queueCapacity the number of records each writer thread's queue holds.
+     */
+    public AsyncLogPipeline(OutputSink sink, int writerThreads, int queueCapacity) {
+        this.sink = sink;
+        for (int i = 0; i < writerThreads; i++) {
+            BlockingQueue<LogRecord> queue = new ArrayBlockingQueue<>(queueCapacity);
+            String name = "Log-Writer-" + (i + 1);
+            Thread t = new Thread(() -> drain(queue), name);
+            t.setDaemon(true);
+            queues.add(queue);
+            writers.add(t);
+            t.start();
+        }
+    }
+
+    /**
+     * Opens the {@code playerN_output.txt} stream, and a queued log that writes to it.
+     *
+     * @param playerId the player's ID.
+     * @return the player's log.
+     * @throws IOException if the stream can't be created.
+     */
+    @Override
+    public PlayerLog open(int playerId) throws IOException {
+        Writer out = sink.open(OutputSink.playerStream(playerId));   // Buffered by the sink until flushed
+        opened.add(out);
+        return new QueuedPlayerLog(playerId, out, queues.get(playerId % queues.size()));
+    }
+
+    /**
+     * Writes and flushes everything queued so far, e.g. before a checkpoint measures the files.
+     * Call while no player is logging.
+     *
+     * @throws IOException if any record could not be written.
+     */
+    public void flush() throws IOException {
+        CountDownLatch latch = new CountDownLatch(queues.size());
+        synced = latch;
+        for (BlockingQueue<LogRecord> queue : queues) {
+            putUninterruptibly(queue, LogRecord.SYNC_RECORD);
+        }
+        boolean interrupted = false;
+        while (!failed) {   // A dead writer never counts down
+            try {
+                if (latch.await(FAILURE_CHECK_MILLIS, TimeUnit.MILLISECONDS)) break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+        if (firstError != null) throw firstError;
+    }
+
+    /**
+     * Writes everything still queued, stops the writer threads and closes every file.
+     * Call once all players have finished.
+     *
+     * @throws IOException if any record could not be written.
+     */
+    @Override
+    public void close() throws IOException {
+        for (BlockingQueue<LogRecord> queue : queues) {
+            putUninterruptibly(queue, LogRecord.STOP_RECORD);
+        }
+        for (Thread t : writers) {
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (opened) {
+            for (Writer out : opened) {
+                out.close();    // Closing an already closed writer has no effect
+            }
+        }
+        if (firstError != null) throw firstError;
+    }
+
+    /**
+     * The writer thread: writes batches until stopped. If it dies of an error, the pipeline fails and the queue
+     * is emptied, so no player waits on it.
+     *
+     * @param queue this thread's queue.
+     */
+    private void drain(BlockingQueue<LogRecord> queue) {
+        try {
+            writeBatches(queue);
+        } catch (Throwable t) {
+            fail(new IOException("Log writer stopped: " + t, t));
+            failed = true;
+            queue.clear();
+            throw t;
+        }
+    }
+
+    /**
+     * The writer thread loop: take a batch, format and write it, then flush each file it touched.
+     *
+     * @param queue this thread's queue.
+     */
+    private void writeBatches(BlockingQueue<LogRecord> queue) {
+        List<LogRecord> batch = new ArrayList<>(MAX_BATCH);
+        Set<Writer> touched = Collections.newSetFromMap(new IdentityHashMap<>());
+        StringBuilder text = new StringBuilder(256);
+        boolean running = true;
+        boolean sync = false;
+
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                continue;   // Only the stop marker ends the thread: players may still be queueing
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+
+            for (LogRecord r : batch) {
+                try {
+                    if (r.kind == LogRecord.STOP) {
+                        running = false;
+                    } else if (r.kind == LogRecord.SYNC) {
+                        sync = true;
+                    } else if (r.kind == LogRecord.CLOSE) {
+                        r.out.close();
+                        touched.remove(r.out);
+                    } else {
+                        r.appendTo(text);
+                        r.out.append(text);
+                        text.setLength(0);
+                        touched.add(r.out);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    text.setLength(0);
+                    fail(e);
+                }
+            }
+            for (Writer out : touched) {
+                try {
+                    out.flush();
+                } catch (IOException | RuntimeException e) {
+                    fail(e);
+                }
+            }
+            touched.clear();
+            batch.clear();
+            if (sync) {
+                synced.countDown();     // Everything before the marker is flushed
+                sync = false;
+            }
+        }
+    }
+
+    /**
+     * Reports the first write error; later ones are usually the same problem.
+     *
+     * @param e the error: an I/O error, or a runtime exception while formatting or writing a record.
+     */
+    private synchronized void fail(Exception e) {
+        if (firstError == null) {
+            firstError = e instanceof IOException io ? io : new IOException("Error writing player log: " + e, e);
+            System.err.println("Error writing player log: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Puts a record on a queue, waiting for space even if interrupted, so no record is lost. Once the pipeline
+     * has failed the record is dropped instead, since its writer may be gone.
+     *
+     * @param queue the queue.
+     * @param r the record.
+     */
+    private void putUninterruptibly(BlockingQueue<LogRecord> queue, LogRecord r) {
+        boolean interrupted = false;
+        while (!failed) {
+            try {
+                if (queue.offer(r, FAILURE_CHECK_MILLIS, TimeUnit.MILLISECONDS)) break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    /**
+     * A player's view of the pipeline: each event becomes a record on its writer thread's queue.
+     */
+    private final class QueuedPlayerLog implements PlayerLog {
+
+        private final int playerId;
+        private final Writer out;
+        private final BlockingQueue<LogRecord> queue;
+
+        QueuedPlayerLog(int playerId, Writer out, BlockingQueue<LogRecord> queue) {
+            this.playerId = playerId;
+            this.out = out;
+            this.queue = queue;
+        }
+
+        @Override
+        public void initialHand(int[] hand, int size) {
+            enqueue(LogRecord.INITIAL_HAND, 0, 0, 0, 0, LogRecord.copyHand(hand, size), null);
+        }
+
+        @Override
+        public void turn(int drawn, int fromDeck, int discarded, int toDeck, int[] hand, int size) {
+            enqueue(LogRecord.TURN, drawn, fromDeck, discarded, toDeck, LogRecord.copyHand(hand, size), null);
+        }
+
+        @Override
+        public void won(int[] hand, int size) {
+            enqueue(LogRecord.WON, 0, 0, 0, 0, LogRecord.copyHand(hand, size), null);
+        }
+
+        @Override
+        public void informed(int winnerId, int[] hand, int size) {
+            enqueue(LogRecord.INFORMED, winnerId, 0, 0, 0, LogRecord.copyHand(hand, size), null);
+        }
+
+        @Override
+        public void error(String message) {
+            enqueue(LogRecord.ERROR, 0, 0, 0, 0, null, message);
+        }
+
+        @Override
+        public void close() {
+            enqueue(LogRecord.CLOSE, 0, 0, 0, 0, null, null);
+        }
+
+        private void enqueue(int kind, int a, int b, int c, int d, int[] hand, String message) {
+            putUninterruptibly(queue, new LogRecord(kind, playerId, out, a, b, c, d, hand, message));
+        }
+    }
+}
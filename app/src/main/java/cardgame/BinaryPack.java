@@ -0,0 +1,242 @@
+// BinaryPack.java
+
+package cardgame;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Compact binary pack format, loaded without any parsing.
+ *
+ * A 16 byte header followed by the card values in pack order:
+ * <pre>
+ *   0  magic "CGPK"
+ *   4  format version (1)
+ *   5  value width: 1, 2 or 4 bytes per value (big-endian, unsigned), or 0 for unsigned LEB128 varints
+ *   6  reserved (0)
+ *   8  card count (int)
+ *  12  CRC-32 of the value bytes (int)
+ * </pre>
+ * A text pack always starts with a digit, sign or whitespace, so the magic tells the two formats apart.
+ *
+ * Convert a text pack with {@code java -cp app.jar cardgame.BinaryPack <players> <text pack> <binary pack>}.
+ */
+public final class BinaryPack {
+
+    /**
+     * Header size in bytes.
+     */
+    public static final int HEADER = 16;
+
+    /**
+     * Width byte for varint-encoded values.
+     */
+    public static final int VARINT = 0;
+
+    private static final int MAGIC = ('C' << 24) | ('G' << 16) | ('P' << 8) | 'K';
+    private static final byte VERSION = 1;
+    private static final long WINDOW = 256L * 1024 * 1024;     // Multiple of every fixed width
+
+    private BinaryPack() {
+    }
+
+    /**
+     * Converts a text pack to a binary pack.
+     *
+     * @param args the number of players, the text pack, and the binary pack to write.
+     */
+    public static void main(String[] args) {
+        if (args.length != 3) {
+            System.out.println("Usage: cardgame.BinaryPack <players> <text pack> <binary pack>");
+            return;
+        }
+        try {
+            int numPlayers = Integer.parseInt(args[0]);
+            if (numPlayers <= 0) throw new NumberFormatException();
+            int[] values = PackLoader.load(new File(args[1]), 8L * numPlayers);
+            if (values == null) {
+                System.out.println("Invalid pack file: must contain 8 times the number of players of non-negative cards.");
+                return;
+            }
+            File out = new File(args[2]);
+            write(out, values);
+            System.out.println("Wrote " + values.length + " cards to " + out + " (" + out.length() + " bytes).");
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid number of players: " + args[0]);
+        } catch (IOException e) {
+            System.out.println("Error converting pack file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Checks whether a file starts with the binary pack magic.
+     *
+     * @param file the pack file.
+     * @return true for a binary pack, false for anything else, e.g. a text pack.
+     * @throws IOException if the file can't be read.
+     */
+    public static boolean isBinary(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() < 4) return false;
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, 4).getInt(0) == MAGIC;
+        }
+    }
+
+    /**
+     * Writes a binary pack in whichever encoding is smaller: the narrowest fixed width that fits every value,
+     * or varints.
+     *
+     * @param file the file to write.
+     * @param values the card values, all non-negative.
+     * @throws IOException if the file can't be written.
+     */
+    public static void write(File file, int[] values) throws IOException {
+        int max = 0;
+        long varintBytes = 0;
+        for (int v : values) {
+            if (v < 0) throw new IllegalArgumentException("Card values must be non-negative: " + v);
+            max = Math.max(max, v);
+            varintBytes += varintSize(v);
+        }
+        int width = max <= 0xFF ? 1 : max <= 0xFFFF ? 2 : 4;
+        write(file, values, varintBytes < (long) width * values.length ? VARINT : width);
+    }
+
+    /**
+     * Writes a binary pack with a given encoding.
+     *
+     * @param file the file to write.
+     * @param values the card values, all non-negative.
+     * @param width 1, 2 or 4 bytes per value, or {@link #VARINT}.
+     * @throws IOException if the file can't be written.
+     */
+    public static void write(File file, int[] values, int width) throws IOException {
+        if (width != VARINT && width != 1 && width != 2 && width != 4) {
+            throw new IllegalArgumentException("Value width must be 0, 1, 2 or 4: " + width);
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            // Values first, checksummed on the way out:
+            channel.position(HEADER);
+            CRC32 crc = new CRC32();
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16), crc));
+            for (int v : values) {
+                if (v < 0) throw new IllegalArgumentException("Card values must be non-negative: " + v);
+                switch (width) {
+                    case 1 -> {
+                        if (v > 0xFF) throw new IllegalArgumentException("Card value too wide: " + v);
+                        out.writeByte(v);
+                    }
+                    case 2 -> {
+                        if (v > 0xFFFF) throw new IllegalArgumentException("Card value too wide: " + v);
+                        out.writeShort(v);
+                    }
+                    case 4 -> out.writeInt(v);
+                    default -> {
+                        while ((v & ~0x7F) != 0) {
+                            out.writeByte((v & 0x7F) | 0x80);
+                            v >>>= 7;
+                        }
+                        out.writeByte(v);
+                    }
+                }
+            }
+            out.flush();     // Not closed: that would close the channel before the header is written
+
+            // Then the header, now the checksum is known:
+            ByteBuffer header = ByteBuffer.allocate(HEADER);
+            header.putInt(MAGIC).put(VERSION).put((byte) width).putShort((short) 0)
+                    .putInt(values.length).putInt((int) crc.getValue()).flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+        }
+    }
+
+    /**
+     * Loads and validates a binary pack.
+     *
+     * @param file the pack file.
+     * @param expectedCards the number of cards the pack must hold (8 per player).
+     * @return the card values in pack order, or null if the pack is invalid: a bad header, wrong count,
+     *         truncated or extra value bytes, a checksum mismatch or a negative value.
+     * @throws IOException if the file can't be read.
+     */
+    public static int[] load(File file, int expectedCards) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER) return null;
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER);
+            if (header.getInt(0) != MAGIC || header.get(4) != VERSION || header.getShort(6) != 0) return null;
+            int width = header.get(5);
+            int count = header.getInt(8);
+            int checksum = header.getInt(12);
+            if (count != expectedCards) return null;
+            if (width != VARINT && width != 1 && width != 2 && width != 4) return null;
+            if (width != VARINT && size - HEADER != (long) width * count) return null;
+            if (width == VARINT && size - HEADER < count) return null;     // A varint takes at least a byte
+
+            int[] values = new int[count];
+            CRC32 crc = new CRC32();
+            int next = 0;
+            int shift = 0;      // Varint state, kept across windows
+            int value = 0;
+            for (long pos = HEADER; pos < size; pos += WINDOW) {
+                MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(WINDOW, size - pos));
+                crc.update(buf.duplicate());
+                int limit = buf.limit();
+                switch (width) {
+                    case 1 -> {
+                        for (int i = 0; i < limit; i++) values[next++] = buf.get(i) & 0xFF;
+                    }
+                    case 2 -> {
+                        for (int i = 0; i < limit; i += 2) values[next++] = buf.getShort(i) & 0xFFFF;
+                    }
+                    case 4 -> {
+                        buf.asIntBuffer().get(values, next, limit / 4);
+                        for (int i = next; i < next + limit / 4; i++) {
+                            if (values[i] < 0) return null;     // Must be >=0
+                        }
+                        next += limit / 4;
+                    }
+                    default -> {
+                        for (int i = 0; i < limit; i++) {
+                            byte b = buf.get(i);
+                            if (next == count || shift > 28 || (shift == 28 && (b & 0x78) != 0)) return null;
+                            value |= (b & 0x7F) << shift;
+                            if (b >= 0) {
+                                values[next++] = value;
+                                shift = 0;
+                                value = 0;
+                            } else {
+                                shift += 7;
+                            }
+                        }
+                    }
+                }
+            }
+            if (next != count || shift != 0) return null;      // Truncated varints
+            return (int) crc.getValue() == checksum ? values : null;
+        }
+    }
+
+    /**
+     * Returns the number of bytes a value takes as a varint.
+     *
+     * @param v the non-negative value.
+     * @return 1 to 5.
+     */
+    private static int varintSize(int v) {
+        return (31 - Integer.numberOfLeadingZeros(v | 1)) / 7 + 1;
+    }
+}
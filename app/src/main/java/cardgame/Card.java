@@ -7,6 +7,18 @@ package cardgame;
  */
 public final class Card {
 
+    /**
+     * Values below this are served from a shared cache by {@link #of(int)}.
+     */
+    private static final int CACHE_SIZE = 1024;
+    private static final Card[] CACHE = new Card[CACHE_SIZE];
+
+    static {
+        for (int i = 0; i < CACHE_SIZE; i++) {
+            CACHE[i] = new Card(i);
+        }
+    }
+
     private final int value;
 
     /**
@@ -22,6 +34,21 @@ public final class Card {
         this.value = value;
     }
 
+    /**
+     * Gets a card with a specified value.
+     * Cards are immutable, so common values share one instance instead of allocating a new card.
+     *
+     * @param value Non-negative integer: the card's denomination.
+     * @return a card with that value.
+     * @throws IllegalArgumentException if value is negative.
+     */
+    public static Card of(int value) throws IllegalArgumentException {
+        if (value >= 0 && value < CACHE_SIZE) {
+            return CACHE[value];
+        }
+        return new Card(value);
+    }
+
     /**
      * Gets the value (denomination) of the card.
      *
@@ -0,0 +1,33 @@
+// CardDiscardedEvent.java
+
+package cardgame;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for a card discarded to a deck during a turn, committed once the turn has released the
+ * decks, so it has no duration: the turn event times the whole turn.
+ * Off unless a recording enables it.
+ */
+@Name("cardgame.CardDiscarded")
+@Label("Card Discarded")
+@Category("Card Game")
+@Description("A player adds a card to the bottom of its right deck")
+@Enabled(false)
+@StackTrace(false)
+final class CardDiscardedEvent extends jdk.jfr.Event {
+
+    @Label("Player")
+    int playerId;
+
+    @Label("Deck")
+    int deckId;
+
+    @Label("Value")
+    int value;
+}
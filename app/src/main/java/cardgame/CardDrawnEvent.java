@@ -0,0 +1,33 @@
+// CardDrawnEvent.java
+
+package cardgame;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for a card drawn from a deck during a turn, committed once the turn has released the
+ * decks, so it has no duration: the turn event times the whole turn.
+ * Off unless a recording enables it.
+ */
+@Name("cardgame.CardDrawn")
+@Label("Card Drawn")
+@Category("Card Game")
+@Description("A player draws the top card of its left deck")
+@Enabled(false)
+@StackTrace(false)
+final class CardDrawnEvent extends jdk.jfr.Event {
+
+    @Label("Player")
+    int playerId;
+
+    @Label("Deck")
+    int deckId;
+
+    @Label("Value")
+    int value;
+}
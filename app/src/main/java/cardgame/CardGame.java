@@ -3,9 +3,13 @@
 package cardgame;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Main executable class for the card game.
@@ -13,26 +17,90 @@ import java.util.*;
  */
 public class CardGame {
 
+    /**
+     * Name of the output archive in {@code out/}, for {@link OutputMode#ARCHIVE}.
+     */
+    public static final String ARCHIVE_NAME = "output.cga";
+
+    /**
+     * Name of the event file in {@code out/}, for {@link LogMode#BINARY}.
+     */
+    public static final String EVENTS_NAME = "events.cge";
+
     private final List<Player> players = new ArrayList<>();
     private final List<Deck> decks = new ArrayList<>();
-    private final List<Card> pack = new ArrayList<>();
+    private int[] pack = new int[0];    // Card values, in pack order
     private final List<Thread> threads = new ArrayList<>();
+    private final GameOptions options;
+    private final GameContext context = new GameContext();  // IDs and winner of this game only
+    private final boolean writeOutput;
+    private PlayerLogFactory logs;
+    private ArrayEngine arrays = null;  // Holds the hands and decks instead, for the struct-of-arrays engine
+    private AsyncLogPipeline pipeline = null;
+    private Checkpoint resumed = null;  // The saved game this game continues, instead of dealing a pack
+    private final GameEventPublisher events = new GameEventPublisher();
+
+    /**
+     * Constructs a game with the default options.
+     */
+    public CardGame() {
+        this(new GameOptions());
+    }
+
+    /**
+     * Constructs a game with the given options.
+     *
+     * @param options the startup options, e.g. the deck type.
+     */
+    public CardGame(GameOptions options) {
+        this(options, true);
+    }
+
+    /**
+     * Constructs a game that may play silently.
+     *
+     * @param options the startup options, e.g. the deck type.
+     * @param writeOutput false for no log files, deck files or console output, e.g. in simulations.
+     */
+    CardGame(GameOptions options, boolean writeOutput) {
+        this.options = options;
+        this.writeOutput = writeOutput;
+        this.logs = writeOutput ? PlayerLogFactory.files(new File("out")) : PlayerLogFactory.NONE;
+    }
 
     /**
      * The executed game function.
-     * Calls start method defined by the class.
+     * Reads the options, then calls start method defined by the class.
+     *
+     * @param args options such as {@code --deck=ring}.
      */
     public static void main(String[] args) {
-        CardGame game = new CardGame();
-        game.start();
+        GameOptions options;
+        try {
+            options = GameOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            System.out.println(GameOptions.USAGE);
+            return;
+        }
+        CardGame game = new CardGame(options);
+        if (options.getResumeFile() != null) {
+            game.resume(options.getResumeFile());
+        } else {
+            game.start();
+        }
     }
 
+    /**
+     * Prompts for the number of players and the pack file, then runs the game.
+     * Anything already given in the options is not asked for.
+     */
     public void start() {
         // Read from the terminal:
         Scanner sc = new Scanner(System.in);
 
         // Get the number of players:
-        int numPlayers = 0;
+        int numPlayers = options.getNumPlayers();
         while (numPlayers <= 0)  {  // Repeat until valid input
             System.out.println("Please enter the number of players: ");
             try {
@@ -47,7 +115,7 @@ public class CardGame {
         }
 
         // Get the pack file:
-        File packFile = null;
+        File packFile = options.getPackFile();
         while (packFile == null || !packFile.exists()) {    // Repeat until valid input
             System.out.println("Please enter location of pack to load: ");
             String path = sc.nextLine();
@@ -62,48 +130,440 @@ public class CardGame {
         // Close the scanner to prevent resource leaks:
         sc.close();
 
+        start(numPlayers, packFile);
+    }
+
+    /**
+     * Runs a full game, or a batch simulation if the options ask for one, without prompting on the terminal.
+     * Used by {@link #start()} once the input is valid, and by benchmarks and tools.
+     *
+     * @param numPlayers the number of players in the game.
+     * @param packFile the pack file to load.
+     */
+    public void start(int numPlayers, File packFile) {
         // Read the pack file, validate contents:
         if (!loadPack(packFile, numPlayers)) {
             System.out.println("Invalid pack file: must contain 8 times the number of players of non-negative cards.");
             return;
         }
 
-        // Initialise decks and players:
-        initDecks(numPlayers);
+        // Batch mode: play many silent games of this pack instead:
+        if (options.getSimulations() > 0) {
+            Simulation simulation = new Simulation(numPlayers, pack, options);
+            System.out.print(simulation.run(options.getSimulations(), options.getParallelism()));
+            return;
+        }
+        playRecorded(numPlayers);
+    }
+
+    /**
+     * Resumes a game saved by a checkpoint and plays it to the end, continuing its player logs in {@code out/}.
+     * Anything the logs gained after the checkpoint is dropped. The decks are of the saved game's type.
+     *
+     * @param checkpointFile the checkpoint file.
+     */
+    public void resume(File checkpointFile) {
         try {
-            initPlayers(numPlayers);
+            resumed = Checkpoint.read(checkpointFile);
+        } catch (IOException e) {
+            System.out.println("Error reading checkpoint: " + e.getMessage());
+            return;
+        }
+        System.out.println("Resuming " + resumed.getNumPlayers() + " players after " + resumed.getTotalTurns()
+                + " turns.");
+        playRecorded(resumed.getNumPlayers());
+    }
+
+    /**
+     * Plays and writes one game, recorded for Flight Recorder if the options ask for it.
+     *
+     * @param numPlayers the number of players in the game.
+     */
+    private void playRecorded(int numPlayers) {
+        // Record the game for Flight Recorder if asked to:
+        FlightRecording recording = null;
+        if (options.getRecordingFile() != null) {
+            try {
+                recording = new FlightRecording(options.getRecordingFile());
+            } catch (IOException e) {
+                System.err.println("Error starting recording: " + e.getMessage());
+                events.close();
+                return;
+            }
+        }
+
+        // If the JVM is shut down first, e.g. by Ctrl-C, interrupt the game to save it, and wait until it ends:
+        CountDownLatch finished = new CountDownLatch(1);
+        Thread hook = null;
+        if (checkpointing()) {
+            Thread game = Thread.currentThread();
+            hook = new Thread(() -> {
+                game.interrupt();
+                try {
+                    finished.await();
+                } catch (InterruptedException e) {
+                    // Exit without waiting
+                }
+            }, "Checkpoint-On-Exit");
+            Runtime.getRuntime().addShutdownHook(hook);
+        }
+        try {
+            playAndWrite(numPlayers);
+        } finally {
+            events.close();     // Subscribers complete, whether or not the game could be played
+            if (recording != null) {
+                try {
+                    recording.close();
+                } catch (IOException e) {
+                    System.err.println("Error writing recording: " + e.getMessage());
+                }
+            }
+            finished.countDown();
+            if (hook != null) {
+                try {
+                    Runtime.getRuntime().removeShutdownHook(hook);
+                } catch (IllegalStateException e) {
+                    // Already shutting down: the hook has waited for the game
+                }
+            }
+        }
+    }
+
+    /**
+     * Plays and writes the output files of one game of a validated pack.
+     *
+     * @param numPlayers the number of players in the game.
+     */
+    private void playAndWrite(int numPlayers) {
+        if ((options.getCheckpointFile() != null || resumed != null) && !canCheckpoint()) return;
+
+        // Write the player logs and deck contents to a file each, or all to one archive:
+        File outDir = new File("out");
+        OutputSink output;
+        try {
+            if (options.getOutputMode() == OutputMode.ARCHIVE) {
+                output = OutputSink.archive(new File(outDir, ARCHIVE_NAME));
+            } else if (resumed != null) {
+                output = OutputSink.directory(outDir, savedLogLengths());   // Continue the saved logs
+            } else {
+                output = OutputSink.directory(outDir);
+            }
+        } catch (IOException e) {
+            System.err.println("Error creating output archive: " + e.getMessage());
+            return;
+        }
+        logs = PlayerLogFactory.to(output);
+
+        // Queue player logs for background writer threads if asked to:
+        if (options.getLogMode() == LogMode.ASYNC) {
+            pipeline = new AsyncLogPipeline(output, options.getLogWriters(), AsyncLogPipeline.DEFAULT_QUEUE_CAPACITY);
+            logs = pipeline;
+        }
+
+        // Or record binary events, to be rendered as text later:
+        EventLog eventLog = null;
+        if (options.getLogMode() == LogMode.BINARY) {
+            try {
+                eventLog = new EventLog(new File(outDir, EVENTS_NAME));
+            } catch (IOException e) {
+                System.err.println("Error creating event file: " + e.getMessage());
+                closeOutput(output);
+                return;
+            }
+            logs = eventLog;
+        }
+
+        // Publish the players' events to any live subscribers as well, unless the game stops or pauses:
+        events.releaseWhen(context::isStoppedOrPaused);
+        logs = events.wrap(logs);
+
+        // Initialise decks and players, and deal cards:
+        try {
+            setUp(numPlayers);
         } catch (IOException e) {
             System.err.println("Error creating log files: " + e.getMessage());
+            closeOutput(output);
             return;
         }
 
-        // Deal cards:
+        // A single-threaded game is reproducible from its seed, so show it:
+        long seed = options.getSeed() != null ? options.getSeed() : new Random().nextLong();
+        if (options.getEngine() == Engine.SEQUENTIAL || options.getEngine() == Engine.ARRAYS) {
+            System.out.println("Seed: " + seed);
+        }
+        long start = System.nanoTime();
+        runGame(seed);
+        long wallNanos = System.nanoTime() - start;
+        if (context.getWinnerId() != null) {
+            System.out.println("player " + context.getWinnerId() + " wins");
+        }
+
+        // Finish writing the queued player logs:
+        if (pipeline != null) {
+            try {
+                pipeline.close();
+            } catch (IOException e) {
+                System.err.println("Error writing log files: " + e.getMessage());
+            }
+        }
+        if (eventLog != null) {
+            try {
+                eventLog.close();
+            } catch (IOException e) {
+                System.err.println("Error writing event file: " + e.getMessage());
+            }
+        }
+
+        // Write final deck states, and the players' measurements if asked to:
+        writeDeckOutputs(output);
+        closeOutput(output);
+        if (options.getMetricsMode() == MetricsMode.JSON) {
+            writeMetrics(wallNanos);
+        }
+        System.out.println("Game finished. Output files generated.");
+    }
+
+    /**
+     * Plays one game of an already validated pack, and reports the outcome.
+     * Used by {@link Simulation}, which loads the pack once for many games.
+     *
+     * @param numPlayers the number of players in the game.
+     * @param values the card values, 8 per player, in pack order.
+     * @param seed seeds a single-threaded engine.
+     * @return the winner, turns and time of the game.
+     * @throws IllegalStateException if the game was stopped before anyone won.
+     */
+    GameResult play(int numPlayers, int[] values, long seed) {
+        pack = values;
+        try {
+            setUp(numPlayers);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        long start = System.nanoTime();
+        runGame(seed);
+        long wallNanos = System.nanoTime() - start;
+
+        Integer winnerId = context.getWinnerId();
+        if (winnerId == null) throw new IllegalStateException("Game stopped without a winner.");
+        long winnerTurns = arrays != null ? arrays.getTurnCount(winnerId) : players.get(winnerId - 1).getTurnCount();
+        return new GameResult(winnerId, winnerTurns, getTurnCount(), wallNanos);
+    }
+
+    /**
+     * Initialises the decks and players and deals the pack, as objects or, for the struct-of-arrays engine,
+     * as arrays.
+     *
+     * @param numPlayers the number of players in the game.
+     * @throws IOException if a player's log can't be opened.
+     */
+    private void setUp(int numPlayers) throws IOException {
+        if (resumed != null) {
+            restore();
+            return;
+        }
+        if (options.getEngine() == Engine.ARRAYS) {
+            arrays = new ArrayEngine(context, numPlayers, pack, logs);
+            return;
+        }
+        initDecks(numPlayers);
+        initPlayers(numPlayers);
         dealCards(numPlayers);
+    }
+
+    /**
+     * Initialises the decks and players of a saved game, and puts back its cards, turn counts and discard choices.
+     *
+     * @throws IOException if a player's log can't be continued.
+     */
+    private void restore() throws IOException {
+        int n = resumed.getNumPlayers();
+        for (int i = 0; i < n; i++) {
+            decks.add(resumed.getDeckType().create(context, n));
+        }
+        initPlayers(n);
+        for (Player p : players) {
+            for (int value : resumed.getHand(p.getPlayerId())) {
+                p.addCardToHand(Card.of(value));
+            }
+            p.restore(resumed.getTurns(p.getPlayerId()), resumed.getRandomState(p.getPlayerId()));
+        }
+        for (Deck d : decks) {
+            for (int value : resumed.getDeck(d.getDeckId())) {
+                d.addValue(value);
+            }
+        }
+    }
+
+    /**
+     * Checks the options allow a game to be saved and resumed: players on threads, writing their logs to files.
+     *
+     * @return true if they do; otherwise prints why not.
+     */
+    private boolean canCheckpoint() {
+        if (options.getEngine() != Engine.THREADS) {
+            System.out.println("Checkpoints need the threads engine.");
+            return false;
+        }
+        if (options.getOutputMode() != OutputMode.FILES || options.getLogMode() == LogMode.BINARY) {
+            System.out.println("Checkpoints need player log files: --output=files with --log=direct or async.");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Gets the length of each player's log at the resumed checkpoint.
+     *
+     * @return the bytes to keep of each player log file, by file name.
+     */
+    private Map<String, Long> savedLogLengths() {
+        Map<String, Long> kept = new HashMap<>();
+        for (int id = 1; id <= resumed.getNumPlayers(); id++) {
+            kept.put(OutputSink.playerStream(id), resumed.getLogLength(id));
+        }
+        return kept;
+    }
 
-        // Create and start all player threads:
+    /**
+     * Plays the dealt game to the end with the engine chosen in the options.
+     *
+     * @param seed seeds a single-threaded engine.
+     */
+    private void runGame(long seed) {
+        switch (options.getEngine()) {
+            case THREADS -> runPlayers();
+            case SEQUENTIAL -> SequentialEngine.run(players, context, options.getTurnOrder(), seed);
+            case ARRAYS -> arrays.run(options.getTurnOrder(), seed);
+            case SHARDED -> runShards();
+            case TASKS -> new TaskEngine(players, context, options.getWorkers()).run();
+        }
+    }
+
+    /**
+     * Starts one thread per player, of the kind chosen in the options, and waits until they have all exited.
+     */
+    private void runPlayers() {
         for (Player p : players) {
-            Thread t = new Thread(p, "Player-" + p.getPlayerId());
-            threads.add(t);
+            threads.add(options.getThreadMode().newThread(p, "Player-" + p.getPlayerId()));
+        }
+        startAndJoin();
+    }
+
+    /**
+     * Starts one worker thread per segment of the ring, of the kind chosen in the options, and waits until they
+     * have all exited.
+     */
+    private void runShards() {
+        List<Runnable> workers = ShardedEngine.workers(players, decks, context, options.getShards());
+        for (int k = 0; k < workers.size(); k++) {
+            threads.add(options.getThreadMode().newThread(workers.get(k), "Shard-" + (k + 1)));
+        }
+        startAndJoin();
+    }
+
+    /**
+     * Starts the created threads and waits until they have all exited.
+     */
+    private void startAndJoin() {
+        // Create all threads before starting them, so the winner can wake every parked thread, and any blocked
+        // by a stalled subscriber if the game is stopped:
+        context.setOnOver(() -> {
+            threads.forEach(LockSupport::unpark);
+            events.wakeBlocked();
+        });
+        for (Thread t : threads) {
             t.start();
         }
 
-        // Wait for all threads to finish:
+        // Wait for all threads to finish, saving the game at each checkpoint interval if asked to:
+        Duration interval = checkpointing() ? options.getCheckpointInterval() : null;
+        long nextCheckpoint = interval != null ? System.nanoTime() + interval.toNanos() : 0;
+        boolean interrupted = false;
         for (Thread t : threads) {
-            try {
-                t.join();
-            } catch (InterruptedException e) {
-                // If the program is stopped manually, stop the threads:
-                Thread.currentThread().interrupt();
+            while (true) {
+                try {
+                    if (interval == null) {
+                        t.join();
+                        break;
+                    }
+                    if (t.join(Duration.ofNanos(Math.max(1, nextCheckpoint - System.nanoTime())))) break;
+                    if (System.nanoTime() - nextCheckpoint >= 0) {
+                        saveCheckpoint();
+                        context.resume();
+                        nextCheckpoint = System.nanoTime() + interval.toNanos();
+                    }
+                } catch (InterruptedException e) {
+                    // If the program is stopped manually, save the game if asked to, stop the players,
+                    // then wait for them to exit:
+                    if (!interrupted && checkpointing()) saveCheckpoint();
+                    context.stop();
+                    interrupted = true;
+                    interval = null;
+                }
             }
         }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
 
-        // Write final deck states:
-        writeDeckOutputs();
-        System.out.println("Game finished. Output files generated.");
+    /**
+     * Checks whether this game saves checkpoints.
+     *
+     * @return true if the options give a checkpoint file and the game writes output.
+     */
+    private boolean checkpointing() {
+        return writeOutput && options.getCheckpointFile() != null && options.getEngine() == Engine.THREADS;
     }
 
     /**
-     * Reads the pack file and adds new cards to the pack.
+     * Pauses the players once they finish their turns, then saves the game to the checkpoint file.
+     * The game is left paused, to be resumed or stopped, unless a player won while the others were stopping.
+     */
+    private void saveCheckpoint() {
+        if (!context.pause()) return;
+        threads.forEach(LockSupport::unpark);   // Parked players must wake to see the pause
+        events.wakeBlocked();                   // As must any waiting for a subscriber
+        if (!context.awaitPaused(players.size())) return;
+
+        // Nobody is in a turn now, so the decks and hands agree, and the logs hold every finished turn:
+        File file = options.getCheckpointFile();
+        try {
+            if (pipeline != null) pipeline.flush();
+            Checkpoint checkpoint = Checkpoint.capture(deckType(), players, decks, new File("out"));
+            checkpoint.write(file);
+            System.out.println("Checkpoint: " + checkpoint.getTotalTurns() + " turns saved to " + file);
+        } catch (IOException e) {
+            System.err.println("Error writing checkpoint: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Gets the total number of turns taken by all players so far.
+     *
+     * @return the sum of every player's turn count.
+     */
+    public long getTurnCount() {
+        if (arrays != null) return arrays.getTotalTurns();
+        long total = 0;
+        for (Player p : players) {
+            total += p.getTurnCount();
+        }
+        return total;
+    }
+
+    /**
+     * Gets the live stream of this game's events: deals, draws, discards, wins and exits. Subscribe before
+     * {@link #start(int, File)} or {@link #resume(File)}; the stream completes when the game ends.
+     *
+     * @return the event publisher.
+     */
+    public GameEventPublisher getEvents() {
+        return events;
+    }
+
+    /**
+     * Reads the pack file, text or binary, into the array of card values.
      * Validates card contents and quantity.
      *
      * @param file the file to read from.
@@ -111,39 +571,59 @@ public class CardGame {
      * @return if the pack is valid.
      */
     private boolean loadPack(File file, int numPlayers) {
+        long cards = 8L * numPlayers;
+        if (cards > Integer.MAX_VALUE) return false;    // No pack can hold that many cards
         // Attempt to read the file:
-        try (Scanner fileScanner = new Scanner(file)) {
-            while (fileScanner.hasNextLine()) {     // Repeat until the line is empty
-                String line = fileScanner.nextLine().trim();
-                if (line.isEmpty()) return false;
-
-                // Check the line is a number:
-                int value;
-                try {
-                    value = Integer.parseInt(line);
-                } catch (NumberFormatException e) {
-                    return false;   // Not an integer
-                }
-
-                if (value < 0) return false;    // Must be >=0
-                pack.add(new Card(value));
-            }
+        try {
+            int[] values = BinaryPack.isBinary(file)
+                    ? BinaryPack.load(file, (int) cards)    // Bad header, wrong count or checksum mismatch
+                    : PackLoader.load(file, cards);         // Empty line, not an integer, negative or wrong count
+            if (values == null) return false;
+            pack = values;
+            return true;
         } catch (IOException e) {
             //  Catch errors from trying to read the file, e.g. access
             System.out.println("Error reading pack file: " + e.getMessage());
             return false;
         }
-        return pack.size() == 8 * numPlayers;
+    }
+
+    /**
+     * Gets the type of this game's decks: the saved game's type when resumed, otherwise the one in the options.
+     *
+     * @return the deck type.
+     */
+    private DeckType deckType() {
+        return resumed != null ? resumed.getDeckType() : options.getDeckType();
+    }
+
+    /**
+     * Names the decks this game actually plays with, for reports. The sharded engine's segments are local decks
+     * (joined by ring decks), and the arrays engine has no deck objects at all.
+     *
+     * @return e.g. {@code linked}, {@code local} or {@code arrays}.
+     */
+    private String deckName() {
+        return switch (options.getEngine()) {
+            case SHARDED -> "local";
+            case ARRAYS -> "arrays";
+            default -> deckType().name().toLowerCase(Locale.ROOT);
+        };
     }
 
     /**
      * Creates n blank decks for the start of the game, num decks = num players.
+     * The deck implementation is chosen by the game options; the sharded engine chooses its own.
      *
      * @param n the number of decks to initialise.
      */
     private void initDecks(int n) {
         for (int i = 0; i < n; i++) {
-            decks.add(new Deck());
+            if (options.getEngine() == Engine.SHARDED) {
+                decks.add(ShardedEngine.createDeck(context, i, n, options.getShards()));
+            } else {
+                decks.add(options.getDeckType().create(context, n));
+            }
         }
     }
 
@@ -157,7 +637,11 @@ public class CardGame {
         for (int i = 0; i < n; i++) {
             Deck left = decks.get(i);
             Deck right = decks.get((i+1) % n);  // Loop back at the end.
-            players.add(new Player(left, right));
+            Player p = new Player(context, left, right, logs, options.getWaitMode());
+            if (writeOutput && options.getMetricsMode() != MetricsMode.OFF) {
+                p.enableMetrics();
+            }
+            players.add(p);
         }
     }
 
@@ -173,34 +657,87 @@ public class CardGame {
 
         // Deal 4 cards to each player
         for (int i = 0; i < 4 * n; i++) {
-            players.get(i % n).addCardToHand(pack.get(index++));    // Loop through players
+            players.get(i % n).addCardToHand(Card.of(pack[index++]));   // Loop through players
         }
 
         // Deal remaining cards to the decks
         for (int i = 0; i < 4 * n; i++) {
-            decks.get(i % n).addCard(pack.get(index++));    // Loop through decks
+            decks.get(i % n).addValue(pack[index++]);   // Loop through decks
         }
     }
 
     /**
-     * Writes the contents of each deck into an output file.
+     * Writes the contents of each deck into its output stream.
+     *
+     * @param output the game's output sink.
      */
-    private void writeDeckOutputs() {
-        // If not present, generate the output directory.
-        File outDir = new File("out");
-        if (!outDir.exists()) {
-            outDir.mkdirs();
+    private void writeDeckOutputs(OutputSink output) {
+        if (arrays != null) {
+            for (int id = 1; id <= arrays.getNumDecks(); id++) {
+                writeDeckOutput(output, id, arrays.contentsAsString(id));
+            }
+            return;
         }
-
-        // Create each deck log file in the output directory
         for (Deck d : decks) {
-            File deckFile = new File(outDir, "deck" + d.getDeckId() + "_output.txt");
+            writeDeckOutput(output, d.getDeckId(), d.contentsAsString());
+        }
+    }
 
-            try (FileWriter f = new FileWriter(deckFile)) {
-                f.write("deck" + d.getDeckId() + " contents: " + d.contentsAsString() + "\n");
-            } catch (IOException e) {
-                System.err.println("Error writing deck file: " + e.getMessage());
-            }
+    /**
+     * Closes the output sink, which finishes an archive.
+     *
+     * @param output the game's output sink.
+     */
+    private void closeOutput(OutputSink output) {
+        try {
+            output.close();
+        } catch (IOException e) {
+            System.err.println("Error writing output: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the players' metrics to {@code out/metrics.json}.
+     * The array engine has no player objects to measure, so writes none.
+     *
+     * @param wallNanos the time the turns took.
+     */
+    private void writeMetrics(long wallNanos) {
+        if (arrays != null) {
+            System.out.println("Metrics are not recorded by the arrays engine.");
+            return;
+        }
+        try {
+            MetricsReport.write(new File("out", "metrics.json"), options, deckName(), context.getWinnerId(),
+                    wallNanos, players, decks);
+        } catch (IOException e) {
+            System.err.println("Error writing metrics file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Formats a deck's output file.
+     *
+     * @param deckId the deck ID.
+     * @param contents the deck's cards, space separated.
+     * @return the text of {@code deckN_output.txt}.
+     */
+    static String deckOutput(int deckId, String contents) {
+        return "deck" + deckId + " contents: " + contents + "\n";
+    }
+
+    /**
+     * Writes one deck's final contents to its output stream.
+     *
+     * @param output the game's output sink.
+     * @param deckId the deck ID.
+     * @param contents the deck's cards, space separated.
+     */
+    private void writeDeckOutput(OutputSink output, int deckId, String contents) {
+        try (Writer f = output.open(OutputSink.deckStream(deckId))) {
+            f.write(deckOutput(deckId, contents));
+        } catch (IOException e) {
+            System.err.println("Error writing deck file: " + e.getMessage());
         }
     }
 }
@@ -0,0 +1,358 @@
+// Checkpoint.java
+
+package cardgame;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * The state of a paused game, saved so it can be resumed later in a new process: every hand and deck, each
+ * player's turn count and discard choices, and how long each player's log was.
+ *
+ * A 12 byte header, then a body of unsigned LEB128 varints, then a CRC-32 of the body:
+ * <pre>
+ *   0  magic "CGCK"
+ *   4  format version (1)
+ *   5  deck type (ordinal of {@link DeckType})
+ *   6  reserved (0)
+ *   8  number of players (int)
+ *  12  for each player: turns, random state, log length, then its 4 card values
+ *      for each deck: its size, then its card values from top to bottom
+ *      CRC-32 of the body (int)
+ * </pre>
+ * Most numbers fit in a byte or two, so a checkpoint is about 30 bytes per player.
+ */
+public final class Checkpoint {
+
+    private static final int MAGIC = ('C' << 24) | ('G' << 16) | ('C' << 8) | 'K';
+    private static final byte VERSION = 1;
+    private static final int HEADER = 12;
+    private static final int HAND_SIZE = 4;
+
+    private final DeckType deckType;
+    private final long[] turns;
+    private final long[] randomStates;
+    private final long[] logLengths;
+    private final int[][] hands;
+    private final int[][] decks;
+
+    /**
+     * Constructs a checkpoint. Player {@code i + 1} is at index {@code i} of each player array, and deck
+     * {@code i + 1} at index {@code i} of the decks.
+     *
+     * @param deckType the type of the game's decks.
+     * @param turns each player's turn count.
+     * @param randomStates the state of each player's discard choices.
+     * @param logLengths the length of each player's log file, in bytes.
+     * @param hands each player's 4 card values, in hand order.
+     * @param decks each deck's card values, from top to bottom.
+     * @throws IllegalArgumentException if the arrays are not one per player, a hand doesn't hold 4 cards, a
+     *         bounded deck holds more than it can, or the game doesn't hold 8 cards per player.
+     */
+    public Checkpoint(DeckType deckType, long[] turns, long[] randomStates, long[] logLengths, int[][] hands,
+                      int[][] decks) throws IllegalArgumentException {
+        int n = hands.length;
+        if (n == 0 || turns.length != n || randomStates.length != n || logLengths.length != n || decks.length != n) {
+            throw new IllegalArgumentException("A checkpoint needs one of each entry per player.");
+        }
+        long cards = 0;
+        for (int i = 0; i < n; i++) {
+            if (hands[i].length != HAND_SIZE) {
+                throw new IllegalArgumentException("Player " + (i + 1) + " holds " + hands[i].length + " cards.");
+            }
+            if (deckType != DeckType.LINKED && decks[i].length > RingDeck.capacityFor(n)) {
+                throw new IllegalArgumentException("Deck " + (i + 1) + " holds more than a " + deckType + " deck can.");
+            }
+            cards += HAND_SIZE + decks[i].length;
+        }
+        if (cards != 8L * n) {
+            throw new IllegalArgumentException("The game holds " + cards + " cards, not " + 8L * n + ".");
+        }
+        this.deckType = deckType;
+        this.turns = turns;
+        this.randomStates = randomStates;
+        this.logLengths = logLengths;
+        this.hands = hands;
+        this.decks = decks;
+    }
+
+    /**
+     * Captures a game whose players have all stopped, with the log lengths read from the output directory.
+     * The players' logs must be flushed.
+     *
+     * @param deckType the type of the game's decks.
+     * @param players the players, in ID order.
+     * @param decks the decks, in ID order.
+     * @param outDir the directory holding the player logs.
+     * @return the checkpoint.
+     */
+    static Checkpoint capture(DeckType deckType, List<Player> players, List<Deck> decks, File outDir) {
+        int n = players.size();
+        long[] turns = new long[n];
+        long[] randomStates = new long[n];
+        long[] logLengths = new long[n];
+        int[][] hands = new int[n][];
+        int[][] deckValues = new int[n][];
+        for (int i = 0; i < n; i++) {
+            Player p = players.get(i);
+            turns[i] = p.getTurnCount();
+            randomStates[i] = p.getRandomState();
+            logLengths[i] = new File(outDir, OutputSink.playerStream(p.getPlayerId())).length();
+            hands[i] = p.getHand().stream().mapToInt(Card::getValue).toArray();
+            deckValues[i] = decks.get(i).values();
+        }
+        return new Checkpoint(deckType, turns, randomStates, logLengths, hands, deckValues);
+    }
+
+    /**
+     * Reads and validates a checkpoint file.
+     *
+     * @param file the checkpoint file.
+     * @return the checkpoint.
+     * @throws IOException if the file can't be read, or is not a valid checkpoint: a bad header, a checksum
+     *         mismatch, a truncated body or cards that don't make up a game.
+     */
+    public static Checkpoint read(File file) throws IOException {
+        byte[] data = Files.readAllBytes(file.toPath());
+        ByteBuffer in = ByteBuffer.wrap(data);
+        if (data.length < HEADER + 4 || in.getInt() != MAGIC || in.get() != VERSION) {
+            throw new IOException("Not a checkpoint file: " + file);
+        }
+        int type = in.get();
+        int reserved = in.getShort();
+        int n = in.getInt();
+        // Each player takes at least a byte for each of 3 numbers, 4 cards and its deck's size, so check the count
+        // against the body before allocating for it:
+        if (type < 0 || type >= DeckType.values().length || reserved != 0 || n <= 0
+                || n > (data.length - HEADER - 4) / 8) {
+            throw new IOException("Invalid checkpoint header: " + file);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(data, HEADER, data.length - HEADER - 4);
+        if ((int) crc.getValue() != in.getInt(data.length - 4)) {
+            throw new IOException("Checkpoint checksum mismatch: " + file);
+        }
+
+        in.limit(data.length - 4);
+        try {
+            long[] turns = new long[n];
+            long[] randomStates = new long[n];
+            long[] logLengths = new long[n];
+            int[][] hands = new int[n][HAND_SIZE];
+            int[][] decks = new int[n][];
+            for (int i = 0; i < n; i++) {
+                turns[i] = readVarLong(in);
+                randomStates[i] = readVarLong(in);
+                logLengths[i] = readVarLong(in);
+                for (int j = 0; j < HAND_SIZE; j++) {
+                    hands[i][j] = readVarInt(in);
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                int size = readVarInt(in);
+                if (size > 4L * n) throw new IOException("Invalid checkpoint: deck " + (i + 1) + " holds " + size + " cards.");
+                decks[i] = new int[size];
+                for (int j = 0; j < size; j++) {
+                    decks[i][j] = readVarInt(in);
+                }
+            }
+            if (in.hasRemaining()) throw new IOException("Invalid checkpoint: " + in.remaining() + " bytes left over.");
+            return new Checkpoint(DeckType.values()[type], turns, randomStates, logLengths, hands, decks);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated checkpoint: " + file);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid checkpoint: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the checkpoint. It goes to a temporary file first, which then replaces the file in one step, so
+     * the last complete checkpoint survives a crash while the next is being written.
+     *
+     * @param file the checkpoint file.
+     * @throws IOException if the file can't be written.
+     */
+    public void write(File file) throws IOException {
+        // The body first, to checksum it in one pass:
+        ByteArrayOutputStream body = new ByteArrayOutputStream(32 * getNumPlayers());
+        for (int i = 0; i < getNumPlayers(); i++) {
+            writeVarLong(body, turns[i]);
+            writeVarLong(body, randomStates[i]);
+            writeVarLong(body, logLengths[i]);
+            for (int v : hands[i]) {
+                writeVarLong(body, v);
+            }
+        }
+        for (int[] deck : decks) {
+            writeVarLong(body, deck.length);
+            for (int v : deck) {
+                writeVarLong(body, v);
+            }
+        }
+        byte[] bytes = body.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+
+        File dir = file.getAbsoluteFile().getParentFile();
+        dir.mkdirs();
+        File temp = File.createTempFile(file.getName(), ".tmp", dir);
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeByte(VERSION);
+                out.writeByte(deckType.ordinal());
+                out.writeShort(0);
+                out.writeInt(getNumPlayers());
+                out.write(bytes);
+                out.writeInt((int) crc.getValue());
+            }
+            try {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            temp.delete();  // Gone already unless something failed
+        }
+    }
+
+    /**
+     * Gets the number of players (and decks) in the game.
+     *
+     * @return the number of players.
+     */
+    public int getNumPlayers() {
+        return hands.length;
+    }
+
+    /**
+     * Gets the type of the game's decks, which it resumes with.
+     *
+     * @return the deck type.
+     */
+    public DeckType getDeckType() {
+        return deckType;
+    }
+
+    /**
+     * Gets the number of turns a player had taken.
+     *
+     * @param playerId the player ID, from 1.
+     * @return the turn count.
+     */
+    public long getTurns(int playerId) {
+        return turns[playerId - 1];
+    }
+
+    /**
+     * Gets the number of turns all players had taken.
+     *
+     * @return the total turn count.
+     */
+    public long getTotalTurns() {
+        long total = 0;
+        for (long t : turns) {
+            total += t;
+        }
+        return total;
+    }
+
+    /**
+     * Gets the state of a player's discard choices.
+     *
+     * @param playerId the player ID, from 1.
+     * @return the random state.
+     */
+    public long getRandomState(int playerId) {
+        return randomStates[playerId - 1];
+    }
+
+    /**
+     * Gets the length of a player's log file at the checkpoint. A resumed game cuts the log back to this length,
+     * dropping anything written after the checkpoint, and carries on from there.
+     *
+     * @param playerId the player ID, from 1.
+     * @return the length in bytes.
+     */
+    public long getLogLength(int playerId) {
+        return logLengths[playerId - 1];
+    }
+
+    /**
+     * Gets a player's hand.
+     *
+     * @param playerId the player ID, from 1.
+     * @return a copy of the card values, in hand order.
+     */
+    public int[] getHand(int playerId) {
+        return hands[playerId - 1].clone();
+    }
+
+    /**
+     * Gets a deck's cards.
+     *
+     * @param deckId the deck ID, from 1.
+     * @return a copy of the card values, from top to bottom.
+     */
+    public int[] getDeck(int deckId) {
+        return decks[deckId - 1].clone();
+    }
+
+    /**
+     * Writes a non-negative number as an unsigned LEB128 varint.
+     *
+     * @param out the body.
+     * @param v the number.
+     */
+    private static void writeVarLong(ByteArrayOutputStream out, long v) {
+        while ((v & ~0x7FL) != 0) {
+            out.write((int) (v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.write((int) v);
+    }
+
+    /**
+     * Reads an unsigned LEB128 varint.
+     *
+     * @param in the body.
+     * @return the number.
+     * @throws IOException if the varint is longer than a long.
+     * @throws BufferUnderflowException if the body ends.
+     */
+    private static long readVarLong(ByteBuffer in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+        throw new IOException("Invalid checkpoint: varint too long.");
+    }
+
+    /**
+     * Reads an unsigned LEB128 varint that must fit a non-negative int, e.g. a card value.
+     *
+     * @param in the body.
+     * @return the number.
+     * @throws IOException if the number is too large.
+     * @throws BufferUnderflowException if the body ends.
+     */
+    private static int readVarInt(ByteBuffer in) throws IOException {
+        long value = readVarLong(in);
+        if (value > Integer.MAX_VALUE) throw new IOException("Invalid checkpoint: value too large: " + value);
+        return (int) value;
+    }
+}
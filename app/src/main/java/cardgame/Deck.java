@@ -2,27 +2,52 @@
 
 package cardgame;
 
-import java.util.LinkedList;
-import java.util.Queue;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Thread-safe, FIFO deck of cards.
  * Draw from the top and discard to the bottom.
+ *
+ * Card values are stored in a circular int array that grows when full, so no object is kept per card.
+ * The deck is guarded by a {@link ReentrantLock} rather than its monitor, so a virtual thread waiting for
+ * the deck releases its carrier thread instead of pinning it.
+ *
+ * A deck has one drawing player and one discarding player. Either may park on the deck until the other
+ * changes it ({@link #awaitCard(long)}, {@link #awaitSpace(long)}); adding and drawing wake them.
  */
 public class Deck {
 
-    private static int idCounter = 1;
+    /**
+     * Returned by {@link #drawValue()} when the deck is empty. Card values are never negative.
+     */
+    public static final int EMPTY = -1;
+
+    private static final int[] NO_CARDS = new int[0];
+
     private final int deckId;
-    private final Queue<Card> cards;
+    private int[] cards = NO_CARDS;     // Allocated on the first card
+    private int head = 0;               // Index of the top card
+    private int count = 0;
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile Thread drawWaiter = null;  // Player parked until a card is added
+    private volatile Thread addWaiter = null;   // Player parked until there is space
 
     /**
      * Constructs an empty list with an ID (automatically incremented).
      */
     public Deck() {
-        synchronized (Deck.class) {
-            this.deckId = idCounter++;
-        }
-        this.cards = new LinkedList<>();
+        this(GameContext.shared());
+    }
+
+    /**
+     * Constructs an empty list with the next deck ID of a game.
+     *
+     * @param context the game the deck belongs to.
+     */
+    public Deck(GameContext context) {
+        this.deckId = context.nextDeckId();
     }
 
     /**
@@ -30,8 +55,8 @@ public class Deck {
      *
      * @param card to add to the bottom.
      */
-    public synchronized void addCard(Card card) {
-        cards.add(card);
+    public void addCard(Card card) {
+        addValue(card.getValue());
     }
 
     /**
@@ -39,8 +64,150 @@ public class Deck {
      *
      * @return the drawn card, or null if empty.
      */
-    public synchronized Card drawCard() {
-        return cards.poll();
+    public Card drawCard() {
+        int value = drawValue();
+        return value == EMPTY ? null : Card.of(value);
+    }
+
+    /**
+     * Adds a card, given by its value, to the bottom of the deck.
+     *
+     * @param value the non-negative card value.
+     * @throws IllegalArgumentException if value is negative.
+     */
+    public void addValue(int value) throws IllegalArgumentException {
+        if (value < 0) {
+            throw new IllegalArgumentException("Card value must be non-negative.");
+        }
+        lock.lock();
+        try {
+            if (count == cards.length) {
+                grow();
+            }
+            cards[(head + count) % cards.length] = value;
+            count++;
+        } finally {
+            lock.unlock();
+        }
+        wakeDrawer();
+    }
+
+    /**
+     * Draws (removes) the top card of the deck and returns its value.
+     *
+     * @return the card value, or {@link #EMPTY} if the deck is empty.
+     */
+    public int drawValue() {
+        lock.lock();
+        try {
+            if (count == 0) return EMPTY;
+            int value = cards[head];
+            head = (head + 1) % cards.length;
+            count--;
+            return value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Parks the calling thread until a card may have been added, unless the deck already holds one.
+     * Only the deck's drawing player may wait for a card. Returns early if unparked for any other reason,
+     * e.g. the game ending, so the caller must check again.
+     *
+     * @param timeoutNanos the longest time to wait.
+     */
+    public void awaitCard(long timeoutNanos) {
+        drawWaiter = Thread.currentThread();
+        VarHandle.fullFence();  // Register before checking, so an add either sees us or is seen by us
+        if (size() == 0) {
+            LockSupport.parkNanos(this, timeoutNanos);
+        }
+        drawWaiter = null;
+    }
+
+    /**
+     * Parks the calling thread until a card may have been drawn, unless the deck already has space.
+     * Only the deck's discarding player may wait for space. Returns early if unparked for any other reason.
+     *
+     * @param timeoutNanos the longest time to wait.
+     */
+    public void awaitSpace(long timeoutNanos) {
+        addWaiter = Thread.currentThread();
+        VarHandle.fullFence();  // Register before checking, so a draw either sees us or is seen by us
+        if (!hasSpace()) {
+            LockSupport.parkNanos(this, timeoutNanos);
+        }
+        addWaiter = null;
+    }
+
+    /**
+     * Parks the calling thread until one deck may have gained a card or another may have space, unless either
+     * already has. For a thread that both draws from the first deck and discards to the second, e.g. a worker
+     * playing a whole segment of the ring. Returns early if unparked for any other reason.
+     *
+     * @param source the deck the caller draws from.
+     * @param target the deck the caller discards to.
+     * @param timeoutNanos the longest time to wait.
+     */
+    static void awaitCardOrSpace(Deck source, Deck target, long timeoutNanos) {
+        Thread current = Thread.currentThread();
+        source.drawWaiter = current;
+        target.addWaiter = current;
+        VarHandle.fullFence();  // Register before checking, as for a single deck
+        if (source.size() == 0 && !target.hasSpace()) {
+            LockSupport.parkNanos(source, timeoutNanos);
+        }
+        source.drawWaiter = null;
+        target.addWaiter = null;
+    }
+
+    /**
+     * Wakes the drawing player if it is waiting for a card. Called after every add.
+     */
+    protected final void wakeDrawer() {
+        Thread waiter = drawWaiter;
+        if (waiter != null) LockSupport.unpark(waiter);
+    }
+
+    /**
+     * Wakes the discarding player if it is waiting for space. Called after every draw from a bounded deck.
+     */
+    protected final void wakeAdder() {
+        Thread waiter = addWaiter;
+        if (waiter != null) LockSupport.unpark(waiter);
+    }
+
+    /**
+     * Doubles the storage, moving the cards so the top card is at index 0.
+     */
+    private void grow() {
+        int[] bigger = new int[Math.max(8, cards.length * 2)];
+        for (int i = 0; i < count; i++) {
+            bigger[i] = cards[(head + i) % cards.length];
+        }
+        cards = bigger;
+        head = 0;
+    }
+
+    /**
+     * Checks whether a card can be added to the deck.
+     * This deck is unbounded, so there is always space.
+     *
+     * @return true if a card can be added.
+     */
+    public boolean hasSpace() {
+        return true;
+    }
+
+    /**
+     * Gets the lock guarding this deck.
+     * Players hold the locks of both their decks for a whole turn, so the draw and discard are atomic.
+     *
+     * @return the deck's lock.
+     */
+    public ReentrantLock getLock() {
+        return lock;
     }
 
     /**
@@ -57,8 +224,13 @@ public class Deck {
      *
      * @return the size of the list.
      */
-    public synchronized int size() {
-        return cards.size();
+    public int size() {
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -66,12 +238,35 @@ public class Deck {
      *
      * @return the string form of the deck, separated by spaces.
      */
-    public synchronized String contentsAsString() {
-        StringBuilder sb = new StringBuilder();
-        for (Card c : cards) {
-            sb.append(c.getValue()).append(" ");
+    public String contentsAsString() {
+        lock.lock();
+        try {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < count; i++) {
+                sb.append(cards[(head + i) % cards.length]).append(" ");
+            }
+            return sb.toString().trim();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Copies the deck's cards, e.g. for a checkpoint.
+     *
+     * @return the card values from top to bottom.
+     */
+    public int[] values() {
+        lock.lock();
+        try {
+            int[] values = new int[count];
+            for (int i = 0; i < count; i++) {
+                values[i] = cards[(head + i) % cards.length];
+            }
+            return values;
+        } finally {
+            lock.unlock();
         }
-        return sb.toString().trim();
     }
 
     /**
@@ -80,7 +275,7 @@ public class Deck {
      * @return the string form of the deck.
      */
     @Override
-    public synchronized String toString() {
+    public String toString() {
         return "Deck " + deckId + contentsAsString();
     }
 }
@@ -0,0 +1,53 @@
+// DeckType.java
+
+package cardgame;
+
+/**
+ * The deck implementations a game can be started with.
+ */
+public enum DeckType {
+
+    /**
+     * Synchronised, unbounded {@link Deck}. Safe for any number of threads.
+     */
+    LINKED,
+
+    /**
+     * Lock-free, bounded {@link RingDeck} for one writer and one reader.
+     * Matches the ring of players, where each deck is discarded to by one player and drawn from by one player.
+     */
+    RING,
+
+    /**
+     * Bounded {@link VersionedDeck}, guarded by a version stamp instead of a lock. Players check a turn can be
+     * taken without writing anything, then claim both decks at once, retrying if a neighbour got there first.
+     */
+    OPTIMISTIC;
+
+    /**
+     * Creates an empty deck of this type, sized for a game with the given number of players.
+     *
+     * @param numPlayers the number of players in the game.
+     * @return the new deck.
+     */
+    public Deck create(int numPlayers) {
+        return create(GameContext.shared(), numPlayers);
+    }
+
+    /**
+     * Creates an empty deck of this type for a game, sized for its number of players.
+     *
+     * @param context the game the deck belongs to.
+     * @param numPlayers the number of players in the game.
+     * @return the new deck.
+     */
+    public Deck create(GameContext context, int numPlayers) {
+        if (this == RING) {
+            return new RingDeck(context, RingDeck.capacityFor(numPlayers));
+        }
+        if (this == OPTIMISTIC) {
+            return new VersionedDeck(context, RingDeck.capacityFor(numPlayers));
+        }
+        return new Deck(context);
+    }
+}
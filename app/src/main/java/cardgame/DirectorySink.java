@@ -0,0 +1,149 @@
+// DirectorySink.java
+
+package cardgame;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes each stream to its own file in an output directory.
+ *
+ * The sink keeps the writers that are still open, each leaving when closed, so closing the sink can close the
+ * rest without holding on to every writer a large game has opened.
+ */
+final class DirectorySink implements OutputSink {
+
+    private final File dir;
+    private final Map<String, Long> kept;       // Bytes to keep of existing files, by name
+    private volatile boolean created = false;   // Only check for the directory once
+    private final Set<Stream> open = new HashSet<>();   // Guarded by this
+    private boolean closed = false;                     // Guarded by this
+
+    /**
+     * Constructs a sink for a directory, which is created when the first stream is opened.
+     *
+     * @param dir the output directory.
+     */
+    DirectorySink(File dir) {
+        this(dir, Map.of());
+    }
+
+    /**
+     * Constructs a sink for a directory that continues some existing files.
+     *
+     * @param dir the output directory.
+     * @param kept the number of bytes to keep of each named file.
+     */
+    DirectorySink(File dir, Map<String, Long> kept) {
+        this.dir = dir;
+        this.kept = kept;
+    }
+
+    /**
+     * Creates or replaces the stream's file, or continues it after the bytes to keep.
+     *
+     * @param name the file name.
+     * @return a writer for the file.
+     * @throws IOException if the sink is closed, or the file can't be written to, or is shorter than the bytes
+     *         to keep.
+     */
+    @Override
+    public Writer open(String name) throws IOException {
+        synchronized (this) {
+            if (closed) throw new IOException("Sink closed");
+        }
+        // If not present, create the output directory.
+        if (!created) {
+            dir.mkdirs();
+            created = true;
+        }
+        File file = new File(dir, name);
+        Long keep = kept.get(name);
+        if (keep != null) {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                if (raf.length() < keep) {
+                    throw new IOException(name + " is shorter than expected: " + raf.length() + " < " + keep + " bytes");
+                }
+                raf.setLength(keep);
+            }
+        }
+        Stream s = new Stream(new FileWriter(file, keep != null));
+        synchronized (this) {
+            if (!closed) {
+                open.add(s);
+                return s;
+            }
+        }
+        // The sink was closed while the file was being opened:
+        s.close();
+        throw new IOException("Sink closed");
+    }
+
+    /**
+     * Closes every writer still open, so all their text reaches the files. No more streams can be opened.
+     *
+     * @throws IOException if a file can't be written; the other writers are still closed.
+     */
+    @Override
+    public void close() throws IOException {
+        List<Stream> streams;
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+            streams = new ArrayList<>(open);
+        }
+        IOException failure = null;
+        for (Stream s : streams) {
+            try {
+                s.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) throw failure;
+    }
+
+    /**
+     * A file's writer, which leaves the sink's open writers when closed.
+     */
+    private final class Stream extends FilterWriter {
+
+        /**
+         * Wraps a file's writer.
+         *
+         * @param out the file's writer.
+         */
+        Stream(Writer out) {
+            super(out);
+        }
+
+        /**
+         * Closes the file, and stops tracking it.
+         *
+         * @throws IOException if the file can't be written.
+         */
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                synchronized (DirectorySink.this) {
+                    open.remove(this);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+// Engine.java
+
+package cardgame;
+
+/**
+ * How the players' turns are executed. Every engine plays by the same {@link Player} and {@link Deck} rules.
+ */
+public enum Engine {
+
+    /**
+     * One thread per player (see {@link ThreadMode}); the thread interleaving decides the order of turns.
+     */
+    THREADS,
+
+    /**
+     * All players on the calling thread, one turn at a time in a seeded {@link TurnOrder}, so no lock is ever
+     * contended. The same seed always gives the same game.
+     */
+    SEQUENTIAL,
+
+    /**
+     * Like {@link #SEQUENTIAL}, with the same seeded turns and results as ring decks, but all hands and decks kept
+     * in a few flat arrays instead of an object per player and per deck. For games with up to millions of players.
+     */
+    ARRAYS,
+
+    /**
+     * The ring split into contiguous segments of players, one worker thread per segment. A worker plays its
+     * players in turn; the decks inside a segment are unsynchronised, and only the deck where one segment hands
+     * cards to the next is shared between threads, as a lock-free ring deck. Not reproducible from a seed.
+     */
+    SHARDED,
+
+    /**
+     * Players as tasks on a fixed pool of work-stealing threads, instead of a thread each. A player takes turns
+     * while it can, then is descheduled, and is only scheduled again once a neighbour changes one of its decks.
+     * Not reproducible from a seed.
+     */
+    TASKS
+}
@@ -0,0 +1,326 @@
+// EventLog.java
+
+package cardgame;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Binary player logging: every player's events as fixed-width records in one event file per game, rendered
+ * as the usual {@code playerN_output.txt} text only when asked for.
+ *
+ * A 16 byte header, then 40 byte records, big-endian:
+ * <pre>
+ *   header   magic "CGEV", format version (1), record size (40), 2 reserved bytes,
+ *            highest player ID (int), 4 reserved bytes
+ *   record   kind (byte: the {@link LogRecord} kinds), hand size (byte), 2 reserved bytes, player ID (int),
+ *            drawn value or winner ID or message length (int), deck drawn from (int), discarded value (int),
+ *            deck discarded to (int), 4 hand values (int)
+ * </pre>
+ * An error record is followed by its message in UTF-8, zero padded to whole records.
+ *
+ * Each player fills a small buffer of records and appends it when full or closed, with positional writes
+ * through one file channel, so a turn costs a few stores. Each player's records are in order; records of
+ * different players are interleaved a buffer at a time.
+ *
+ * Render the text with {@code java -cp app.jar cardgame.EventLog <event file> <directory> [playerId...]}.
+ */
+public final class EventLog implements PlayerLogFactory, AutoCloseable {
+
+    static final int MAGIC = ('C' << 24) | ('G' << 16) | ('E' << 8) | 'V';
+    static final byte VERSION = 1;
+    static final int HEADER = 16;
+    static final int RECORD = 40;
+    static final int HAND_SLOTS = 4;
+
+    /**
+     * Records each player buffers before appending them to the file.
+     */
+    static final int RECORDS_PER_CHUNK = 64;
+
+    private final FileChannel channel;
+    private final AtomicLong end = new AtomicLong(HEADER);     // Where the next chunk goes
+    private final Map<Integer, ChunkedPlayerLog> opened = new HashMap<>();   // Guarded by this
+    private int maxPlayerId = 0;
+    private boolean closed = false;
+    private volatile IOException firstError = null;
+
+    /**
+     * Creates the event file.
+     *
+     * @param file the event file, replaced if present. Its directory is created if not present.
+     * @throws IOException if the file can't be written to.
+     */
+    public EventLog(File file) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        writeHeader();
+    }
+
+    /**
+     * Renders an event file as text files.
+     *
+     * @param args the event file, the directory to write to, and optionally the IDs of the players to render.
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.out.println("Usage: cardgame.EventLog <event file> <directory> [playerId...]");
+            return;
+        }
+        File events = new File(args[0]);
+        File dir = new File(args[1]);
+        try {
+            OutputSink sink = OutputSink.directory(dir);
+            if (args.length == 2) {
+                System.out.println("Rendered " + renderAll(events, sink) + " player logs to " + dir + ".");
+                return;
+            }
+            for (int i = 2; i < args.length; i++) {
+                int playerId = Integer.parseInt(args[i]);
+                try (Writer out = sink.open(OutputSink.playerStream(playerId))) {
+                    render(events, playerId, out);
+                }
+            }
+            System.out.println("Rendered " + (args.length - 2) + " player logs to " + dir + ".");
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid player ID: " + e.getMessage());
+        } catch (IOException e) {
+            System.out.println("Error rendering event file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Opens a player's log in the event file.
+     *
+     * @param playerId the player's ID.
+     * @return the player's log.
+     * @throws IOException if the event file is closed.
+     */
+    @Override
+    public synchronized PlayerLog open(int playerId) throws IOException {
+        if (closed) throw new IOException("Event log closed");
+        ChunkedPlayerLog log = new ChunkedPlayerLog(playerId);
+        opened.put(playerId, log);
+        maxPlayerId = Math.max(maxPlayerId, playerId);
+        return log;
+    }
+
+    /**
+     * Appends every player's buffered records, finishes the header and closes the file.
+     * Call once all players have finished.
+     *
+     * @throws IOException if any record could not be written.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            for (ChunkedPlayerLog log : opened.values()) {
+                log.close();
+            }
+            writeHeader();
+        } finally {
+            channel.close();
+        }
+        if (firstError != null) throw firstError;
+    }
+
+    /**
+     * Renders one player's log, exactly as {@link TextPlayerLog} would have written it.
+     *
+     * @param events the event file.
+     * @param playerId the player's ID.
+     * @param out where the text goes.
+     * @throws IOException if the event file can't be read or the text can't be written.
+     */
+    public static void render(File events, int playerId, Writer out) throws IOException {
+        StringBuilder text = new StringBuilder(256);
+        try (EventReader reader = new EventReader(events)) {
+            for (LogRecord r = reader.next(); r != null; r = reader.next()) {
+                if (r.playerId != playerId) continue;
+                r.appendTo(text);
+                out.append(text);
+                text.setLength(0);
+            }
+        }
+    }
+
+    /**
+     * Renders every player's log in one pass, as the {@code playerN_output.txt} streams of an output sink.
+     *
+     * @param events the event file.
+     * @param sink where the logs go. Each player's stream is closed at the end, but not the sink.
+     * @return the number of player logs rendered.
+     * @throws IOException if the event file can't be read or the text can't be written.
+     */
+    public static int renderAll(File events, OutputSink sink) throws IOException {
+        Map<Integer, Writer> outs = new HashMap<>();
+        StringBuilder text = new StringBuilder(256);
+        try (EventReader reader = new EventReader(events)) {
+            for (LogRecord r = reader.next(); r != null; r = reader.next()) {
+                Writer out = outs.get(r.playerId);
+                if (out == null) {
+                    out = sink.open(OutputSink.playerStream(r.playerId));
+                    outs.put(r.playerId, out);
+                }
+                r.appendTo(text);
+                out.append(text);
+                text.setLength(0);
+            }
+        } finally {
+            for (Writer out : outs.values()) {
+                out.close();
+            }
+        }
+        return outs.size();
+    }
+
+    /**
+     * Writes the header, with the highest player ID opened so far.
+     *
+     * @throws IOException if the header can't be written.
+     */
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER);
+        header.putInt(MAGIC).put(VERSION).put((byte) RECORD).putShort((short) 0).putInt(maxPlayerId).putInt(0).flip();
+        ArchiveSink.writeFully(channel, header, 0);
+    }
+
+    /**
+     * Reports the first write error; later ones are usually the same problem.
+     *
+     * @param e the error.
+     */
+    private void fail(IOException e) {
+        if (firstError == null) {
+            firstError = e;
+            System.err.println("Error writing event log: " + e.getMessage());
+        }
+    }
+
+    /**
+     * A player's view of the event file: each event becomes a record in the player's buffer.
+     */
+    private final class ChunkedPlayerLog implements PlayerLog {
+
+        private final int playerId;
+        private final ByteBuffer chunk = ByteBuffer.allocate(RECORD * RECORDS_PER_CHUNK);
+        private boolean closed = false;
+
+        /**
+         * Constructs an empty log.
+         *
+         * @param playerId the player's ID.
+         */
+        ChunkedPlayerLog(int playerId) {
+            this.playerId = playerId;
+        }
+
+        @Override
+        public void initialHand(int[] hand, int size) {
+            put(LogRecord.INITIAL_HAND, 0, 0, 0, 0, hand, size);
+        }
+
+        @Override
+        public void turn(int drawn, int fromDeck, int discarded, int toDeck, int[] hand, int size) {
+            put(LogRecord.TURN, drawn, fromDeck, discarded, toDeck, hand, size);
+        }
+
+        @Override
+        public void won(int[] hand, int size) {
+            put(LogRecord.WON, 0, 0, 0, 0, hand, size);
+        }
+
+        @Override
+        public void informed(int winnerId, int[] hand, int size) {
+            put(LogRecord.INFORMED, winnerId, 0, 0, 0, hand, size);
+        }
+
+        /**
+         * Appends the buffered records, then the error record and its message in one piece, so they stay
+         * together in the file.
+         *
+         * @param message the error message.
+         */
+        @Override
+        public synchronized void error(String message) {
+            if (closed) return;
+            byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+            int padded = (bytes.length + RECORD - 1) / RECORD * RECORD;
+            ByteBuffer record = ByteBuffer.allocate(RECORD + padded);
+            record.put((byte) LogRecord.ERROR).put((byte) 0).putShort((short) 0).putInt(playerId).putInt(bytes.length);
+            record.position(RECORD);
+            record.put(bytes).clear();
+            appendChunk();
+            append(record);
+        }
+
+        /**
+         * Appends the buffered records. Nothing more is recorded.
+         */
+        @Override
+        public synchronized void close() {
+            if (closed) return;
+            appendChunk();
+            closed = true;
+        }
+
+        /**
+         * Adds a record to the buffer, appending the buffer first if it is full.
+         *
+         * @param kind the record kind.
+         * @param a the drawn value, or the winner's ID.
+         * @param b the deck drawn from.
+         * @param c the discarded value.
+         * @param d the deck discarded to.
+         * @param hand the hand values.
+         * @param size the number of cards in the hand, at most {@link #HAND_SLOTS}.
+         */
+        private synchronized void put(int kind, int a, int b, int c, int d, int[] hand, int size) {
+            if (closed) return;
+            if (size > HAND_SLOTS) throw new IllegalArgumentException("Hand too large to record: " + size);
+            if (!chunk.hasRemaining()) appendChunk();
+            chunk.put((byte) kind).put((byte) size).putShort((short) 0).putInt(playerId)
+                    .putInt(a).putInt(b).putInt(c).putInt(d);
+            for (int i = 0; i < HAND_SLOTS; i++) {
+                chunk.putInt(i < size ? hand[i] : 0);
+            }
+        }
+
+        /**
+         * Appends the buffered records to the end of the file, and empties the buffer.
+         */
+        private void appendChunk() {
+            if (chunk.position() == 0) return;
+            chunk.flip();
+            append(chunk);
+            chunk.clear();
+        }
+
+        /**
+         * Appends whole records to the end of the file.
+         *
+         * @param records the records, from position to limit.
+         */
+        private void append(ByteBuffer records) {
+            try {
+                ArchiveSink.writeFully(channel, records, end.getAndAdd(records.remaining()));
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+    }
+}
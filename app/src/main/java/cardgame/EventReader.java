@@ -0,0 +1,162 @@
+// EventReader.java
+
+package cardgame;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the records of an {@link EventLog} file in file order, as {@link LogRecord}s.
+ */
+final class EventReader implements Closeable {
+
+    private static final int BUFFER_RECORDS = 1024;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(EventLog.RECORD * BUFFER_RECORDS);
+    private final int maxPlayerId;
+    private long bufferEnd;         // File position just after the buffered bytes
+
+    /**
+     * Opens an event file and checks its header.
+     *
+     * @param file the event file.
+     * @throws IOException if the file can't be read or isn't an event file.
+     */
+    EventReader(File file) throws IOException {
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(EventLog.HEADER);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // Read the whole header
+            }
+            if (header.hasRemaining() || header.getInt(0) != EventLog.MAGIC) {
+                throw new IOException("Not an event file");
+            }
+            if (header.get(4) != EventLog.VERSION || header.get(5) != EventLog.RECORD) {
+                throw new IOException("Unsupported event file version: " + header.get(4));
+            }
+            maxPlayerId = header.getInt(8);
+            bufferEnd = EventLog.HEADER;
+            buffer.flip();      // Empty until the first read
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the highest player ID in the file, which is the number of players in a game.
+     *
+     * @return the highest player ID, or 0 if the game didn't finish writing the file.
+     */
+    int getMaxPlayerId() {
+        return maxPlayerId;
+    }
+
+    /**
+     * Gets the file position of the next record, to {@link #seek} back to later.
+     *
+     * @return the byte offset of the next record.
+     */
+    long position() {
+        return bufferEnd - buffer.remaining();
+    }
+
+    /**
+     * Moves to a record position.
+     *
+     * @param position a position returned by {@link #position()}.
+     * @throws IOException if the position isn't the start of a record in the file.
+     */
+    void seek(long position) throws IOException {
+        if (position < EventLog.HEADER || (position - EventLog.HEADER) % EventLog.RECORD != 0
+                || position > channel.size()) {
+            throw new IOException("Not a record position: " + position);
+        }
+        channel.position(position);
+        bufferEnd = position;
+        buffer.clear().flip();
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @return the record, or null at the end of the file.
+     * @throws IOException if the file can't be read or ends part way through a record.
+     */
+    LogRecord next() throws IOException {
+        if (!fill(EventLog.RECORD)) return null;
+        int start = buffer.position();
+        int kind = buffer.get(start);
+        int size = buffer.get(start + 1);
+        int playerId = buffer.getInt(start + 4);
+        int a = buffer.getInt(start + 8);
+        if (kind < LogRecord.INITIAL_HAND || kind > LogRecord.ERROR || size < 0 || size > EventLog.HAND_SLOTS) {
+            throw new IOException("Invalid record at " + position());
+        }
+
+        if (kind == LogRecord.ERROR) {
+            buffer.position(start + EventLog.RECORD);
+            byte[] message = new byte[a];
+            int padded = (a + EventLog.RECORD - 1) / EventLog.RECORD * EventLog.RECORD;
+            for (int done = 0; done < padded; ) {
+                if (!fill(1)) throw new IOException("Event file truncated");
+                int n = Math.min(padded - done, buffer.remaining());
+                int copy = Math.max(0, Math.min(n, a - done));
+                buffer.get(message, done, copy);
+                buffer.position(buffer.position() + n - copy);
+                done += n;
+            }
+            return new LogRecord(kind, playerId, null, 0, 0, 0, 0, null,
+                    new String(message, StandardCharsets.UTF_8));
+        }
+
+        int[] hand = new int[size];
+        for (int i = 0; i < size; i++) {
+            hand[i] = buffer.getInt(start + 24 + 4 * i);
+        }
+        LogRecord r = new LogRecord(kind, playerId, null, a, buffer.getInt(start + 12), buffer.getInt(start + 16),
+                buffer.getInt(start + 20), hand, null);
+        buffer.position(start + EventLog.RECORD);
+        return r;
+    }
+
+    /**
+     * Makes sure the buffer holds at least a number of bytes, reading more of the file if needed.
+     *
+     * @param bytes the number of bytes needed, at most a record.
+     * @return false at the end of the file.
+     * @throws IOException if the file ends part way through.
+     */
+    private boolean fill(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) return true;
+        buffer.compact();
+        while (buffer.position() < bytes) {
+            int n = channel.read(buffer);
+            if (n < 0) {
+                buffer.flip();
+                if (!buffer.hasRemaining()) return false;
+                throw new IOException("Event file truncated");
+            }
+            bufferEnd += n;
+        }
+        buffer.flip();
+        return true;
+    }
+
+    /**
+     * Closes the file.
+     *
+     * @throws IOException if the file can't be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,120 @@
+// FlightRecording.java
+
+package cardgame;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.HashSet;
+import java.util.Set;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+/**
+ * A Flight Recorder recording of one game, with the bundled {@code cardgame.jfc} settings: the game's own
+ * turn, card and win events, plus the JDK's thread park, GC and CPU events to line them up against.
+ *
+ * The same settings work for a recording started by the JVM, with
+ * {@code -XX:StartFlightRecording:settings=cardgame.jfc,filename=game.jfr}.
+ *
+ * Players only create their events while some recording is running, see {@link #isActive()}, so a turn
+ * allocates nothing when nothing records, even before the JIT can prove the events don't escape.
+ */
+final class FlightRecording implements Closeable {
+
+    /**
+     * Classpath location of the settings profile.
+     */
+    static final String PROFILE = "/cardgame.jfc";
+
+    private static final Set<Long> running = new HashSet<>();     // IDs of running recordings, guarded by the set
+    private static volatile boolean active = false;
+
+    static {
+        // Follow every recording in the JVM, including one started on the command line before this class loaded:
+        FlightRecorder.addListener(new FlightRecorderListener() {
+            @Override
+            public void recorderInitialized(FlightRecorder recorder) {
+                for (Recording r : recorder.getRecordings()) {
+                    recordingStateChanged(r);
+                }
+            }
+
+            @Override
+            public void recordingStateChanged(Recording r) {
+                synchronized (running) {
+                    if (r.getState() == RecordingState.RUNNING) {
+                        running.add(r.getId());
+                    } else {
+                        running.remove(r.getId());
+                    }
+                    active = !running.isEmpty();
+                }
+            }
+        });
+    }
+
+    private final Recording recording;
+
+    /**
+     * Starts recording.
+     *
+     * @param destination the file the recording is written to when it is closed.
+     * @throws IOException if the settings profile can't be read or the destination can't be written.
+     */
+    FlightRecording(File destination) throws IOException {
+        recording = new Recording(profile());
+        recording.setName("cardgame");
+        recording.setToDisk(true);
+        recording.setDestination(destination.toPath());
+        recording.start();
+    }
+
+    /**
+     * Checks whether any Flight Recorder recording is running, so events might be committed. A single read.
+     *
+     * @return false if no event can be recorded now.
+     */
+    static boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Reads the bundled settings profile.
+     *
+     * @return the settings.
+     * @throws IOException if the profile is missing or invalid.
+     */
+    static Configuration profile() throws IOException {
+        InputStream in = FlightRecording.class.getResourceAsStream(PROFILE);
+        if (in == null) throw new IOException("Recording settings not found: " + PROFILE);
+        try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            return Configuration.create(reader);
+        } catch (ParseException e) {
+            throw new IOException("Invalid recording settings: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Stops recording and writes the recording to its destination.
+     *
+     * @throws IOException if the recording can't be written.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            recording.stop();
+        } finally {
+            recording.close();
+        }
+    }
+}
@@ -0,0 +1,231 @@
+// GameContext.java
+
+package cardgame;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * State shared by the players and decks of one game: id allocation, the winner and whether the game is over.
+ * Each game owns its own context, so several games can run in one JVM without seeing each other's winner,
+ * and every game numbers its players and decks from 1.
+ *
+ * Lock-free: ids come from atomic counters, and the game ends with a single compare-and-set on its state,
+ * so games never contend with each other and players never block on the context.
+ * The one exception is a pause, e.g. for a checkpoint: players that have stopped wait on a lock until the game
+ * resumes or ends.
+ */
+public class GameContext {
+
+    // Used by decks and players created without a game, e.g. in unit tests.
+    private static final GameContext SHARED = new GameContext();
+
+    // Game states; any positive state is the winning player's ID.
+    private static final int RUNNING = 0;
+    private static final int STOPPED = -1;
+    private static final int PAUSED = -2;
+
+    private final AtomicInteger nextPlayerId = new AtomicInteger(1);
+    private final AtomicInteger nextDeckId = new AtomicInteger(1);
+    private final AtomicInteger state = new AtomicInteger(RUNNING);     // Read by every player on every turn
+    private volatile Runnable onOver = null;
+
+    // Players waiting out a pause. A lock, not a monitor, so waiting virtual threads release their carriers.
+    private final ReentrantLock pauseLock = new ReentrantLock();
+    private final Condition pauseChanged = pauseLock.newCondition();
+    private int pauses = 0;     // Pauses so far, so a player still leaving one isn't counted in the next
+    private int stopped = 0;    // Players stopped for the current pause
+
+    /**
+     * Gets the context used by decks and players that are not part of a particular game.
+     *
+     * @return the shared context.
+     */
+    public static GameContext shared() {
+        return SHARED;
+    }
+
+    /**
+     * Allocates the next player ID in this game.
+     *
+     * @return the new ID, starting at 1.
+     */
+    public int nextPlayerId() {
+        return nextPlayerId.getAndIncrement();
+    }
+
+    /**
+     * Allocates the next deck ID in this game.
+     *
+     * @return the new ID, starting at 1.
+     */
+    public int nextDeckId() {
+        return nextDeckId.getAndIncrement();
+    }
+
+    /**
+     * Records a player as the winner, unless another player has already won or the game was stopped.
+     *
+     * @param playerId the player declaring a win.
+     * @return true if this player is the winner.
+     * @throws IllegalArgumentException if the ID is not positive.
+     */
+    public boolean claimWin(int playerId) throws IllegalArgumentException {
+        if (playerId <= 0) throw new IllegalArgumentException("Player IDs start at 1: " + playerId);
+        return end(playerId);   // Only the first claim can succeed
+    }
+
+    /**
+     * Ends the game without a winner, e.g. when it is interrupted or a player fails.
+     *
+     * @return true if this call ended the game, false if it was already over.
+     */
+    public boolean stop() {
+        return end(STOPPED);
+    }
+
+    /**
+     * Moves the game from running to its final state, then runs the game-over action.
+     *
+     * @param finalState the winner's ID, or {@link #STOPPED}.
+     * @return true if this call ended the game.
+     */
+    private boolean end(int finalState) {
+        int s = state.get();
+        while (s == RUNNING || s == PAUSED) {
+            if (state.compareAndSet(s, finalState)) {
+                if (s == PAUSED) signalPause();     // Release the stopped players
+                Runnable action = onOver;
+                if (action != null) action.run();
+                return true;
+            }
+            s = state.get();
+        }
+        return false;
+    }
+
+    /**
+     * Pauses a running game, e.g. to save a checkpoint. Players finish the turn they are taking and stop, as if
+     * the game were over, then wait in {@link #awaitResume()}. Parked players must be woken to see the pause.
+     * A player may still win or the game be stopped during the pause, which ends it as usual.
+     *
+     * @return true if this call paused the game, false if it was already paused or over.
+     */
+    public boolean pause() {
+        return state.compareAndSet(RUNNING, PAUSED);
+    }
+
+    /**
+     * Waits until a number of players have stopped for a pause, so nobody is in the middle of a turn and the
+     * decks and hands can be read.
+     *
+     * @param players the number of players in the game.
+     * @return true once all have stopped, or false if the game ended first.
+     */
+    public boolean awaitPaused(int players) {
+        pauseLock.lock();
+        try {
+            while (state.get() == PAUSED && stopped < players) {
+                pauseChanged.awaitUninterruptibly();
+            }
+            return state.get() == PAUSED;
+        } finally {
+            pauseLock.unlock();
+        }
+    }
+
+    /**
+     * Continues a paused game: the stopped players start taking turns again.
+     *
+     * @return true if the game was paused, false if it was running or had ended.
+     */
+    public boolean resume() {
+        pauseLock.lock();
+        try {
+            return state.compareAndSet(PAUSED, RUNNING) && signalPause();
+        } finally {
+            pauseLock.unlock();
+        }
+    }
+
+    /**
+     * Called by a player once it has stopped playing. During a pause, waits until the game resumes or ends.
+     *
+     * @return true if the player should play on, false if the game is over.
+     */
+    public boolean awaitResume() {
+        int s = state.get();
+        if (s != PAUSED) return s == RUNNING;
+        pauseLock.lock();
+        try {
+            int pause = pauses;
+            stopped++;
+            pauseChanged.signalAll();   // Perhaps the last one the pause was waiting for
+            while (state.get() == PAUSED && pauses == pause) {
+                pauseChanged.awaitUninterruptibly();
+            }
+            s = state.get();
+            return s == RUNNING || s == PAUSED;     // Paused again: stop for the new pause
+        } finally {
+            pauseLock.unlock();
+        }
+    }
+
+    /**
+     * Ends the current pause for the players waiting in it, which either play on or exit.
+     *
+     * @return true.
+     */
+    private boolean signalPause() {
+        pauseLock.lock();
+        try {
+            pauses++;
+            stopped = 0;
+            pauseChanged.signalAll();
+            return true;
+        } finally {
+            pauseLock.unlock();
+        }
+    }
+
+    /**
+     * Sets an action to run once, on the thread that ends the game, e.g. to wake parked players.
+     *
+     * @param onOver the action, or null for none.
+     */
+    public void setOnOver(Runnable onOver) {
+        this.onOver = onOver;
+    }
+
+    /**
+     * Checks whether the players should stop playing: the game has ended, by a win or by being stopped, or is
+     * paused.
+     *
+     * @return true if the players should stop playing.
+     */
+    public boolean isOver() {
+        return state.get() != RUNNING;
+    }
+
+    /**
+     * Checks whether the game has been stopped without a winner, or is paused: players should give up waiting
+     * for anything else, such as a slow subscriber, so they can exit or stop for the pause.
+     *
+     * @return true if the game is stopped or paused.
+     */
+    public boolean isStoppedOrPaused() {
+        int s = state.get();
+        return s == STOPPED || s == PAUSED;
+    }
+
+    /**
+     * Gets the winner of this game.
+     *
+     * @return the winning player's ID, or null if nobody has won (yet).
+     */
+    public Integer getWinnerId() {
+        int s = state.get();
+        return s > 0 ? s : null;
+    }
+}
@@ -0,0 +1,117 @@
+// GameEvent.java
+
+package cardgame;
+
+import java.util.Arrays;
+
+/**
+ * One step of one player's game, as published to the subscribers of a {@link GameEventPublisher}.
+ * Events are immutable, so they can be shared by every subscriber.
+ */
+public final class GameEvent {
+
+    private final GameEventKind kind;
+    private final int playerId;
+    private final int deckId;
+    private final int value;
+    private final int winnerId;
+    private final int[] hand;
+
+    /**
+     * Constructs an event. Unused numbers are 0.
+     *
+     * @param kind what happened.
+     * @param playerId the player's ID.
+     * @param deckId the deck drawn from or discarded to.
+     * @param value the card drawn or discarded.
+     * @param winnerId the winner's ID, for a win or an exit after a win.
+     * @param hand the player's card values after the event, not copied, or null.
+     */
+    GameEvent(GameEventKind kind, int playerId, int deckId, int value, int winnerId, int[] hand) {
+        this.kind = kind;
+        this.playerId = playerId;
+        this.deckId = deckId;
+        this.value = value;
+        this.winnerId = winnerId;
+        this.hand = hand;
+    }
+
+    /**
+     * Gets what happened.
+     *
+     * @return the kind of event.
+     */
+    public GameEventKind getKind() {
+        return kind;
+    }
+
+    /**
+     * Gets the player the event happened to.
+     *
+     * @return the player ID, from 1.
+     */
+    public int getPlayerId() {
+        return playerId;
+    }
+
+    /**
+     * Gets the deck of a draw or a discard.
+     *
+     * @return the deck ID, or 0 for other events.
+     */
+    public int getDeckId() {
+        return deckId;
+    }
+
+    /**
+     * Gets the card of a draw or a discard.
+     *
+     * @return the card value, or 0 for other events.
+     */
+    public int getValue() {
+        return value;
+    }
+
+    /**
+     * Gets the winner of the game, for a win or an exit.
+     *
+     * @return the winner's ID, or 0 if nobody has won, e.g. the game was stopped.
+     */
+    public int getWinnerId() {
+        return winnerId;
+    }
+
+    /**
+     * Gets the player's hand after the event. A draw has no hand: the drawn card joins it with the discard.
+     *
+     * @return a copy of the card values, in hand order, or null for a draw.
+     */
+    public int[] getHand() {
+        return hand == null ? null : hand.clone();
+    }
+
+    /**
+     * Describes the event in the words of the player's output file.
+     *
+     * @return e.g. {@code player 1 draws a 5 from deck 1}.
+     */
+    @Override
+    public String toString() {
+        return switch (kind) {
+            case DEAL -> "player " + playerId + " initial hand " + handText();
+            case DRAW -> "player " + playerId + " draws a " + value + " from deck " + deckId;
+            case DISCARD -> "player " + playerId + " discards a " + value + " to deck " + deckId;
+            case WIN -> "player " + playerId + " wins";
+            case EXIT -> "player " + playerId + " exits";
+        };
+    }
+
+    /**
+     * Shows the hand as space-separated values.
+     *
+     * @return the card values.
+     */
+    private String handText() {
+        return Arrays.toString(hand).replaceAll("[\\[\\],]", "");
+    }
+}
@@ -0,0 +1,34 @@
+// GameEventKind.java
+
+package cardgame;
+
+/**
+ * What a {@link GameEvent} reports: one of the steps in a player's output file.
+ */
+public enum GameEventKind {
+
+    /**
+     * The player was dealt its initial hand.
+     */
+    DEAL,
+
+    /**
+     * The player drew a card from its left deck.
+     */
+    DRAW,
+
+    /**
+     * The player discarded a card to its right deck, completing a turn.
+     */
+    DISCARD,
+
+    /**
+     * The player won with its hand.
+     */
+    WIN,
+
+    /**
+     * The player left the game: after a win, when told of another player's win, or when the game was stopped.
+     */
+    EXIT
+}
@@ -0,0 +1,567 @@
+// GameEventPublisher.java
+
+package cardgame;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A live stream of a game's events, for consumers in the same process such as dashboards and analysers.
+ *
+ * The events come from the players' logs: {@link #wrap} tees every log a factory opens, so a player publishes
+ * after its turn, outside the deck locks, as it logs. With no subscribers the logs are not wrapped at all, and
+ * once every subscriber has cancelled an event costs one read.
+ *
+ * Each subscriber has its own bounded buffer and {@link OverflowPolicy}. Events are delivered on an executor,
+ * one task per subscriber at a time, only as far as the subscriber has requested; a full buffer drops,
+ * blocks or coalesces as its policy says. Subscribers should subscribe before the game starts: they see the
+ * events published after they subscribe, then {@code onComplete} once the game has ended.
+ *
+ * A player blocked by a full buffer gives its event up, counted as dropped, once the game is stopped or paused,
+ * so a stalled subscriber can't keep a game from stopping or saving a checkpoint. After a pause it blocks again.
+ */
+public final class GameEventPublisher implements Flow.Publisher<GameEvent>, AutoCloseable {
+
+    /**
+     * Default number of events each subscriber's buffer holds.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private static final BufferedSubscription[] NONE = new BufferedSubscription[0];
+
+    private final Executor executor;
+    private final int defaultCapacity;
+    private final OverflowPolicy defaultPolicy;
+    private volatile BufferedSubscription[] subscriptions = NONE;   // Copied on write, guarded by this
+    private boolean closed = false;     // Guarded by this
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile BooleanSupplier halted = () -> false;         // Blocked players give up while this holds
+
+    /**
+     * Constructs a publisher that delivers on the common fork-join pool, dropping events for subscribers
+     * whose buffers of {@value #DEFAULT_CAPACITY} events are full.
+     */
+    public GameEventPublisher() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CAPACITY, OverflowPolicy.DROP);
+    }
+
+    /**
+     * Constructs a publisher.
+     *
+     * @param executor runs the deliveries to subscribers.
+     * @param defaultCapacity the buffer size of subscribers that don't choose one.
+     * @param defaultPolicy the overflow policy of subscribers that don't choose one.
+     * @throws IllegalArgumentException if the capacity is not positive.
+     */
+    public GameEventPublisher(Executor executor, int defaultCapacity, OverflowPolicy defaultPolicy)
+            throws IllegalArgumentException {
+        if (defaultCapacity <= 0) {
+            throw new IllegalArgumentException("Buffer capacity must be positive.");
+        }
+        this.executor = Objects.requireNonNull(executor);
+        this.defaultCapacity = defaultCapacity;
+        this.defaultPolicy = Objects.requireNonNull(defaultPolicy);
+    }
+
+    /**
+     * Subscribes with the default buffer capacity and overflow policy.
+     *
+     * @param subscriber the subscriber.
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super GameEvent> subscriber) {
+        subscribe(subscriber, defaultCapacity, defaultPolicy);
+    }
+
+    /**
+     * Subscribes with a buffer of its own size and overflow policy. If the publisher is already closed, the
+     * subscriber is completed straight away.
+     *
+     * @param subscriber the subscriber.
+     * @param capacity the number of events buffered for the subscriber until it requests them.
+     * @param policy what happens to an event when the buffer is full.
+     * @throws IllegalArgumentException if the capacity is not positive.
+     */
+    public void subscribe(Flow.Subscriber<? super GameEvent> subscriber, int capacity, OverflowPolicy policy)
+            throws IllegalArgumentException {
+        Objects.requireNonNull(subscriber);
+        Objects.requireNonNull(policy);
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Buffer capacity must be positive.");
+        }
+        BufferedSubscription s = new BufferedSubscription(subscriber, capacity, policy);
+        boolean open;
+        synchronized (this) {
+            open = !closed;
+            if (open) {
+                BufferedSubscription[] grown = Arrays.copyOf(subscriptions, subscriptions.length + 1);
+                grown[grown.length - 1] = s;
+                subscriptions = grown;
+            }
+        }
+        subscriber.onSubscribe(s);
+        if (!open) {
+            s.complete();
+        }
+    }
+
+    /**
+     * Checks whether anyone is subscribed, and hasn't cancelled.
+     *
+     * @return true if events are being published.
+     */
+    public boolean hasSubscribers() {
+        return subscriptions.length > 0;
+    }
+
+    /**
+     * Gets the number of events lost to full buffers, over all subscribers: dropped, or replaced by a later one.
+     *
+     * @return the number of events.
+     */
+    public long getDroppedEvents() {
+        return dropped.get();
+    }
+
+    /**
+     * Wraps a log factory, so every log it opens also publishes its player's events.
+     *
+     * @param logs the player logs.
+     * @return the wrapping factory, or the same factory if nobody has subscribed.
+     */
+    public PlayerLogFactory wrap(PlayerLogFactory logs) {
+        if (!hasSubscribers()) return logs;
+        return playerId -> new PublishingPlayerLog(playerId, logs.open(playerId));
+    }
+
+    /**
+     * Sets when players blocked by a full buffer give up their events, e.g. while their game is stopped or
+     * paused. Call {@link #wakeBlocked()} whenever it may have become true.
+     *
+     * @param halted true while blocked players should give up.
+     */
+    void releaseWhen(BooleanSupplier halted) {
+        this.halted = Objects.requireNonNull(halted);
+    }
+
+    /**
+     * Wakes every player blocked by a full buffer, to check whether it should give up its event.
+     */
+    void wakeBlocked() {
+        for (BufferedSubscription s : subscriptions) {
+            s.wake();
+        }
+    }
+
+    /**
+     * Ends the stream: every subscriber gets the events already buffered, then {@code onComplete}. Events
+     * published after this are ignored.
+     */
+    @Override
+    public void close() {
+        BufferedSubscription[] ended;
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+            ended = subscriptions;
+            subscriptions = NONE;
+        }
+        for (BufferedSubscription s : ended) {
+            s.complete();
+        }
+    }
+
+    /**
+     * Offers an event to every subscriber.
+     *
+     * @param event the event.
+     */
+    private void publish(GameEvent event) {
+        for (BufferedSubscription s : subscriptions) {
+            s.offer(event);
+        }
+    }
+
+    /**
+     * Removes a cancelled subscriber.
+     *
+     * @param s the subscription.
+     */
+    private synchronized void remove(BufferedSubscription s) {
+        BufferedSubscription[] current = subscriptions;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == s) {
+                BufferedSubscription[] shrunk = new BufferedSubscription[current.length - 1];
+                System.arraycopy(current, 0, shrunk, 0, i);
+                System.arraycopy(current, i + 1, shrunk, i, shrunk.length - i);
+                subscriptions = shrunk;
+                return;
+            }
+        }
+    }
+
+    /**
+     * A player's log that passes every event on to another log, then publishes it.
+     */
+    private final class PublishingPlayerLog implements PlayerLog {
+
+        private final int playerId;
+        private final PlayerLog log;
+        private int[] lastHand = null;     // Shared with the last event, which never changes it
+        private boolean exited = false;
+
+        /**
+         * Constructs the log.
+         *
+         * @param playerId the player's ID.
+         * @param log the log to pass events on to.
+         */
+        PublishingPlayerLog(int playerId, PlayerLog log) {
+            this.playerId = playerId;
+            this.log = log;
+        }
+
+        /**
+         * Logs and publishes the deal.
+         *
+         * @param hand the card values.
+         * @param size the number of cards in the hand.
+         */
+        @Override
+        public void initialHand(int[] hand, int size) {
+            log.initialHand(hand, size);
+            if (!hasSubscribers()) return;
+            publish(new GameEvent(GameEventKind.DEAL, playerId, 0, 0, 0, copy(hand, size)));
+        }
+
+        /**
+         * Logs the turn, and publishes it as a draw and a discard.
+         *
+         * @param drawn the value drawn.
+         * @param fromDeck the ID of the deck drawn from.
+         * @param discarded the value discarded.
+         * @param toDeck the ID of the deck discarded to.
+         * @param hand the card values after the discard.
+         * @param size the number of cards in the hand.
+         */
+        @Override
+        public void turn(int drawn, int fromDeck, int discarded, int toDeck, int[] hand, int size) {
+            log.turn(drawn, fromDeck, discarded, toDeck, hand, size);
+            if (!hasSubscribers()) return;
+            publish(new GameEvent(GameEventKind.DRAW, playerId, fromDeck, drawn, 0, null));
+            publish(new GameEvent(GameEventKind.DISCARD, playerId, toDeck, discarded, 0, copy(hand, size)));
+        }
+
+        /**
+         * Logs and publishes the win, and the winner's exit.
+         *
+         * @param hand the winning card values.
+         * @param size the number of cards in the hand.
+         */
+        @Override
+        public void won(int[] hand, int size) {
+            log.won(hand, size);
+            exited = true;
+            if (!hasSubscribers()) return;
+            int[] h = copy(hand, size);
+            publish(new GameEvent(GameEventKind.WIN, playerId, 0, 0, playerId, h));
+            publish(new GameEvent(GameEventKind.EXIT, playerId, 0, 0, playerId, h));
+        }
+
+        /**
+         * Logs and publishes the player's exit after another player's win.
+         *
+         * @param winnerId the ID of the winning player.
+         * @param hand the card values.
+         * @param size the number of cards in the hand.
+         */
+        @Override
+        public void informed(int winnerId, int[] hand, int size) {
+            log.informed(winnerId, hand, size);
+            exited = true;
+            if (!hasSubscribers()) return;
+            publish(new GameEvent(GameEventKind.EXIT, playerId, 0, 0, winnerId, copy(hand, size)));
+        }
+
+        /**
+         * Logs the error. The player's exit is published when the log closes.
+         *
+         * @param message the error message.
+         */
+        @Override
+        public void error(String message) {
+            log.error(message);
+        }
+
+        /**
+         * Closes the log. A player that stopped without a winner, e.g. in a stopped game, exits with the last
+         * hand it published.
+         */
+        @Override
+        public void close() {
+            log.close();
+            if (exited) return;
+            exited = true;
+            if (!hasSubscribers()) return;
+            publish(new GameEvent(GameEventKind.EXIT, playerId, 0, 0, 0, lastHand));
+        }
+
+        /**
+         * Copies the used part of the player's hand, which the player keeps changing, and remembers it.
+         *
+         * @param hand the player's hand array.
+         * @param size the number of cards in the hand.
+         * @return the copy.
+         */
+        private int[] copy(int[] hand, int size) {
+            lastHand = Arrays.copyOf(hand, size);
+            return lastHand;
+        }
+    }
+
+    /**
+     * One subscriber's bounded buffer and demand. Players offer events under the lock; a delivery task on the
+     * executor takes them out and calls the subscriber outside it, so the subscriber's signals never overlap.
+     */
+    private final class BufferedSubscription implements Flow.Subscription, Runnable {
+
+        private final Flow.Subscriber<? super GameEvent> subscriber;
+        private final OverflowPolicy policy;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition notFull = lock.newCondition();
+
+        // Guarded by lock:
+        private final GameEvent[] buffer;
+        private int head = 0;                   // Index of the oldest event
+        private int count = 0;
+        private long demand = 0;                // Requested but not yet delivered
+        private boolean scheduled = false;      // A delivery task is queued or running
+        private boolean completing = false;     // Deliver what's buffered, then onComplete
+        private boolean cancelled = false;      // No more signals
+        private Throwable failure = null;       // To deliver with onError
+
+        /**
+         * Constructs the subscription.
+         *
+         * @param subscriber the subscriber.
+         * @param capacity the buffer size.
+         * @param policy what happens to an event when the buffer is full.
+         */
+        BufferedSubscription(Flow.Subscriber<? super GameEvent> subscriber, int capacity, OverflowPolicy policy) {
+            this.subscriber = subscriber;
+            this.policy = policy;
+            this.buffer = new GameEvent[capacity];
+        }
+
+        /**
+         * Buffers an event, applying the overflow policy if the buffer is full.
+         *
+         * @param event the event.
+         */
+        void offer(GameEvent event) {
+            boolean schedule;
+            lock.lock();
+            try {
+                if (cancelled || completing) return;
+                if (count == buffer.length) {
+                    switch (policy) {
+                        case DROP -> {
+                            dropped.incrementAndGet();
+                            return;
+                        }
+                        case COALESCE -> {
+                            dropped.incrementAndGet();
+                            if (replace(event)) return;
+                            buffer[head] = null;    // Drop the oldest instead
+                            head = (head + 1) % buffer.length;
+                            count--;
+                        }
+                        case BLOCK -> {
+                            BooleanSupplier halted = GameEventPublisher.this.halted;
+                            try {
+                                while (count == buffer.length && !cancelled && !completing && !halted.getAsBoolean()) {
+                                    notFull.await();
+                                }
+                            } catch (InterruptedException e) {
+                                // Stopping: give up the event rather than the player
+                                Thread.currentThread().interrupt();
+                                dropped.incrementAndGet();
+                                return;
+                            }
+                            if (cancelled || completing) return;
+                            if (count == buffer.length) {
+                                // Stopped or paused: give up the event rather than hold up the game
+                                dropped.incrementAndGet();
+                                return;
+                            }
+                        }
+                    }
+                }
+                buffer[(head + count) % buffer.length] = event;
+                count++;
+                schedule = wakeUp();
+            } finally {
+                lock.unlock();
+            }
+            if (schedule) executor.execute(this);
+        }
+
+        /**
+         * Replaces the newest buffered event of the same kind for the same player. Called with the lock held.
+         *
+         * @param event the new event.
+         * @return true if an event was replaced.
+         */
+        private boolean replace(GameEvent event) {
+            for (int i = count - 1; i >= 0; i--) {
+                int index = (head + i) % buffer.length;
+                GameEvent old = buffer[index];
+                if (old.getPlayerId() == event.getPlayerId() && old.getKind() == event.getKind()) {
+                    buffer[index] = event;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Adds to the subscriber's demand. A request of 0 or less fails the subscription, as the Flow rules say.
+         *
+         * @param n the number of events to deliver.
+         */
+        @Override
+        public void request(long n) {
+            boolean schedule;
+            lock.lock();
+            try {
+                if (cancelled) return;
+                if (n <= 0) {
+                    failure = new IllegalArgumentException("Requested " + n + " events, which is not positive.");
+                } else {
+                    demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;    // Saturate: unbounded
+                }
+                schedule = wakeUp();
+            } finally {
+                lock.unlock();
+            }
+            if (schedule) executor.execute(this);
+        }
+
+        /**
+         * Stops delivery, and releases any player waiting for buffer space.
+         */
+        @Override
+        public void cancel() {
+            lock.lock();
+            try {
+                if (cancelled) return;
+                cancelled = true;
+                Arrays.fill(buffer, null);
+                count = 0;
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            remove(this);
+        }
+
+        /**
+         * Wakes any player waiting for buffer space, to check its conditions again.
+         */
+        void wake() {
+            lock.lock();
+            try {
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Completes the subscriber once the buffered events are delivered.
+         */
+        void complete() {
+            boolean schedule;
+            lock.lock();
+            try {
+                completing = true;
+                notFull.signalAll();
+                schedule = wakeUp();
+            } finally {
+                lock.unlock();
+            }
+            if (schedule) executor.execute(this);
+        }
+
+        /**
+         * Claims the delivery task if there is something to deliver and none is queued. Called with the lock held.
+         *
+         * @return true if the caller should queue the delivery task.
+         */
+        private boolean wakeUp() {
+            boolean ready = failure != null || (completing && count == 0) || (count > 0 && demand > 0);
+            if (!ready || scheduled || cancelled) return false;
+            scheduled = true;
+            return true;
+        }
+
+        /**
+         * Delivers buffered events while there is demand, then a completion or failure if due.
+         */
+        @Override
+        public void run() {
+            while (true) {
+                GameEvent event;
+                Throwable error;
+                lock.lock();
+                try {
+                    error = failure;
+                    if (cancelled || (error == null && !(completing && count == 0) && (count == 0 || demand == 0))) {
+                        scheduled = false;
+                        return;
+                    }
+                    if (error == null && count > 0) {
+                        event = buffer[head];
+                        buffer[head] = null;
+                        head = (head + 1) % buffer.length;
+                        count--;
+                        if (demand != Long.MAX_VALUE) demand--;
+                        notFull.signal();
+                    } else {
+                        event = null;   // Terminal: no more signals after this one
+                        cancelled = true;
+                        Arrays.fill(buffer, null);
+                        count = 0;
+                        notFull.signalAll();
+                    }
+                } finally {
+                    lock.unlock();
+                }
+
+                if (event == null) {
+                    remove(this);
+                    if (error != null) {
+                        subscriber.onError(error);
+                    } else {
+                        subscriber.onComplete();
+                    }
+                    return;
+                }
+                try {
+                    subscriber.onNext(event);
+                } catch (Throwable t) {
+                    cancel();
+                    subscriber.onError(t);
+                    return;
+                }
+            }
+        }
+    }
+}
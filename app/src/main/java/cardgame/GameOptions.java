@@ -0,0 +1,542 @@
+// GameOptions.java
+
+package cardgame;
+
+import java.io.File;
+import java.time.Duration;
+
+/**
+ * Startup options for a game, read from the command line.
+ */
+public class GameOptions {
+
+    /**
+     * Command line summary, printed when the options are invalid.
+     */
+    public static final String USAGE = "Usage: java cardgame.CardGame [--engine=threads|sequential|arrays|sharded|tasks]"
+            + " [--order=round_robin|random] [--seed=N] [--shards=N] [--workers=N]"
+            + " [--deck=linked|ring|optimistic] [--threads=platform|virtual]"
+            + " [--wait=park|spin] [--log=direct|async|binary] [--log-writers=N]"
+            + " [--metrics=off|json] [--jfr=FILE] [--output=files|archive] [--players=N] [--pack=FILE]"
+            + " [--simulate=GAMES] [--parallelism=N] [--checkpoint=FILE] [--checkpoint-every=SECONDS]"
+            + " [--resume=FILE]";
+
+    private Engine engine = Engine.THREADS;
+    private TurnOrder turnOrder = TurnOrder.ROUND_ROBIN;
+    private Long seed = null;           // null: a random seed for each run
+    private int shards = Runtime.getRuntime().availableProcessors();
+    private int workers = Runtime.getRuntime().availableProcessors();
+    private DeckType deckType = DeckType.LINKED;
+    private ThreadMode threadMode = ThreadMode.PLATFORM;
+    private WaitMode waitMode = WaitMode.PARK;
+    private LogMode logMode = LogMode.DIRECT;
+    private int logWriters = 1;
+    private MetricsMode metricsMode = MetricsMode.OFF;
+    private File recordingFile = null;  // null: no Flight Recorder recording
+    private OutputMode outputMode = OutputMode.FILES;
+    private int numPlayers = 0;         // 0: ask on the terminal
+    private File packFile = null;       // null: ask on the terminal
+    private int simulations = 0;        // 0: play one game with log files
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private File checkpointFile = null;         // null: no checkpoints
+    private Duration checkpointInterval = null; // null: only a checkpoint when interrupted
+    private File resumeFile = null;             // null: deal a new game
+
+    /**
+     * Reads options of the form {@code --name=value} from the command line.
+     *
+     * @param args the command line arguments.
+     * @return the parsed options; defaults for anything not given.
+     * @throws IllegalArgumentException if an option or its value is not recognised.
+     */
+    public static GameOptions parse(String[] args) throws IllegalArgumentException {
+        GameOptions options = new GameOptions();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Invalid option: " + arg);
+            }
+            String name = arg.substring(2, eq);
+            String value = arg.substring(eq + 1);
+
+            switch (name) {
+                case "engine" -> options.setEngine(parseEnum(Engine.class, name, value));
+                case "order" -> options.setTurnOrder(parseEnum(TurnOrder.class, name, value));
+                case "seed" -> options.setSeed(parseLong(name, value));
+                case "shards" -> options.setShards(parsePositive(name, value));
+                case "workers" -> options.setWorkers(parsePositive(name, value));
+                case "deck" -> options.setDeckType(parseEnum(DeckType.class, name, value));
+                case "threads" -> options.setThreadMode(parseEnum(ThreadMode.class, name, value));
+                case "wait" -> options.setWaitMode(parseEnum(WaitMode.class, name, value));
+                case "log" -> options.setLogMode(parseEnum(LogMode.class, name, value));
+                case "log-writers" -> options.setLogWriters(parsePositive(name, value));
+                case "metrics" -> options.setMetricsMode(parseEnum(MetricsMode.class, name, value));
+                case "jfr" -> options.setRecordingFile(new File(value));
+                case "output" -> options.setOutputMode(parseEnum(OutputMode.class, name, value));
+                case "players" -> options.setNumPlayers(parsePositive(name, value));
+                case "pack" -> options.setPackFile(new File(value));
+                case "simulate" -> options.setSimulations(parsePositive(name, value));
+                case "parallelism" -> options.setParallelism(parsePositive(name, value));
+                case "checkpoint" -> options.setCheckpointFile(new File(value));
+                case "checkpoint-every" -> options.setCheckpointInterval(Duration.ofSeconds(parsePositive(name, value)));
+                case "resume" -> options.setResumeFile(new File(value));
+                default -> throw new IllegalArgumentException("Unknown option: --" + name);
+            }
+        }
+        return options;
+    }
+
+    /**
+     * Converts an option value to a positive integer.
+     *
+     * @param name the option name, for the error message.
+     * @param value the value given on the command line.
+     * @return the number.
+     * @throws IllegalArgumentException if the value is not a positive integer.
+     */
+    private static int parsePositive(String name, String value) {
+        try {
+            int n = Integer.parseInt(value);
+            if (n > 0) return n;
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Invalid value for --" + name + ": " + value + " (must be a positive integer)");
+    }
+
+    /**
+     * Converts an option value to a long.
+     *
+     * @param name the option name, for the error message.
+     * @param value the value given on the command line.
+     * @return the number.
+     * @throws IllegalArgumentException if the value is not an integer.
+     */
+    private static long parseLong(String name, String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for --" + name + ": " + value + " (must be an integer)");
+        }
+    }
+
+    /**
+     * Converts an option value such as {@code ring} to its enum constant.
+     *
+     * @param type the enum class.
+     * @param name the option name, for the error message.
+     * @param value the value given on the command line.
+     * @return the matching constant.
+     * @throws IllegalArgumentException if no constant matches.
+     */
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String name, String value) {
+        for (E e : type.getEnumConstants()) {
+            if (e.name().equalsIgnoreCase(value)) {
+                return e;
+            }
+        }
+        throw new IllegalArgumentException("Invalid value for --" + name + ": " + value);
+    }
+
+    /**
+     * Gets the engine that executes the turns.
+     *
+     * @return the engine.
+     */
+    public Engine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Sets the engine that executes the turns.
+     *
+     * @param engine the engine.
+     * @return these options.
+     */
+    public GameOptions setEngine(Engine engine) {
+        this.engine = engine;
+        return this;
+    }
+
+    /**
+     * Gets the order of turns for single-threaded engines.
+     *
+     * @return the turn order.
+     */
+    public TurnOrder getTurnOrder() {
+        return turnOrder;
+    }
+
+    /**
+     * Sets the order of turns for single-threaded engines.
+     *
+     * @param turnOrder the turn order.
+     * @return these options.
+     */
+    public GameOptions setTurnOrder(TurnOrder turnOrder) {
+        this.turnOrder = turnOrder;
+        return this;
+    }
+
+    /**
+     * Gets the seed for single-threaded engines; simulated games use the seed plus the game number.
+     *
+     * @return the seed, or null for a random seed.
+     */
+    public Long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Sets the seed for single-threaded engines.
+     *
+     * @param seed the seed, or null for a random seed.
+     * @return these options.
+     */
+    public GameOptions setSeed(Long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Gets the number of segments the sharded engine splits the ring into.
+     *
+     * @return the number of segments, by default the number of processors.
+     */
+    public int getShards() {
+        return shards;
+    }
+
+    /**
+     * Sets the number of segments the sharded engine splits the ring into, each played by one worker thread.
+     * Games with fewer players use one segment per player.
+     *
+     * @param shards the number of segments.
+     * @return these options.
+     */
+    public GameOptions setShards(int shards) {
+        this.shards = shards;
+        return this;
+    }
+
+    /**
+     * Gets the number of pool threads the task engine schedules players on.
+     *
+     * @return the number of threads, by default the number of processors.
+     */
+    public int getWorkers() {
+        return workers;
+    }
+
+    /**
+     * Sets the number of pool threads the task engine schedules players on.
+     *
+     * @param workers the number of threads.
+     * @return these options.
+     */
+    public GameOptions setWorkers(int workers) {
+        this.workers = workers;
+        return this;
+    }
+
+    /**
+     * Gets the deck implementation to use.
+     *
+     * @return the deck type.
+     */
+    public DeckType getDeckType() {
+        return deckType;
+    }
+
+    /**
+     * Sets the deck implementation to use.
+     *
+     * @param deckType the deck type.
+     * @return these options.
+     */
+    public GameOptions setDeckType(DeckType deckType) {
+        this.deckType = deckType;
+        return this;
+    }
+
+    /**
+     * Gets the kind of thread players run on.
+     *
+     * @return the thread mode.
+     */
+    public ThreadMode getThreadMode() {
+        return threadMode;
+    }
+
+    /**
+     * Sets the kind of thread players run on.
+     *
+     * @param threadMode the thread mode.
+     * @return these options.
+     */
+    public GameOptions setThreadMode(ThreadMode threadMode) {
+        this.threadMode = threadMode;
+        return this;
+    }
+
+    /**
+     * Gets what players do while they can't take a turn.
+     *
+     * @return the wait mode.
+     */
+    public WaitMode getWaitMode() {
+        return waitMode;
+    }
+
+    /**
+     * Sets what players do while they can't take a turn.
+     *
+     * @param waitMode the wait mode.
+     * @return these options.
+     */
+    public GameOptions setWaitMode(WaitMode waitMode) {
+        this.waitMode = waitMode;
+        return this;
+    }
+
+    /**
+     * Gets how players write their log files.
+     *
+     * @return the log mode.
+     */
+    public LogMode getLogMode() {
+        return logMode;
+    }
+
+    /**
+     * Sets how players write their log files.
+     *
+     * @param logMode the log mode.
+     * @return these options.
+     */
+    public GameOptions setLogMode(LogMode logMode) {
+        this.logMode = logMode;
+        return this;
+    }
+
+    /**
+     * Gets the number of writer threads used by the asynchronous log.
+     *
+     * @return the number of writer threads.
+     */
+    public int getLogWriters() {
+        return logWriters;
+    }
+
+    /**
+     * Sets the number of writer threads used by the asynchronous log.
+     *
+     * @param logWriters the number of writer threads.
+     * @return these options.
+     */
+    public GameOptions setLogWriters(int logWriters) {
+        this.logWriters = logWriters;
+        return this;
+    }
+
+    /**
+     * Gets whether players measure their turns, and how the measurements are exported.
+     *
+     * @return the metrics mode.
+     */
+    public MetricsMode getMetricsMode() {
+        return metricsMode;
+    }
+
+    /**
+     * Sets whether players measure their turns, and how the measurements are exported.
+     *
+     * @param metricsMode the metrics mode.
+     * @return these options.
+     */
+    public GameOptions setMetricsMode(MetricsMode metricsMode) {
+        this.metricsMode = metricsMode;
+        return this;
+    }
+
+    /**
+     * Gets the file a Flight Recorder recording of the game is written to.
+     *
+     * @return the recording file, or null for no recording.
+     */
+    public File getRecordingFile() {
+        return recordingFile;
+    }
+
+    /**
+     * Sets the file a Flight Recorder recording of the game is written to, with the bundled settings.
+     *
+     * @param recordingFile the recording file, or null for no recording.
+     * @return these options.
+     */
+    public GameOptions setRecordingFile(File recordingFile) {
+        this.recordingFile = recordingFile;
+        return this;
+    }
+
+    /**
+     * Gets where the player logs and deck contents are written.
+     *
+     * @return the output mode.
+     */
+    public OutputMode getOutputMode() {
+        return outputMode;
+    }
+
+    /**
+     * Sets where the player logs and deck contents are written: a file each, or one archive.
+     *
+     * @param outputMode the output mode.
+     * @return these options.
+     */
+    public GameOptions setOutputMode(OutputMode outputMode) {
+        this.outputMode = outputMode;
+        return this;
+    }
+
+    /**
+     * Gets the number of players given on the command line.
+     *
+     * @return the number of players, or 0 to ask on the terminal.
+     */
+    public int getNumPlayers() {
+        return numPlayers;
+    }
+
+    /**
+     * Sets the number of players, so it is not asked for.
+     *
+     * @param numPlayers the number of players.
+     * @return these options.
+     */
+    public GameOptions setNumPlayers(int numPlayers) {
+        this.numPlayers = numPlayers;
+        return this;
+    }
+
+    /**
+     * Gets the pack file given on the command line.
+     *
+     * @return the pack file, or null to ask on the terminal.
+     */
+    public File getPackFile() {
+        return packFile;
+    }
+
+    /**
+     * Sets the pack file, so it is not asked for.
+     *
+     * @param packFile the pack to load.
+     * @return these options.
+     */
+    public GameOptions setPackFile(File packFile) {
+        this.packFile = packFile;
+        return this;
+    }
+
+    /**
+     * Gets the number of games to simulate in batch mode.
+     *
+     * @return the number of games, or 0 to play a single game with log files.
+     */
+    public int getSimulations() {
+        return simulations;
+    }
+
+    /**
+     * Sets the number of games to simulate in batch mode.
+     *
+     * @param simulations the number of games, or 0 to play a single game.
+     * @return these options.
+     */
+    public GameOptions setSimulations(int simulations) {
+        this.simulations = simulations;
+        return this;
+    }
+
+    /**
+     * Gets the number of simulated games played at the same time.
+     *
+     * @return the parallelism, by default the number of processors.
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sets the number of simulated games played at the same time.
+     *
+     * @param parallelism the number of games at once.
+     * @return these options.
+     */
+    public GameOptions setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Gets the file the game is saved to, so it can be resumed.
+     *
+     * @return the checkpoint file, or null for no checkpoints.
+     */
+    public File getCheckpointFile() {
+        return checkpointFile;
+    }
+
+    /**
+     * Sets the file the game is saved to when it is interrupted, and at every checkpoint interval.
+     * Each checkpoint replaces the last.
+     *
+     * @param checkpointFile the checkpoint file, or null for no checkpoints.
+     * @return these options.
+     */
+    public GameOptions setCheckpointFile(File checkpointFile) {
+        this.checkpointFile = checkpointFile;
+        return this;
+    }
+
+    /**
+     * Gets the time between checkpoints.
+     *
+     * @return the interval, or null to save only when interrupted.
+     */
+    public Duration getCheckpointInterval() {
+        return checkpointInterval;
+    }
+
+    /**
+     * Sets the time between checkpoints of a game that has a checkpoint file.
+     *
+     * @param checkpointInterval the interval, or null to save only when interrupted.
+     * @return these options.
+     */
+    public GameOptions setCheckpointInterval(Duration checkpointInterval) {
+        this.checkpointInterval = checkpointInterval;
+        return this;
+    }
+
+    /**
+     * Gets the checkpoint a game resumes from.
+     *
+     * @return the checkpoint file, or null to deal a new game.
+     */
+    public File getResumeFile() {
+        return resumeFile;
+    }
+
+    /**
+     * Sets the checkpoint a game resumes from, instead of dealing a pack.
+     *
+     * @param resumeFile the checkpoint file, or null to deal a new game.
+     * @return these options.
+     */
+    public GameOptions setResumeFile(File resumeFile) {
+        this.resumeFile = resumeFile;
+        return this;
+    }
+}
@@ -0,0 +1,65 @@
+// GameResult.java
+
+package cardgame;
+
+/**
+ * The outcome of one finished game.
+ */
+public final class GameResult {
+
+    private final int winnerId;
+    private final long winnerTurns;
+    private final long totalTurns;
+    private final long wallNanos;
+
+    /**
+     * Constructs a game result.
+     *
+     * @param winnerId the ID of the winning player.
+     * @param winnerTurns the number of turns the winner took to win.
+     * @param totalTurns the number of turns taken by all players.
+     * @param wallNanos the time from dealing to the last player exiting, in nanoseconds.
+     */
+    public GameResult(int winnerId, long winnerTurns, long totalTurns, long wallNanos) {
+        this.winnerId = winnerId;
+        this.winnerTurns = winnerTurns;
+        this.totalTurns = totalTurns;
+        this.wallNanos = wallNanos;
+    }
+
+    /**
+     * Gets the ID of the winning player.
+     *
+     * @return the winner's ID.
+     */
+    public int getWinnerId() {
+        return winnerId;
+    }
+
+    /**
+     * Gets the number of turns the winner took to win (0 if dealt a winning hand).
+     *
+     * @return the winner's turn count.
+     */
+    public long getWinnerTurns() {
+        return winnerTurns;
+    }
+
+    /**
+     * Gets the number of turns taken by all players.
+     *
+     * @return the total turn count.
+     */
+    public long getTotalTurns() {
+        return totalTurns;
+    }
+
+    /**
+     * Gets the time the game took to play.
+     *
+     * @return the wall time in nanoseconds.
+     */
+    public long getWallNanos() {
+        return wallNanos;
+    }
+}
@@ -0,0 +1,110 @@
+// LocalDeck.java
+
+package cardgame;
+
+/**
+ * Unsynchronised, bounded FIFO deck, for a deck only ever used by one thread.
+ *
+ * In a sharded game both neighbours of a deck inside a segment are played by the same worker, so the deck
+ * needs no lock, no ordered index publishes and no parked player to wake: a plain array and two counters.
+ */
+final class LocalDeck extends Deck {
+
+    private final int[] cards;
+    private final int mask;
+    private long head = 0;      // Cards drawn so far
+    private long tail = 0;      // Cards added so far
+
+    /**
+     * Constructs an empty local deck with the next deck ID of a game.
+     *
+     * @param context the game the deck belongs to.
+     * @param capacity the maximum number of cards, a positive power of two.
+     * @throws IllegalArgumentException if capacity is not a positive power of two.
+     */
+    LocalDeck(GameContext context, int capacity) throws IllegalArgumentException {
+        super(context);
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Local deck capacity must be a positive power of two.");
+        }
+        this.cards = new int[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Adds a card, given by its value, to the bottom of the deck.
+     *
+     * @param value the non-negative card value.
+     * @throws IllegalArgumentException if value is negative.
+     * @throws IllegalStateException if the deck is full.
+     */
+    @Override
+    public void addValue(int value) throws IllegalArgumentException, IllegalStateException {
+        if (value < 0) {
+            throw new IllegalArgumentException("Card value must be non-negative.");
+        }
+        if (tail - head == cards.length) {
+            throw new IllegalStateException("Deck " + getDeckId() + " is full.");
+        }
+        cards[(int) tail++ & mask] = value;
+    }
+
+    /**
+     * Draws (removes) the top card of the deck and returns its value.
+     *
+     * @return the card value, or {@link #EMPTY} if the deck is empty.
+     */
+    @Override
+    public int drawValue() {
+        if (head == tail) return EMPTY;
+        return cards[(int) head++ & mask];
+    }
+
+    /**
+     * Checks whether a card can be added without the deck overflowing.
+     *
+     * @return true if the deck is not full.
+     */
+    @Override
+    public boolean hasSpace() {
+        return tail - head < cards.length;
+    }
+
+    /**
+     * Get the number of cards in the deck.
+     *
+     * @return the size of the deck.
+     */
+    @Override
+    public int size() {
+        return (int) (tail - head);
+    }
+
+    /**
+     * Shows the deck's contents as a space-separated string.
+     *
+     * @return the string form of the deck, separated by spaces.
+     */
+    @Override
+    public String contentsAsString() {
+        StringBuilder sb = new StringBuilder();
+        for (long i = head; i < tail; i++) {
+            sb.append(cards[(int) i & mask]).append(" ");
+        }
+        return sb.toString().trim();
+    }
+
+    /**
+     * Copies the deck's cards.
+     *
+     * @return the card values from top to bottom.
+     */
+    @Override
+    public int[] values() {
+        int[] values = new int[(int) (tail - head)];
+        for (long i = head; i < tail; i++) {
+            values[(int) (i - head)] = cards[(int) i & mask];
+        }
+        return values;
+    }
+}
@@ -0,0 +1,26 @@
+// LogMode.java
+
+package cardgame;
+
+/**
+ * How players write their {@code playerN_output.txt} files. The file contents are the same in every mode,
+ * rendered later from the event file in binary mode.
+ */
+public enum LogMode {
+
+    /**
+     * Each player formats and flushes its own file after every event, on its own thread.
+     */
+    DIRECT,
+
+    /**
+     * Players queue compact records; background writer threads format them and flush in batches.
+     */
+    ASYNC,
+
+    /**
+     * Players append fixed-width binary records to one event file, {@code out/events.cge}. The text files are
+     * rendered from it on demand with {@link EventLog}.
+     */
+    BINARY
+}
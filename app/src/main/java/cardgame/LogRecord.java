@@ -0,0 +1,94 @@
+// LogRecord.java
+
+package cardgame;
+
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * One player event waiting in the {@link AsyncLogPipeline} queue.
+ * Holds only the numbers of the event; the text is formatted later by a writer thread.
+ */
+final class LogRecord {
+
+    static final int INITIAL_HAND = 0;
+    static final int TURN = 1;
+    static final int WON = 2;
+    static final int INFORMED = 3;
+    static final int ERROR = 4;
+    static final int CLOSE = 5;
+    static final int STOP = 6;     // Tells a writer thread to finish
+    static final int SYNC = 7;     // Tells a writer thread to report once everything before it is flushed
+
+    /**
+     * Shared marker that stops a writer thread once everything queued before it is written.
+     */
+    static final LogRecord STOP_RECORD = new LogRecord(STOP, 0, null, 0, 0, 0, 0, null, null);
+
+    /**
+     * Shared marker that a writer thread reports once everything queued before it is flushed.
+     */
+    static final LogRecord SYNC_RECORD = new LogRecord(SYNC, 0, null, 0, 0, 0, 0, null, null);
+
+    final int kind;
+    final int playerId;
+    final Writer out;
+    final int a;    // Drawn value, or the winner for INFORMED
+    final int b;    // Deck drawn from
+    final int c;    // Discarded value
+    final int d;    // Deck discarded to
+    final int[] hand;
+    final String message;
+
+    /**
+     * Constructs a record. Unused numbers are 0.
+     *
+     * @param kind one of the kind constants.
+     * @param playerId the player's ID.
+     * @param out the player's output stream.
+     * @param a the drawn value, or the winner's ID.
+     * @param b the deck drawn from.
+     * @param c the discarded value.
+     * @param d the deck discarded to.
+     * @param hand a copy of the hand, or null.
+     * @param message the error message, or null.
+     */
+    LogRecord(int kind, int playerId, Writer out, int a, int b, int c, int d, int[] hand, String message) {
+        this.kind = kind;
+        this.playerId = playerId;
+        this.out = out;
+        this.a = a;
+        this.b = b;
+        this.c = c;
+        this.d = d;
+        this.hand = hand;
+        this.message = message;
+    }
+
+    /**
+     * Copies the used part of a player's hand, since the player keeps changing its array.
+     *
+     * @param hand the player's hand array.
+     * @param size the number of cards in the hand.
+     * @return the copy.
+     */
+    static int[] copyHand(int[] hand, int size) {
+        return Arrays.copyOf(hand, size);
+    }
+
+    /**
+     * Formats the record as it appears in the player's output file.
+     *
+     * @param sb the text to append to.
+     */
+    void appendTo(StringBuilder sb) {
+        switch (kind) {
+            case INITIAL_HAND -> LogText.initialHand(sb, playerId, hand, hand.length);
+            case TURN -> LogText.turn(sb, playerId, a, b, c, d, hand, hand.length);
+            case WON -> LogText.won(sb, playerId, hand, hand.length);
+            case INFORMED -> LogText.informed(sb, playerId, a, hand, hand.length);
+            case ERROR -> LogText.error(sb, message);
+            default -> { }  // CLOSE, STOP and SYNC have no text
+        }
+    }
+}
@@ -0,0 +1,110 @@
+// LogText.java
+
+package cardgame;
+
+/**
+ * The text of the player output files.
+ * Every log implementation formats through these methods, so the files are identical whichever one is used.
+ */
+final class LogText {
+
+    private static final String NEWLINE = System.lineSeparator();
+
+    private LogText() {
+    }
+
+    /**
+     * Appends the initial hand line.
+     *
+     * @param sb the text to append to.
+     * @param playerId the player's ID.
+     * @param hand the card values.
+     * @param size the number of cards in the hand.
+     */
+    static void initialHand(StringBuilder sb, int playerId, int[] hand, int size) {
+        sb.append("player ").append(playerId).append(" initial hand ");
+        appendHand(sb, hand, size);
+        sb.append(NEWLINE);
+    }
+
+    /**
+     * Appends the three lines of a turn: the draw, the discard and the current hand.
+     *
+     * @param sb the text to append to.
+     * @param playerId the player's ID.
+     * @param drawn the value drawn.
+     * @param fromDeck the ID of the deck drawn from.
+     * @param discarded the value discarded.
+     * @param toDeck the ID of the deck discarded to.
+     * @param hand the card values after the discard.
+     * @param size the number of cards in the hand.
+     */
+    static void turn(StringBuilder sb, int playerId, int drawn, int fromDeck, int discarded, int toDeck,
+                     int[] hand, int size) {
+        sb.append("player ").append(playerId).append(" draws a ").append(drawn)
+                .append(" from deck ").append(fromDeck).append(NEWLINE);
+        sb.append("player ").append(playerId).append(" discards a ").append(discarded)
+                .append(" to deck ").append(toDeck).append(NEWLINE);
+        sb.append("player ").append(playerId).append(" current hand is ");
+        appendHand(sb, hand, size);
+        sb.append(NEWLINE);
+    }
+
+    /**
+     * Appends the winner's last three lines.
+     *
+     * @param sb the text to append to.
+     * @param playerId the player's ID.
+     * @param hand the winning card values.
+     * @param size the number of cards in the hand.
+     */
+    static void won(StringBuilder sb, int playerId, int[] hand, int size) {
+        sb.append("player ").append(playerId).append(" wins").append(NEWLINE);
+        sb.append("player ").append(playerId).append(" exits").append(NEWLINE);
+        sb.append("player ").append(playerId).append(" final hand: ");
+        appendHand(sb, hand, size);
+        sb.append(NEWLINE);
+    }
+
+    /**
+     * Appends a losing player's last three lines.
+     *
+     * @param sb the text to append to.
+     * @param playerId the player's ID.
+     * @param winnerId the ID of the winning player.
+     * @param hand the card values.
+     * @param size the number of cards in the hand.
+     */
+    static void informed(StringBuilder sb, int playerId, int winnerId, int[] hand, int size) {
+        sb.append("player ").append(winnerId).append(" has informed player ").append(playerId)
+                .append(" that player ").append(winnerId).append(" has won").append(NEWLINE);
+        sb.append("player ").append(playerId).append(" exits").append(NEWLINE);
+        sb.append("player ").append(playerId).append(" hand: ");
+        appendHand(sb, hand, size);
+        sb.append(NEWLINE);
+    }
+
+    /**
+     * Appends an error line.
+     *
+     * @param sb the text to append to.
+     * @param message the error message.
+     */
+    static void error(StringBuilder sb, String message) {
+        sb.append("Error: ").append(message).append(NEWLINE);
+    }
+
+    /**
+     * Appends the hand as space-separated values.
+     *
+     * @param sb the text to append to.
+     * @param hand the card values.
+     * @param size the number of cards in the hand.
+     */
+    private static void appendHand(StringBuilder sb, int[] hand, int size) {
+        for (int i = 0; i < size; i++) {
+            if (i > 0) sb.append(' ');
+            sb.append(hand[i]);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+// MetricsMode.java
+
+package cardgame;
+
+/**
+ * Whether a game measures its players' turns, and how the measurements are exported.
+ */
+public enum MetricsMode {
+
+    /**
+     * No measurements: each turn pays for one branch and nothing else.
+     */
+    OFF,
+
+    /**
+     * Turn latency histograms, failed turns, lock waits, optimistic retries and deck high-water marks,
+     * written to {@code out/metrics.json} when the game ends.
+     */
+    JSON
+}
@@ -0,0 +1,111 @@
+// MetricsReport.java
+
+package cardgame;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Writes the players' metrics at the end of a game as one JSON document, for scripts and dashboards.
+ *
+ * The document holds the game totals, a merged turn latency histogram, then one entry per player and one per deck:
+ * <pre>
+ * {"players": 4, "engine": "threads", "deck": "linked", "winner": 2, "wallNanos": 51234567, "turns": 812,
+ *  "failedTurns": 40, "lockWaits": 12, "lockWaitNanos": 86000, "conflicts": 0,
+ *  "turnLatencyNanos": {"count": 812, "mean": 2104.7, "p50": 1791, "p90": 2815, "p99": 8191, "p99.9": 40959, "max": 51234},
+ *  "perPlayer": [{"id": 1, "turns": 203, ...}, ...],
+ *  "decks": [{"id": 1, "highWater": 6, "final": 4}, ...]}
+ * </pre>
+ * Percentiles are the upper bounds of their histogram buckets, within about 3%.
+ */
+final class MetricsReport {
+
+    private MetricsReport() {
+    }
+
+    /**
+     * Writes the report for a finished game.
+     *
+     * @param file the file to write, e.g. {@code out/metrics.json}.
+     * @param options the game's options.
+     * @param deck names the decks the game played with, e.g. {@code linked}.
+     * @param winnerId the winner's ID, or null if the game was stopped.
+     * @param wallNanos the time the turns took.
+     * @param players the players, in ID order, with metrics enabled.
+     * @param decks the decks, in ID order: player i draws from deck i and discards to deck i + 1.
+     * @throws IOException if the file can't be written.
+     */
+    static void write(File file, GameOptions options, String deck, Integer winnerId, long wallNanos,
+                      List<Player> players, List<Deck> decks) throws IOException {
+        LatencyHistogram latency = new LatencyHistogram();
+        long turns = 0;
+        long failed = 0;
+        long lockWaits = 0;
+        long lockWaitNanos = 0;
+        long conflicts = 0;
+        for (Player p : players) {
+            PlayerMetrics m = p.getMetrics();
+            latency.add(m.getTurnLatency());
+            turns += p.getTurnCount();
+            failed += m.getFailedTurns();
+            lockWaits += m.getLockWaits();
+            lockWaitNanos += m.getLockWaitNanos();
+            conflicts += m.getConflicts();
+        }
+
+        try (Writer w = new FileWriter(file)) {
+            w.write("{\"players\": " + players.size()
+                    + ", \"engine\": \"" + options.getEngine().name().toLowerCase(Locale.ROOT) + "\""
+                    + ", \"deck\": \"" + deck + "\""
+                    + ", \"winner\": " + winnerId
+                    + ", \"wallNanos\": " + wallNanos
+                    + ", \"turns\": " + turns
+                    + ", \"failedTurns\": " + failed
+                    + ", \"lockWaits\": " + lockWaits
+                    + ", \"lockWaitNanos\": " + lockWaitNanos
+                    + ", \"conflicts\": " + conflicts
+                    + ",\n \"turnLatencyNanos\": " + histogram(latency)
+                    + ",\n \"perPlayer\": [\n");
+            for (int i = 0; i < players.size(); i++) {
+                Player p = players.get(i);
+                PlayerMetrics m = p.getMetrics();
+                w.write("  {\"id\": " + p.getPlayerId()
+                        + ", \"turns\": " + p.getTurnCount()
+                        + ", \"failedTurns\": " + m.getFailedTurns()
+                        + ", \"lockWaits\": " + m.getLockWaits()
+                        + ", \"lockWaitNanos\": " + m.getLockWaitNanos()
+                        + ", \"conflicts\": " + m.getConflicts()
+                        + ", \"turnLatencyNanos\": " + histogram(m.getTurnLatency()) + "}"
+                        + (i + 1 < players.size() ? ",\n" : "\n"));
+            }
+            w.write(" ],\n \"decks\": [\n");
+            for (int i = 0; i < decks.size(); i++) {
+                // Deck i + 1 is discarded to by the player before it, which tracked its high-water mark:
+                Player discarder = players.get((i + players.size() - 1) % players.size());
+                Deck d = decks.get(i);
+                w.write("  {\"id\": " + d.getDeckId()
+                        + ", \"highWater\": " + discarder.getMetrics().getDeckHighWater()
+                        + ", \"final\": " + d.size() + "}"
+                        + (i + 1 < decks.size() ? ",\n" : "\n"));
+            }
+            w.write(" ]}\n");
+        }
+    }
+
+    /**
+     * Summarises a histogram as a JSON object.
+     *
+     * @param h the histogram.
+     * @return the count, mean, percentiles and maximum.
+     */
+    private static String histogram(LatencyHistogram h) {
+        return String.format(Locale.ROOT,
+                "{\"count\": %d, \"mean\": %.1f, \"p50\": %d, \"p90\": %d, \"p99\": %d, \"p99.9\": %d, \"max\": %d}",
+                h.getCount(), h.getMean(), h.getValueAtPercentile(50), h.getValueAtPercentile(90),
+                h.getValueAtPercentile(99), h.getValueAtPercentile(99.9), h.getMax());
+    }
+}
@@ -0,0 +1,227 @@
+// OutputArchive.java
+
+package cardgame;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads an output archive written with {@link OutputSink#archive}: every player log and deck file of a game in
+ * one file, instead of one file each.
+ *
+ * An 8 byte header, then the streams' text in segments, appended as each stream's buffer filled, then the index:
+ * <pre>
+ *   header   magic "CGAR", format version (1), 3 reserved bytes
+ *   segment  stream number (int), text length (int), position of the stream's previous segment or -1 (long), text
+ *   index    stream count (int), then for each stream: name (modified UTF-8), text length (long),
+ *            position of its last segment or -1 (long)
+ *   trailer  position of the index (long), magic "CGAR"
+ * </pre>
+ * Each stream's segments are found by following the chain back from the last one, so any stream can be read
+ * without scanning the others. The index is written last: an archive whose game didn't finish can't be read.
+ *
+ * Extract the usual files with {@code java -cp app.jar cardgame.OutputArchive <archive> <directory> [name...]}.
+ */
+public final class OutputArchive implements Closeable {
+
+    static final int MAGIC = ('C' << 24) | ('G' << 16) | ('A' << 8) | 'R';
+    static final byte VERSION = 1;
+    static final int HEADER = 8;
+    static final int SEGMENT_HEADER = 16;
+    private static final int TRAILER = 12;
+
+    private final FileChannel channel;
+    private final Map<String, long[]> entries = new LinkedHashMap<>();     // Name to stream number, text length, last segment
+
+    /**
+     * Opens an archive and reads its index.
+     *
+     * @param file the archive file.
+     * @throws IOException if the file can't be read, or isn't a complete archive.
+     */
+    public OutputArchive(File file) throws IOException {
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            readIndex();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Extracts an archive's streams as files.
+     *
+     * @param args the archive, the directory to extract to, and optionally the names of the streams to extract.
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.out.println("Usage: cardgame.OutputArchive <archive> <directory> [name...]");
+            return;
+        }
+        try (OutputArchive archive = new OutputArchive(new File(args[0]))) {
+            File dir = new File(args[1]);
+            List<String> names = args.length > 2 ? Arrays.asList(args).subList(2, args.length) : archive.names();
+            for (String name : names) {
+                if (!archive.extract(name, dir)) {
+                    System.out.println("Not in archive: " + name);
+                }
+            }
+            System.out.println("Extracted " + names.size() + " files to " + dir + ".");
+        } catch (IOException e) {
+            System.out.println("Error extracting archive: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Gets the names of the streams in the archive.
+     *
+     * @return the names, in the order the streams were opened.
+     */
+    public List<String> names() {
+        return new ArrayList<>(entries.keySet());
+    }
+
+    /**
+     * Reads a stream's text.
+     *
+     * @param name the stream name, such as {@code player1_output.txt}.
+     * @return the stream's UTF-8 bytes, or null if it isn't in the archive.
+     * @throws IOException if the archive can't be read or is damaged.
+     */
+    public byte[] read(String name) throws IOException {
+        long[] entry = entries.get(name);
+        if (entry == null) return null;
+        int id = (int) entry[0];
+        long length = entry[1];
+        if (length > Integer.MAX_VALUE - 8) throw new IOException("Stream too large to read: " + name);
+
+        // Follow the chain back from the last segment, filling the text in from the end:
+        byte[] text = new byte[(int) length];
+        int filled = text.length;
+        ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER);
+        for (long position = entry[2]; position >= 0; ) {
+            readFully(header.clear(), position);
+            int size = header.getInt(4);
+            if (header.getInt(0) != id || size <= 0 || size > filled || position + SEGMENT_HEADER + size > channel.size()) {
+                throw new IOException("Damaged segment at " + position + " in " + name);
+            }
+            filled -= size;
+            readFully(ByteBuffer.wrap(text, filled, size), position + SEGMENT_HEADER);
+            long previous = header.getLong(8);
+            if (previous >= position) throw new IOException("Damaged segment chain at " + position + " in " + name);
+            position = previous;
+        }
+        if (filled != 0) throw new IOException("Missing segments in " + name);
+        return text;
+    }
+
+    /**
+     * Writes a stream out as a file of the same name.
+     *
+     * @param name the stream name.
+     * @param dir the directory to write to, created if not present.
+     * @return false if the stream isn't in the archive.
+     * @throws IOException if the archive can't be read or is damaged, including a name that isn't a plain file
+     *         name, or the file can't be written.
+     */
+    public boolean extract(String name, File dir) throws IOException {
+        byte[] text = read(name);
+        if (text == null) return false;
+        // A game only names its streams playerN_output.txt and the like, so never write outside the directory:
+        if (name.isEmpty() || name.contains("/") || name.contains("\\") || name.contains("..")
+                || name.indexOf(File.separatorChar) >= 0 || name.indexOf('\0') >= 0) {
+            throw new IOException("Damaged stream name: " + name);
+        }
+        if (!dir.exists()) {
+            dir.mkdirs();
+        }
+        try (OutputStream out = new FileOutputStream(new File(dir, name))) {
+            out.write(text);
+        }
+        return true;
+    }
+
+    /**
+     * Writes every stream out as a file, giving the same layout as a game written to a directory.
+     *
+     * @param dir the directory to write to, created if not present.
+     * @throws IOException if the archive can't be read or a file can't be written.
+     */
+    public void extractAll(File dir) throws IOException {
+        for (String name : entries.keySet()) {
+            extract(name, dir);
+        }
+    }
+
+    /**
+     * Closes the archive file.
+     *
+     * @throws IOException if the file can't be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Checks the header and trailer, then reads the index.
+     *
+     * @throws IOException if the file isn't a complete archive.
+     */
+    private void readIndex() throws IOException {
+        long size = channel.size();
+        if (size < HEADER + TRAILER) throw new IOException("Not an output archive");
+        ByteBuffer header = ByteBuffer.allocate(HEADER);
+        readFully(header, 0);
+        if (header.getInt(0) != MAGIC) throw new IOException("Not an output archive");
+        if (header.get(4) != VERSION) throw new IOException("Unsupported archive version: " + header.get(4));
+
+        ByteBuffer trailer = ByteBuffer.allocate(TRAILER);
+        readFully(trailer, size - TRAILER);
+        long indexOffset = trailer.getLong(0);
+        if (trailer.getInt(8) != MAGIC || indexOffset < HEADER || indexOffset > size - TRAILER) {
+            throw new IOException("Archive has no index: the game may not have finished");
+        }
+
+        ByteBuffer index = ByteBuffer.allocate((int) (size - TRAILER - indexOffset));
+        readFully(index, indexOffset);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(index.array()));
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            String name = in.readUTF();
+            long length = in.readLong();
+            long last = in.readLong();
+            if (length < 0 || last >= indexOffset) throw new IOException("Damaged index entry: " + name);
+            entries.put(name, new long[] {i, length, last});
+        }
+    }
+
+    /**
+     * Fills a buffer from a position in the archive.
+     *
+     * @param buffer the buffer to fill.
+     * @param position the file position.
+     * @throws IOException if the file ends first.
+     */
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, position);
+            if (n < 0) throw new IOException("Archive truncated");
+            position += n;
+        }
+    }
+}
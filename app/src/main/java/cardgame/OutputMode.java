@@ -0,0 +1,20 @@
+// OutputMode.java
+
+package cardgame;
+
+/**
+ * Where a game's player logs and deck contents are written.
+ */
+public enum OutputMode {
+
+    /**
+     * A file each in {@code out/}, each player holding its file open for the whole game.
+     */
+    FILES,
+
+    /**
+     * All in one indexed archive, {@code out/output.cga}, written through a single file channel.
+     * Extract the files with {@link OutputArchive}.
+     */
+    ARCHIVE
+}
@@ -0,0 +1,90 @@
+// OutputSink.java
+
+package cardgame;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+/**
+ * Where a game's named text streams go: each player's log and each deck's final contents.
+ *
+ * The writers it opens buffer their text, and may hold it until they are closed. Closing the sink closes any
+ * still open, so everything written reaches its destination once the sink is closed.
+ */
+public interface OutputSink extends Closeable {
+
+    /**
+     * Opens a named stream.
+     *
+     * @param name the stream name, such as {@code player1_output.txt}.
+     * @return a writer for the stream.
+     * @throws IOException if the stream can't be created.
+     */
+    Writer open(String name) throws IOException;
+
+    /**
+     * Closes any streams still open, and finishes the output.
+     *
+     * @throws IOException if the output can't be written.
+     */
+    @Override
+    void close() throws IOException;
+
+    /**
+     * One file per stream in a directory: the usual {@code out/} layout. Each open writer holds a file open.
+     *
+     * @param dir the output directory, created when the first stream is opened.
+     * @return the sink.
+     */
+    static OutputSink directory(File dir) {
+        return new DirectorySink(dir);
+    }
+
+    /**
+     * One file per stream in a directory, keeping the start of some existing files, e.g. the player logs of a
+     * game resumed from a {@link Checkpoint}. Each stream in the map is cut back to its length there, and written
+     * after it; any other stream replaces its file.
+     *
+     * @param dir the output directory, created when the first stream is opened.
+     * @param kept the number of bytes to keep of each stream's existing file, by stream name.
+     * @return the sink.
+     */
+    static OutputSink directory(File dir, Map<String, Long> kept) {
+        return new DirectorySink(dir, kept);
+    }
+
+    /**
+     * Every stream in one indexed archive, written through a single file channel. Extract the usual layout with
+     * {@link OutputArchive}.
+     *
+     * @param file the archive file, replaced if present. Its directory is created if not present.
+     * @return the sink.
+     * @throws IOException if the archive can't be created.
+     */
+    static OutputSink archive(File file) throws IOException {
+        return new ArchiveSink(file);
+    }
+
+    /**
+     * Names a player's log stream.
+     *
+     * @param playerId the player's ID.
+     * @return {@code playerN_output.txt}.
+     */
+    static String playerStream(int playerId) {
+        return "player" + playerId + "_output.txt";
+    }
+
+    /**
+     * Names a deck's contents stream.
+     *
+     * @param deckId the deck's ID.
+     * @return {@code deckN_output.txt}.
+     */
+    static String deckStream(int deckId) {
+        return "deck" + deckId + "_output.txt";
+    }
+}
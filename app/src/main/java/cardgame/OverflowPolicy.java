@@ -0,0 +1,28 @@
+// OverflowPolicy.java
+
+package cardgame;
+
+/**
+ * What a {@link GameEventPublisher} does with a new event when a subscriber's buffer is full, because the
+ * subscriber has not asked for more or is slower than the players.
+ */
+public enum OverflowPolicy {
+
+    /**
+     * The new event is dropped for that subscriber and counted. Players never wait.
+     */
+    DROP,
+
+    /**
+     * The player waits until the subscriber takes an event, so nothing is lost, but a slow subscriber slows
+     * the game down. If the game is stopped or paused meanwhile, the player drops the event and carries on.
+     */
+    BLOCK,
+
+    /**
+     * The new event replaces the newest buffered event of the same kind for the same player, so a slow
+     * subscriber sees each player's latest draw and discard rather than every one. With no such event
+     * buffered, the oldest event is dropped to make room. Players never wait.
+     */
+    COALESCE
+}
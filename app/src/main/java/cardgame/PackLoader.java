@@ -0,0 +1,317 @@
+// PackLoader.java
+
+package cardgame;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Fast pack file loader: memory-maps the file and parses the ASCII digits straight from the mapped bytes.
+ *
+ * Accepts exactly what the line-by-line reader accepted: one integer per line (\n, \r\n or \r), surrounding
+ * whitespace ignored, an optional + or - sign, no empty lines, no negative values, and exactly the expected number
+ * of cards. Validation happens in the same pass as parsing, and nothing is allocated per line.
+ *
+ * Large files are split into chunks at line breaks. The lines of every chunk are counted in parallel, which gives
+ * each chunk its first index in the card array, then the chunks are parsed in parallel into that one array.
+ */
+public final class PackLoader {
+
+    /**
+     * Size of each mapped window; files larger than this are mapped one window at a time.
+     */
+    private static final long WINDOW = 256L * 1024 * 1024;
+
+    /**
+     * Files smaller than this are parsed on the calling thread.
+     */
+    private static final long PARALLEL_THRESHOLD = 8L * 1024 * 1024;
+
+    private final int[] values;
+    private int next;           // Where the next value goes
+    private final int end;      // One past the last index this parser may fill
+
+    // Parser state for the current line, kept across window boundaries:
+    private boolean lineStarted = false;    // Any byte seen since the last line break
+    private boolean negative = false;
+    private boolean signSeen = false;
+    private boolean digitsSeen = false;
+    private boolean digitsEnded = false;    // Whitespace after the digits: only more whitespace may follow
+    private long magnitude = 0;
+    private boolean afterCR = false;        // A \n straight after \r is part of the same line break
+
+    /**
+     * Constructs a parser that fills part of the card array.
+     *
+     * @param values the card array.
+     * @param start the first index to fill.
+     * @param end one past the last index to fill.
+     */
+    private PackLoader(int[] values, int start, int end) {
+        this.values = values;
+        this.next = start;
+        this.end = end;
+    }
+
+    /**
+     * Loads and validates a pack file, in parallel if the file is large.
+     *
+     * @param file the pack file.
+     * @param expectedCards the number of cards the pack must hold (8 per player).
+     * @return the card values in pack order, or null if the pack is invalid.
+     * @throws IOException if the file can't be read.
+     */
+    public static int[] load(File file, long expectedCards) throws IOException {
+        long size = file.length();
+        int chunks = 1;
+        if (size >= PARALLEL_THRESHOLD) {
+            int byWindow = (int) ((size + WINDOW - 1) / WINDOW);
+            chunks = Math.max(4 * Runtime.getRuntime().availableProcessors(), byWindow);
+        }
+        return load(file, expectedCards, chunks);
+    }
+
+    /**
+     * Loads and validates a pack file split into a given number of chunks.
+     * Nothing is allocated for the cards until the file is known to hold the right number of lines, so a huge
+     * count with a small file is simply an invalid pack.
+     *
+     * @param file the pack file.
+     * @param expectedCards the number of cards the pack must hold (8 per player).
+     * @param chunks the number of chunks to parse in parallel; 1 parses on the calling thread.
+     * @return the card values in pack order, or null if the pack is invalid.
+     * @throws IOException if the file can't be read.
+     */
+    public static int[] load(File file, long expectedCards, int chunks) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            // Every card takes a digit, and every card but the last a line break:
+            if (expectedCards < 0 || expectedCards > Integer.MAX_VALUE || size < 2 * expectedCards - 1) return null;
+            int cards = (int) expectedCards;
+
+            if (chunks <= 1) {
+                int[] values = new int[cards];
+                PackLoader parser = new PackLoader(values, 0, cards);
+                boolean valid = parser.parse(channel, 0, size) && parser.finish() && parser.next == cards;
+                return valid ? values : null;
+            }
+
+            long[] starts = splitAtLineBreaks(channel, size, chunks);
+            int n = starts.length - 1;
+
+            // Pass 1: count the lines of each chunk, in parallel:
+            long[] lines = new long[n];
+            IntStream.range(0, n).parallel().forEach(i -> lines[i] = countLines(channel, starts[i], starts[i + 1]));
+
+            // Each chunk starts where the previous one ends in the card array:
+            int[] offsets = new int[n + 1];
+            long total = 0;
+            for (int i = 0; i < n; i++) {
+                offsets[i] = (int) total;
+                total += lines[i];
+                if (total > expectedCards) return null;     // Too many cards
+            }
+            if (total != expectedCards) return null;        // Too few cards
+            offsets[n] = (int) total;
+            int[] values = new int[cards];
+
+            // Pass 2: parse and validate each chunk into its slice of the array, in parallel:
+            boolean valid = IntStream.range(0, n).parallel().allMatch(i -> {
+                PackLoader parser = new PackLoader(values, offsets[i], offsets[i + 1]);
+                return parser.parse(channel, starts[i], starts[i + 1]) && parser.finish();
+            });
+            return valid ? values : null;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();     // From a parallel chunk
+        }
+    }
+
+    /**
+     * Chooses chunk boundaries: roughly equal sizes, each moved forward to just after a line break.
+     *
+     * @param channel the pack file.
+     * @param size the file size.
+     * @param chunks the number of chunks wanted.
+     * @return the start of each chunk, followed by the file size.
+     * @throws IOException if the file can't be read.
+     */
+    private static long[] splitAtLineBreaks(FileChannel channel, long size, int chunks) throws IOException {
+        long[] starts = new long[chunks + 1];
+        int n = 0;
+        starts[n++] = 0;
+        for (int i = 1; i < chunks; i++) {
+            long boundary = nextLineStart(channel, Math.max(size * i / chunks, starts[n - 1]), size);
+            if (boundary > starts[n - 1] && boundary < size) {
+                starts[n++] = boundary;
+            }
+        }
+        starts[n++] = size;
+        return Arrays.copyOf(starts, n);
+    }
+
+    /**
+     * Finds the start of the first line that begins at or after a position.
+     *
+     * @param channel the pack file.
+     * @param from the position to search from.
+     * @param size the file size.
+     * @return the position just after the next line break (a \r\n counts as one), or the file size.
+     * @throws IOException if the file can't be read.
+     */
+    private static long nextLineStart(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer block = ByteBuffer.allocate(4096);
+        long pos = from;
+        boolean afterCR = false;
+        while (pos < size) {
+            block.clear();
+            int read = channel.read(block, pos);
+            if (read <= 0) break;
+            for (int i = 0; i < read; i++) {
+                byte b = block.get(i);
+                if (afterCR) {
+                    return b == '\n' ? pos + i + 1 : pos + i;
+                }
+                if (b == '\n') return pos + i + 1;
+                if (b == '\r') afterCR = true;
+            }
+            pos += read;
+        }
+        return size;
+    }
+
+    /**
+     * Counts the lines in a chunk: the line breaks, plus a last line with no line break at the end of the file.
+     *
+     * @param channel the pack file.
+     * @param from the chunk start.
+     * @param to the chunk end.
+     * @return the number of lines.
+     */
+    private static long countLines(FileChannel channel, long from, long to) {
+        long lines = 0;
+        byte last = '\n';
+        boolean afterCR = false;
+        try {
+            for (long pos = from; pos < to; pos += WINDOW) {
+                MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(WINDOW, to - pos));
+                int limit = buf.limit();
+                for (int i = 0; i < limit; i++) {
+                    byte b = buf.get(i);
+                    if (b == '\n') {
+                        if (!afterCR) lines++;
+                    } else if (b == '\r') {
+                        lines++;
+                    }
+                    afterCR = b == '\r';
+                    last = b;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        // Only the final chunk can end part way through a line:
+        if (last != '\n' && last != '\r') lines++;
+        return lines;
+    }
+
+    /**
+     * Parses part of the file, one mapped window at a time.
+     *
+     * @param channel the pack file.
+     * @param from the first byte to parse.
+     * @param to one past the last byte to parse.
+     * @return false as soon as the pack is found to be invalid.
+     */
+    private boolean parse(FileChannel channel, long from, long to) {
+        try {
+            for (long pos = from; pos < to; pos += WINDOW) {
+                MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(WINDOW, to - pos));
+                if (!parse(buf)) return false;
+            }
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Parses one window of the file.
+     *
+     * @param buf the mapped bytes.
+     * @return false as soon as the pack is found to be invalid.
+     */
+    private boolean parse(MappedByteBuffer buf) {
+        int limit = buf.limit();
+        for (int i = 0; i < limit; i++) {
+            byte b = buf.get(i);
+
+            if (b >= '0' && b <= '9') {
+                if (digitsEnded) return false;  // e.g. "1 2"
+                magnitude = magnitude * 10 + (b - '0');
+                if (magnitude > Integer.MAX_VALUE) return false;    // Not an int
+                digitsSeen = true;
+                lineStarted = true;
+                afterCR = false;
+            } else if (b == '\n') {
+                if (afterCR) {
+                    afterCR = false;    // Second half of \r\n
+                } else if (!endLine()) {
+                    return false;
+                }
+            } else if (b == '\r') {
+                if (!endLine()) return false;
+                afterCR = true;
+            } else if ((b & 0xFF) <= ' ') {
+                // Whitespace, trimmed like String.trim()
+                if (digitsSeen) digitsEnded = true;
+                else if (signSeen) return false;    // e.g. "- 1"
+                lineStarted = true;
+                afterCR = false;
+            } else if ((b == '-' || b == '+') && !signSeen && !digitsSeen) {
+                signSeen = true;
+                negative = b == '-';
+                lineStarted = true;
+                afterCR = false;
+            } else {
+                return false;   // Not an integer
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Validates and stores the value of the line that just ended.
+     *
+     * @return false if the line is empty, not an integer, negative, or one card too many.
+     */
+    private boolean endLine() {
+        if (!digitsSeen) return false;                  // Empty line, or a sign alone
+        if (negative && magnitude != 0) return false;   // Must be >=0
+        if (next == end) return false;                  // Too many cards
+        values[next++] = (int) magnitude;
+
+        lineStarted = false;
+        negative = false;
+        signSeen = false;
+        digitsSeen = false;
+        digitsEnded = false;
+        magnitude = 0;
+        return true;
+    }
+
+    /**
+     * Ends the last line if the file does not end with a line break.
+     *
+     * @return false if that line is invalid.
+     */
+    private boolean finish() {
+        return !lineStarted || endLine();
+    }
+}
@@ -3,12 +3,11 @@
 package cardgame;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * A thread-safe player class.
@@ -17,15 +16,38 @@ import java.util.Random;
  */
 public class Player implements Runnable {
 
-    private static int idCounter = 1;
-    private static volatile Integer winnerId = null;    // Shared between players
+    private static final int HAND_SIZE = 4;
+    private static final long IDLE_PARK_NANOS = 10_000;    // How long a spinning virtual thread waits after an empty turn
+    private static final long PARK_TIMEOUT_NANOS = 100_000_000; // Backstop only: a neighbour or the game end wakes us
+    private static final int MAX_SPINS = Runtime.getRuntime().availableProcessors() > 1 ? 1024 : 0;
 
+    private final GameContext context;  // Shared between the players of one game
     private final int playerId;
     private final Deck leftDeck;
     private final Deck rightDeck;
-    private final List<Card> hand;
-    private final Random random;
-    private final PrintWriter log;
+    private final int[] hand = new int[HAND_SIZE + 1];  // One spare slot for the drawn card
+    private int handSize = 0;
+
+    // Histogram of the denominations in the hand: distinct values and how many of each are held.
+    // At most one more denomination than the hand size, so a win check is a comparison, not a scan.
+    private final int[] denominations = new int[HAND_SIZE + 1];
+    private final int[] denominationCounts = new int[HAND_SIZE + 1];
+    private int distinct = 0;
+    private int preferred = 0;  // Cards of the player's own denomination
+    private final PlayerRandom random;
+    private final PlayerLog log;
+    private final boolean lockFree;     // Both decks are single-writer, single-reader rings
+    private final boolean optimistic;   // Both decks are versioned: turns claim them instead of locking
+    private final WaitMode waitMode;
+    private int spinLimit = MAX_SPINS / 16; // Empty turns to spin through before parking, adapted as we go
+    private volatile long turns = 0;    // Only written by this player's thread
+    private boolean resumed = false;    // Restored from a checkpoint: the initial hand is already logged
+    private PlayerMetrics metrics = null;   // Null unless enabled, so measuring costs one branch when disabled
+
+    // What the last turn did, recorded under the deck locks and reported after they are released:
+    private int lastDrawn;
+    private int lastDiscarded;
+    private boolean lastTurnWon;
 
     /**
      * Constructs an empty list with an ID (automatically incremented).
@@ -35,23 +57,43 @@ public class Player implements Runnable {
      * @throws IOException if the log file can't be written to.
      */
     public Player(Deck leftDeck, Deck rightDeck) throws IOException {
-        synchronized (Player.class) {
-            this.playerId = idCounter++;
-        }
-        this.leftDeck = leftDeck;
-        this.rightDeck = rightDeck;
-        this.hand = new ArrayList<>(4);
-        this.random = new Random();
+        this(GameContext.shared(), leftDeck, rightDeck, PlayerLogFactory.files(new File("out")));
+    }
 
-        // If not present, create the output directory.
-        File outDir = new File("out");
-        if (!outDir.exists()) {
-            outDir.mkdirs();
-        }
+    /**
+     * Constructs an empty list with the next player ID of a game.
+     *
+     * @param context the game the player belongs to.
+     * @param leftDeck to draw from.
+     * @param rightDeck to discard to.
+     * @param logs opens this player's log, e.g. a file in {@code out/}.
+     * @throws IOException if the log file can't be written to.
+     */
+    public Player(GameContext context, Deck leftDeck, Deck rightDeck, PlayerLogFactory logs) throws IOException {
+        this(context, leftDeck, rightDeck, logs, WaitMode.PARK);
+    }
 
-        // Create the player log file in the output directory
-        File logFile = new File(outDir, "player" + playerId + "_output.txt");
-        this.log = new PrintWriter(new FileWriter(logFile), true);
+    /**
+     * Constructs an empty list with the next player ID of a game, waiting for its neighbours in a given way.
+     *
+     * @param context the game the player belongs to.
+     * @param leftDeck to draw from.
+     * @param rightDeck to discard to.
+     * @param logs opens this player's log, e.g. a file in {@code out/}.
+     * @param waitMode what to do when no turn can be taken.
+     * @throws IOException if the log file can't be written to.
+     */
+    public Player(GameContext context, Deck leftDeck, Deck rightDeck, PlayerLogFactory logs, WaitMode waitMode)
+            throws IOException {
+        this.context = context;
+        this.waitMode = waitMode;
+        this.playerId = context.nextPlayerId();
+        this.leftDeck = leftDeck;
+        this.rightDeck = rightDeck;
+        this.lockFree = leftDeck instanceof RingDeck && rightDeck instanceof RingDeck;
+        this.optimistic = leftDeck instanceof VersionedDeck && rightDeck instanceof VersionedDeck;
+        this.random = new PlayerRandom();
+        this.log = logs.open(playerId);
     }
 
     /**
@@ -63,22 +105,94 @@ public class Player implements Runnable {
         return playerId;
     }
 
+    /**
+     * Gets the number of completed turns (draws and discards) this player has taken.
+     *
+     * @return the turn count.
+     */
+    public long getTurnCount() {
+        return turns;
+    }
+
+    /**
+     * Starts measuring this player's turns: latency, failed attempts, lock waits and the right deck's depth.
+     * Must be called before the game starts.
+     */
+    public void enableMetrics() {
+        metrics = new PlayerMetrics();
+    }
+
+    /**
+     * Gets what this player has measured about its turns.
+     *
+     * @return the metrics, or null if they were not enabled.
+     */
+    public PlayerMetrics getMetrics() {
+        return metrics;
+    }
+
     /**
      * Return the hand as an array list.
      *
      * @return the hand array list.
      */
     public synchronized List<Card> getHand() {
-        return new ArrayList<>(hand);
+        List<Card> cards = new ArrayList<>(handSize);
+        for (int i = 0; i < handSize; i++) {
+            cards.add(Card.of(hand[i]));
+        }
+        return cards;
     }
 
     /**
      * Adds a given card to the player's hand
      *
      * @param card to add to their hand.
+     * @throws IllegalStateException if the hand already holds four cards.
+     */
+    public synchronized void addCardToHand(Card card) throws IllegalStateException {
+        if (handSize >= HAND_SIZE) {
+            throw new IllegalStateException("Player " + playerId + " already holds " + HAND_SIZE + " cards.");
+        }
+        hand[handSize++] = card.getValue();
+        count(card.getValue());
+    }
+
+    /**
+     * Adds a card value to the denomination histogram.
+     *
+     * @param value the card value now in the hand.
+     */
+    private void count(int value) {
+        if (value == playerId) preferred++;
+        for (int i = 0; i < distinct; i++) {
+            if (denominations[i] == value) {
+                denominationCounts[i]++;
+                return;
+            }
+        }
+        denominations[distinct] = value;
+        denominationCounts[distinct++] = 1;
+    }
+
+    /**
+     * Removes a card value from the denomination histogram.
+     *
+     * @param value the card value no longer in the hand.
      */
-    public synchronized void addCardToHand(Card card) {
-        hand.add(card);
+    private void uncount(int value) {
+        if (value == playerId) preferred--;
+        for (int i = 0; i < distinct; i++) {
+            if (denominations[i] == value) {
+                if (--denominationCounts[i] == 0) {
+                    // Keep the histogram dense: move the last denomination into the gap
+                    distinct--;
+                    denominations[i] = denominations[distinct];
+                    denominationCounts[i] = denominationCounts[distinct];
+                }
+                return;
+            }
+        }
     }
 
     /**
@@ -86,19 +200,39 @@ public class Player implements Runnable {
      * Picked based on the preferred denomination to the player's number (ID)
      * Randomly discards another card if no preferred ones are present.
      *
-     * @return the card to be discarded.
+     * @return the hand index of the card to be discarded.
      */
-    private synchronized Card chooseDiscard() {
-        List<Card> notPreferred = new ArrayList<>();
-        for (Card c : hand) {
-            if (c.getValue() != playerId) {
-                notPreferred.add(c);
+    private synchronized int chooseDiscard() {
+        // The cards that aren't the preferred denomination:
+        int notPreferred = handSize - preferred;
+        if (notPreferred == 0) {
+            return random.nextInt(handSize);
+        }
+
+        // Find the chosen one among them, in hand order:
+        int choice = random.nextInt(notPreferred);
+        for (int i = 0; i < handSize; i++) {
+            if (hand[i] != playerId && choice-- == 0) {
+                return i;
             }
         }
-        if (notPreferred.isEmpty()) {
-            return hand.get(random.nextInt(hand.size()));
+        throw new IllegalStateException("No card to discard.");   // Unreachable
+    }
+
+    /**
+     * Removes the card at an index, keeping the order of the rest of the hand.
+     *
+     * @param index the hand index to remove.
+     * @return the removed card value.
+     */
+    private synchronized int removeFromHand(int index) {
+        int value = hand[index];
+        handSize--;
+        for (int i = index; i < handSize; i++) {
+            hand[i] = hand[i + 1];
         }
-        return notPreferred.get(random.nextInt(notPreferred.size()));
+        uncount(value);
+        return value;
     }
 
 
@@ -108,14 +242,8 @@ public class Player implements Runnable {
      * @return true if the player has won.
      */
     private synchronized boolean hasWinningHand() {
-        if (hand.isEmpty()) return false;
-        int value = hand.get(0).getValue(); // get the value of the first card
-        for (Card c : hand) { // check if all cards have the same value
-            if (c.getValue() != value) { // if any card is different return false
-                return false;
-            }
-        }
-        return true;
+        // A full hand of one denomination:
+        return handSize > 0 && distinct == 1;
     }
 
     /**
@@ -123,61 +251,334 @@ public class Player implements Runnable {
      */
     private void declareWin() {
         // Only the first player can declare themselves as the winner
-        synchronized (Player.class) {
-            if (winnerId != null) return;   // Someone else won
-            winnerId = playerId;
+        if (!context.claimWin(playerId)) return;    // Someone else won
+
+        WinEvent event = new WinEvent();
+        if (event.shouldCommit()) {
+            event.playerId = playerId;
+            event.turns = turns;
+            event.value = hand[0];
+            event.commit();
         }
 
-        System.out.println("player " + playerId + " wins");
-        log.println("player " + playerId + " wins");
-        log.println("player " + playerId + " exits");
-        log.println("player " + playerId + " final hand: " + handToString());
+        log.won(hand, handSize);
         log.close();
     }
 
     /**
-     * Executes one atomic turn (a draw and a discard).
+     * Executes one atomic turn (a draw and a discard), then reports it.
+     * Only the state change happens while the decks are locked; the log and any win are handled afterwards,
+     * so neighbours never wait for this player's disk I/O.
+     * Safe while the neighbours take their turns on other threads; used by {@link #run()} and by engines that
+     * schedule players as tasks.
+     *
+     * @return true if a turn was taken, false if the game is over, the left deck was empty or the right deck full.
+     */
+    boolean drawAndDiscard() {
+        // If any player has won, or the game was stopped, stop playing:
+        if (context.isOver()) return false;
+        return turn(true);
+    }
+
+    /**
+     * The atomic part of a turn, while the neighbours may be taking theirs.
+     *
+     * @return true if a turn was taken.
+     */
+    private boolean takeTurnShared() {
+        // Ring decks have one writer and one reader, so this player is the only one that can
+        // draw from the left deck or discard to the right deck: no locks are needed.
+        // Versioned decks are claimed for the turn only once it is known to be possible.
+        return lockFree ? takeTurn() : optimistic ? takeTurnOptimistic() : takeTurnLocked();
+    }
+
+    /**
+     * Takes and reports a turn, measuring it if metrics are enabled, and as a Flight Recorder event if a
+     * recording has enabled turn events. Neither costs more than a branch when off: no event is created unless
+     * a recording is running.
+     *
+     * @param shared true if the neighbours may be taking turns at the same time.
+     * @return true if a turn was taken.
+     */
+    private boolean turn(boolean shared) {
+        TurnEvent event = null;
+        if (FlightRecording.isActive()) {
+            event = new TurnEvent();
+            event.begin();
+        }
+        boolean taken;
+        if (metrics == null) {
+            taken = (shared ? takeTurnShared() : takeTurn()) && reportTurn();
+        } else {
+            long start = System.nanoTime();
+            taken = (shared ? takeTurnShared() : takeTurn()) && reportTurn();
+            metrics.recordTurn(System.nanoTime() - start, taken);
+        }
+        if (taken && event != null && event.shouldCommit()) {
+            event.playerId = playerId;
+            event.drawn = lastDrawn;
+            event.fromDeck = leftDeck.getDeckId();
+            event.discarded = lastDiscarded;
+            event.toDeck = rightDeck.getDeckId();
+            event.won = lastTurnWon;
+            event.commit();
+        }
+        return taken;
+    }
+
+    /**
+     * Executes one turn for a single-threaded engine, which is the only thread touching any deck, so the two
+     * decks are not locked together. Each deck and the player still take their own locks, never contended.
+     *
+     * @return true if a turn was taken, false if the game is over, the left deck was empty or the right deck full.
+     */
+    boolean playTurn() {
+        if (context.isOver()) return false;
+        return turn(false);
+    }
+
+    /**
+     * Logs the turn just taken, records its cards as Flight Recorder events if a recording has enabled them,
+     * and announces a win. The decks are released by now, so neither the log nor a recording lengthens the
+     * locked part of the turn; only this player changes the hand.
+     *
+     * @return true.
+     */
+    private boolean reportTurn() {
+        log.turn(lastDrawn, leftDeck.getDeckId(), lastDiscarded, rightDeck.getDeckId(), hand, handSize);
+        if (FlightRecording.isActive()) recordCards();
+        if (lastTurnWon) {
+            declareWin();
+        }
+        return true;
+    }
+
+    /**
+     * Commits the turn's drawn and discarded cards as Flight Recorder events, if the recording enables them.
      */
-    private void drawAndDiscard() {
-        // If any player has won, stop playing:
-        if (winnerId != null) return;
+    private void recordCards() {
+        CardDrawnEvent drawEvent = new CardDrawnEvent();
+        if (drawEvent.shouldCommit()) {
+            drawEvent.playerId = playerId;
+            drawEvent.deckId = leftDeck.getDeckId();
+            drawEvent.value = lastDrawn;
+            drawEvent.commit();
+        }
+        CardDiscardedEvent discardEvent = new CardDiscardedEvent();
+        if (discardEvent.shouldCommit()) {
+            discardEvent.playerId = playerId;
+            discardEvent.deckId = rightDeck.getDeckId();
+            discardEvent.value = lastDiscarded;
+            discardEvent.commit();
+        }
+    }
 
+    /**
+     * Checks whether a turn could be taken now, without taking it.
+     *
+     * @return true if the left deck holds a card and the right deck has space.
+     */
+    boolean canTakeTurn() {
+        return leftDeck.size() > 0 && rightDeck.hasSpace();
+    }
+
+    /**
+     * Reseeds the discard choices, so a single-threaded game can be replayed exactly.
+     *
+     * @param seed the seed.
+     */
+    void seed(long seed) {
+        random.setSeed(seed);
+    }
+
+    /**
+     * Gets the state of the discard choices, for a checkpoint.
+     *
+     * @return the random state.
+     */
+    long getRandomState() {
+        return random.getState();
+    }
+
+    /**
+     * Continues from a checkpoint, once the saved hand is dealt: restores the turn count and the discard choices,
+     * and skips the start of the game, which the log already holds.
+     * Must be called before the game starts.
+     *
+     * @param turns the turns taken before the checkpoint.
+     * @param randomState the state of the discard choices.
+     */
+    void restore(long turns, long randomState) {
+        this.turns = turns;
+        random.setState(randomState);
+        resumed = true;
+    }
+
+    /**
+     * Starts playing: logs the initial hand and declares a win if it already wins.
+     */
+    void begin() {
+        log.initialHand(hand, handSize);
+        if (metrics != null) metrics.recordDeckDepth(rightDeck.size());
+
+        // Check if the player has instantly won:
+        if (hasWinningHand()) {
+            declareWin();
+        }
+    }
+
+    /**
+     * Stops playing once the game is over: logs the winner and the final hand, unless this player won
+     * (the win is logged as it happens).
+     */
+    void finish() {
+        Integer winnerId = context.getWinnerId();
+        if (winnerId != null && winnerId == playerId) return;
+        if (winnerId != null) {
+            log.informed(winnerId, hand, handSize);
+        }
+        log.close();
+    }
+
+    /**
+     * Takes a turn while holding the locks of both decks.
+     *
+     * @return true if a turn was taken.
+     */
+    private boolean takeTurnLocked() {
         // Determine the deck to lock first to prevent deadlock.
         // Players lock their decks in ascending order by ID.
-        Object firstLock;
-        Object secondLock;
+        Lock firstLock;
+        Lock secondLock;
         if (leftDeck.getDeckId() < rightDeck.getDeckId()) {
-            firstLock = leftDeck;
-            secondLock = rightDeck;
+            firstLock = leftDeck.getLock();
+            secondLock = rightDeck.getLock();
         } else {
-            firstLock = rightDeck;
-            secondLock = leftDeck;
-        }
-        // Use synchronised decks as locks
-        synchronized (firstLock) {
-            synchronized (secondLock) {
-                // Draw a new card:
-                Card drawn = leftDeck.drawCard();
-                if (drawn == null) return;
-
-                // Add the drawn card to hand:
-                hand.add(drawn);
-                log.println("player " + playerId + " draws a " + drawn.getValue() + " from deck " + leftDeck.getDeckId());
-
-                // Choose a card to discard and discard it:
-                Card discarded = chooseDiscard();
-                hand.remove(discarded);
-
-                // Add it to the next pile:
-                rightDeck.addCard(discarded);
-                log.println("player " + playerId + " discards a " + discarded.getValue() + " to deck " + rightDeck.getDeckId());
-                log.println("player " + playerId + " current hand is " + handToString());
-
-                // Check if this player has won:
-                if (hasWinningHand()) {
-                    declareWin();
+            firstLock = rightDeck.getLock();
+            secondLock = leftDeck.getLock();
+        }
+        // Hold both deck locks for the whole turn
+        acquire(firstLock);
+        try {
+            acquire(secondLock);
+            try {
+                return takeTurn();
+            } finally {
+                secondLock.unlock();
+            }
+        } finally {
+            firstLock.unlock();
+        }
+    }
+
+    /**
+     * Locks a deck, timing the wait if metrics are enabled and a neighbour holds the lock.
+     *
+     * @param lock the deck's lock.
+     */
+    private void acquire(Lock lock) {
+        if (metrics == null) {
+            lock.lock();
+        } else if (!lock.tryLock()) {
+            long start = System.nanoTime();
+            lock.lock();
+            metrics.recordLockWait(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Takes a turn on two versioned decks without locks. Reads both versions and checks the turn can be taken;
+     * if it can't, and neither deck changed meanwhile, gives up without writing anything. Otherwise claims both
+     * decks at the versions read, which fails if a neighbour changed either one, and then retries from the start.
+     *
+     * @return true if a turn was taken.
+     */
+    private boolean takeTurnOptimistic() {
+        VersionedDeck left = (VersionedDeck) leftDeck;
+        VersionedDeck right = (VersionedDeck) rightDeck;
+        for (int conflicts = 1; ; conflicts++) {
+            int leftStamp = left.stamp();
+            int rightStamp = right.stamp();
+            if (left.size() == 0 || !right.hasSpace()) {
+                if (left.validate(leftStamp) && right.validate(rightStamp)) return false;
+            } else if (VersionedDeck.claim(left, leftStamp, right, rightStamp)) {
+                try {
+                    return takeTurn();
+                } finally {
+                    VersionedDeck.release(left, leftStamp, right, rightStamp);
                 }
             }
+            if (metrics != null) metrics.recordConflict();
+            VersionedDeck.backOff(conflicts);   // A neighbour changed a deck: read again
+        }
+    }
+
+    /**
+     * The atomic part of a turn: draws, discards and checks for a win, recording what happened.
+     * The caller must hold both deck locks, unless both decks are ring decks, or hold claims on both versioned decks.
+     * Does no formatting or I/O.
+     *
+     * @return true if a turn was taken.
+     */
+    private boolean takeTurn() {
+        // Only draw if the discard is guaranteed to fit:
+        if (!rightDeck.hasSpace()) return false;
+
+        // Draw a new card:
+        int drawn = leftDeck.drawValue();
+        if (drawn == Deck.EMPTY) return false;
+
+        // Add the drawn card to hand (into the spare slot):
+        hand[handSize++] = drawn;
+        count(drawn);
+
+        // Choose a card to discard and discard it:
+        int discarded = removeFromHand(chooseDiscard());
+
+        // Add it to the next pile:
+        rightDeck.addValue(discarded);
+        turns++;
+        if (metrics != null) metrics.recordDeckDepth(rightDeck.size());
+
+        // Record the turn, and whether this player now has a winning hand:
+        lastDrawn = drawn;
+        lastDiscarded = discarded;
+        lastTurnWon = hasWinningHand();
+        return true;
+    }
+
+    /**
+     * Waits after a turn could not be taken.
+     *
+     * @param idleTurns the number of turns in a row that could not be taken, including this one.
+     */
+    private void awaitTurn(int idleTurns) {
+        if (waitMode == WaitMode.SPIN) {
+            // Let other players run. Virtual threads are never preempted, so without this a waiting player could
+            // hold its carrier thread forever. A yielding virtual thread can be rescheduled straight back onto its
+            // carrier ahead of players not yet started, so it parks briefly instead.
+            if (Thread.currentThread().isVirtual()) LockSupport.parkNanos(IDLE_PARK_NANOS);
+            else Thread.yield();
+        } else if (idleTurns <= spinLimit) {
+            Thread.onSpinWait();    // A neighbour on another core is probably about to finish its turn
+        } else if (!rightDeck.hasSpace()) {
+            rightDeck.awaitSpace(PARK_TIMEOUT_NANOS);
+        } else {
+            leftDeck.awaitCard(PARK_TIMEOUT_NANOS);
+        }
+    }
+
+    /**
+     * Adjusts the spin limit after a wait: spinning longer pays off if the turn came while spinning,
+     * and wastes a core if the player had to park anyway.
+     *
+     * @param idleTurns the number of turns that could not be taken before this one.
+     */
+    private void adaptSpins(int idleTurns) {
+        if (idleTurns <= spinLimit) {
+            spinLimit = Math.min(MAX_SPINS, spinLimit * 2);
+        } else {
+            spinLimit = Math.max(Math.min(MAX_SPINS, 1), spinLimit / 2);
         }
     }
 
@@ -187,39 +588,37 @@ public class Player implements Runnable {
     @Override
     public void run() {
         try {
-            log.println("player " + playerId + " initial hand " + handToString());
+            if (!resumed) begin();
 
-            // Check if the player has instantly won:
-            if (hasWinningHand()) {
-                declareWin();
-                return;
-            }
-
-            // Main gameplay loop:
-            while (winnerId == null) drawAndDiscard();
+            // Main gameplay loop, left while the game is paused for a checkpoint:
+            int idleTurns = 0;
+            do {
+                while (!context.isOver()) {
+                    if (drawAndDiscard()) {
+                        if (idleTurns > 0) adaptSpins(idleTurns);
+                        idleTurns = 0;
+                    } else {
+                        awaitTurn(++idleTurns);
+                    }
+                }
+            } while (context.awaitResume());
 
             // Game over - final log:
-            log.println("player " + winnerId + " has informed player " + playerId + " that player " + winnerId + " has won");
-            log.println("player " + playerId + " exits");
-            log.println("player " + playerId + " hand: " + handToString());
-            log.close();
+            finish();
 
         } catch (Exception e) {
-            // Generically get errors
-            log.println("Error: " +  e.getMessage());
+            // Generically get errors, and end the game: it can't be won without this player
+            fail(e.getMessage());
         }
     }
 
     /**
-     * Shows the hand contents as a space-separated string.
+     * Ends the game after this player failed, and logs why.
      *
-     * @return the string form of the hand, separated by spaces.
+     * @param message the error message.
      */
-    private synchronized String handToString() {
-        StringBuilder sb = new StringBuilder();
-        for (Card c : hand) {
-            sb.append(c.getValue()).append(" ");
-        }
-        return sb.toString().trim();
+    void fail(String message) {
+        context.stop();
+        log.error(message);
     }
 }
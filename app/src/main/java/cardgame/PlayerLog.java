@@ -0,0 +1,90 @@
+// PlayerLog.java
+
+package cardgame;
+
+/**
+ * Where a player records what happens to it during a game.
+ *
+ * Each method is one event in the player's output file. Hands are passed as the player's own array and size,
+ * so implementations must copy them if they keep them after returning.
+ */
+public interface PlayerLog {
+
+    /**
+     * A log that discards everything, for silent games such as simulations.
+     */
+    PlayerLog NONE = new PlayerLog() {
+        @Override
+        public void initialHand(int[] hand, int size) {
+        }
+
+        @Override
+        public void turn(int drawn, int fromDeck, int discarded, int toDeck, int[] hand, int size) {
+        }
+
+        @Override
+        public void won(int[] hand, int size) {
+        }
+
+        @Override
+        public void informed(int winnerId, int[] hand, int size) {
+        }
+
+        @Override
+        public void error(String message) {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    /**
+     * The hand the player was dealt.
+     *
+     * @param hand the card values.
+     * @param size the number of cards in the hand.
+     */
+    void initialHand(int[] hand, int size);
+
+    /**
+     * One completed turn: a draw, a discard and the resulting hand.
+     *
+     * @param drawn the value drawn.
+     * @param fromDeck the ID of the deck drawn from.
+     * @param discarded the value discarded.
+     * @param toDeck the ID of the deck discarded to.
+     * @param hand the card values after the discard.
+     * @param size the number of cards in the hand.
+     */
+    void turn(int drawn, int fromDeck, int discarded, int toDeck, int[] hand, int size);
+
+    /**
+     * The player has won, and exits with its final hand.
+     *
+     * @param hand the winning card values.
+     * @param size the number of cards in the hand.
+     */
+    void won(int[] hand, int size);
+
+    /**
+     * Another player has won, and this player exits with its hand.
+     *
+     * @param winnerId the ID of the winning player.
+     * @param hand the card values.
+     * @param size the number of cards in the hand.
+     */
+    void informed(int winnerId, int[] hand, int size);
+
+    /**
+     * The player stopped because of an unexpected error.
+     *
+     * @param message the error message.
+     */
+    void error(String message);
+
+    /**
+     * Ends the log. Nothing more is recorded.
+     */
+    void close();
+}
@@ -0,0 +1,47 @@
+// PlayerLogFactory.java
+
+package cardgame;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Opens the log of each player as it joins a game.
+ */
+@FunctionalInterface
+public interface PlayerLogFactory {
+
+    /**
+     * Silent games: every player gets {@link PlayerLog#NONE}.
+     */
+    PlayerLogFactory NONE = playerId -> PlayerLog.NONE;
+
+    /**
+     * Opens the log for a player.
+     *
+     * @param playerId the player's ID.
+     * @return the player's log.
+     * @throws IOException if the log can't be created.
+     */
+    PlayerLog open(int playerId) throws IOException;
+
+    /**
+     * Each player writes its own {@code playerN_output.txt} file, flushed after every event.
+     *
+     * @param outDir the output directory, created if not present.
+     * @return the factory.
+     */
+    static PlayerLogFactory files(File outDir) {
+        return to(OutputSink.directory(outDir));
+    }
+
+    /**
+     * Each player writes its own {@code playerN_output.txt} stream of an output sink, flushed after every event.
+     *
+     * @param sink the output sink.
+     * @return the factory.
+     */
+    static PlayerLogFactory to(OutputSink sink) {
+        return playerId -> TextPlayerLog.open(sink, playerId);
+    }
+}
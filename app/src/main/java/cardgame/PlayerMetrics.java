@@ -0,0 +1,113 @@
+// PlayerMetrics.java
+
+package cardgame;
+
+/**
+ * What one player measured about its own turns, when metrics are enabled.
+ *
+ * Written only by the player's own thread (or the engine thread playing it), and read once the game is over.
+ */
+public final class PlayerMetrics {
+
+    private final LatencyHistogram turnLatency = new LatencyHistogram();
+    private long failedTurns = 0;
+    private long lockWaits = 0;
+    private long lockWaitNanos = 0;
+    private long conflicts = 0;
+    private int deckHighWater = 0;
+
+    /**
+     * Records a turn attempt.
+     *
+     * @param nanos how long the attempt took, including the log, if a turn was taken.
+     * @param taken true if a turn was taken, false if the left deck was empty or the right deck full.
+     */
+    void recordTurn(long nanos, boolean taken) {
+        if (taken) {
+            turnLatency.record(nanos);
+        } else {
+            failedTurns++;
+        }
+    }
+
+    /**
+     * Records time spent waiting for a deck lock held by a neighbour.
+     *
+     * @param nanos the time waited.
+     */
+    void recordLockWait(long nanos) {
+        lockWaits++;
+        lockWaitNanos += nanos;
+    }
+
+    /**
+     * Records an optimistic turn that had to be retried because a neighbour changed a deck.
+     */
+    void recordConflict() {
+        conflicts++;
+    }
+
+    /**
+     * Records the size of the right deck after discarding to it. This player is the deck's only discarder, so the
+     * largest size seen is the deck's high-water mark.
+     *
+     * @param size the number of cards in the deck.
+     */
+    void recordDeckDepth(int size) {
+        if (size > deckHighWater) deckHighWater = size;
+    }
+
+    /**
+     * Gets the latencies of the turns taken, from the start of the draw to the end of the log.
+     *
+     * @return the histogram, in nanoseconds.
+     */
+    public LatencyHistogram getTurnLatency() {
+        return turnLatency;
+    }
+
+    /**
+     * Gets the number of turn attempts that found the left deck empty or the right deck full.
+     *
+     * @return the number of failed attempts.
+     */
+    public long getFailedTurns() {
+        return failedTurns;
+    }
+
+    /**
+     * Gets the number of times a deck lock was already held by a neighbour.
+     *
+     * @return the number of contended lock acquisitions.
+     */
+    public long getLockWaits() {
+        return lockWaits;
+    }
+
+    /**
+     * Gets the total time spent waiting for deck locks held by neighbours.
+     *
+     * @return the time in nanoseconds.
+     */
+    public long getLockWaitNanos() {
+        return lockWaitNanos;
+    }
+
+    /**
+     * Gets the number of optimistic turns retried because a neighbour changed a deck.
+     *
+     * @return the number of conflicts.
+     */
+    public long getConflicts() {
+        return conflicts;
+    }
+
+    /**
+     * Gets the most cards the player's right deck held after the deal or a discard.
+     *
+     * @return the deck's high-water mark.
+     */
+    public int getDeckHighWater() {
+        return deckHighWater;
+    }
+}
@@ -0,0 +1,73 @@
+// PlayerRandom.java
+
+package cardgame;
+
+import java.util.Random;
+
+/**
+ * A player's source of discard choices: exactly the numbers of {@link java.util.Random} with the same seed, from
+ * a state that can be read and restored, so a checkpoint can save it.
+ *
+ * {@code Random} keeps its state private, but generates every value from {@link #next(int)}, so this class
+ * runs the same linear congruential generator on a field of its own. It belongs to one player's thread, so
+ * the state is a plain {@code long} rather than an atomic one.
+ */
+final class PlayerRandom extends Random {
+
+    private static final long serialVersionUID = 1L;
+
+    // java.util.Random's linear congruential generator:
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+    private static final long ADDEND = 0xBL;
+    private static final long MASK = (1L << 48) - 1;
+
+    private long state;     // No initialiser: Random's constructor sets it through setSeed
+
+    /**
+     * Constructs a generator with a random seed, like {@code new Random()}.
+     */
+    PlayerRandom() {
+        super();
+    }
+
+    /**
+     * Sets the seed, scrambled as {@link Random#setSeed(long)} does.
+     *
+     * @param seed the seed.
+     */
+    @Override
+    public void setSeed(long seed) {
+        super.setSeed(seed);    // Clears the saved Gaussian
+        state = (seed ^ MULTIPLIER) & MASK;
+    }
+
+    /**
+     * Advances the state, as {@link Random#next(int)} does.
+     *
+     * @param bits the number of random bits, 1 to 32.
+     * @return the bits.
+     */
+    @Override
+    protected int next(int bits) {
+        state = (state * MULTIPLIER + ADDEND) & MASK;
+        return (int) (state >>> (48 - bits));
+    }
+
+    /**
+     * Gets the generator's state, which decides every later value.
+     *
+     * @return the 48-bit state.
+     */
+    long getState() {
+        return state;
+    }
+
+    /**
+     * Restores a state saved by {@link #getState()}.
+     *
+     * @param state the 48-bit state.
+     */
+    void setState(long state) {
+        this.state = state & MASK;
+    }
+}
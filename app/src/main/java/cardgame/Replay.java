@@ -0,0 +1,632 @@
+// Replay.java
+
+package cardgame;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Replays a game from its {@link EventLog} event file and its pack, rebuilding every {@link Deck} and hand
+ * turn by turn and checking each record against the state so far.
+ *
+ * Records are applied in file order, except that a turn whose card hasn't been discarded yet waits, with the
+ * rest of its player's records, until it has. Each deck has one player adding to it and one drawing from it,
+ * in order, so this always reaches the decks the game did. Turn N is the state after N turns applied this way.
+ *
+ * Seeking from the start costs one step per turn. {@link #writeSnapshots} saves the whole state every so many
+ * turns to a snapshot file; with one, a seek restores the nearest snapshot before the turn and replays at most
+ * that many turns from there.
+ *
+ * Run with {@code java -cp app.jar cardgame.Replay <event file> <pack file> verify|seek|snapshot ...}.
+ */
+public final class Replay implements Closeable {
+
+    /**
+     * Default number of turns between snapshots.
+     */
+    public static final long DEFAULT_INTERVAL = 100_000;
+
+    private static final int SNAPSHOT_MAGIC = ('C' << 24) | ('G' << 16) | ('S' << 8) | 'N';
+    private static final byte SNAPSHOT_VERSION = 1;
+    private static final String USAGE = "Usage: cardgame.Replay <event file> <pack file> verify <output directory or archive>"
+            + " | seek <turn> [snapshot file] | snapshot <snapshot file> [interval]";
+
+    private final EventReader reader;
+    private final int n;
+    private final int[] pack;
+    private final long eventsLength;        // Ties a snapshot file to its event file
+
+    private Deck[] decks;                   // Deck d at index d - 1
+    private int[][] hands;                  // Player p's hand at index p - 1
+    private final List<ArrayDeque<LogRecord>> waiting = new ArrayList<>();    // Records waiting for a card
+    private final ArrayDeque<Integer> ready = new ArrayDeque<>();    // Players whose waiting turn may now apply
+    private long turn;
+    private int winnerId;
+
+    private File snapshots = null;
+    private long[] snapshotTurns = new long[0];     // In turn order
+    private long[] snapshotOffsets = new long[0];
+
+    /**
+     * Opens a game's event file, and deals its pack as the game did.
+     *
+     * @param events the event file, written with {@link LogMode#BINARY}.
+     * @param pack the pack file the game was played with, text or binary.
+     * @throws IOException if either file can't be read, or they don't belong together.
+     */
+    public Replay(File events, File pack) throws IOException {
+        reader = new EventReader(events);
+        try {
+            n = reader.getMaxPlayerId();
+            if (n <= 0) throw new IOException("Event file incomplete: the game didn't finish writing it");
+            long cards = 8L * n;
+            int[] values = cards > Integer.MAX_VALUE ? null
+                    : BinaryPack.isBinary(pack) ? BinaryPack.load(pack, (int) cards) : PackLoader.load(pack, cards);
+            if (values == null) throw new IOException("Invalid pack file for " + n + " players");
+            this.pack = values;
+            this.eventsLength = events.length();
+            for (int p = 0; p < n; p++) {
+                waiting.add(new ArrayDeque<>());
+            }
+            reset();
+        } catch (IOException | RuntimeException e) {
+            reader.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens a game's event file and pack, with a snapshot file to seek from.
+     *
+     * @param events the event file.
+     * @param pack the pack file the game was played with.
+     * @param snapshots a snapshot file written by {@link #writeSnapshots} for this event file.
+     * @throws IOException if a file can't be read, or they don't belong together.
+     */
+    public Replay(File events, File pack, File snapshots) throws IOException {
+        this(events, pack);
+        try {
+            useSnapshots(snapshots);
+        } catch (IOException e) {
+            reader.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Verifies a game's deck files, seeks to a turn, or writes snapshots.
+     *
+     * @param args the event file, the pack file, and the command.
+     */
+    public static void main(String[] args) {
+        if (args.length < 4) {
+            System.out.println(USAGE);
+            return;
+        }
+        File events = new File(args[0]);
+        File pack = new File(args[1]);
+        try {
+            switch (args[2]) {
+                case "verify" -> {
+                    try (Replay replay = new Replay(events, pack)) {
+                        List<String> wrong = replay.verifyDecks(new File(args[3]));
+                        System.out.println("Replayed " + replay.getTurn() + " turns.");
+                        System.out.println(wrong.isEmpty() ? "All " + replay.getNumPlayers() + " deck files match."
+                                : "Deck files that don't match: " + String.join(", ", wrong));
+                    }
+                }
+                case "seek" -> {
+                    long target = Long.parseLong(args[3]);
+                    try (Replay replay = args.length > 4 ? new Replay(events, pack, new File(args[4]))
+                            : new Replay(events, pack)) {
+                        System.out.println("Turn " + replay.seek(target));
+                        for (int id = 1; id <= replay.getNumPlayers(); id++) {
+                            System.out.println("player " + id + " hand: " + handAsString(replay.getHand(id))
+                                    + ", deck" + id + " contents: " + replay.deckContents(id));
+                        }
+                    }
+                }
+                case "snapshot" -> {
+                    long interval = args.length > 4 ? Long.parseLong(args[4]) : DEFAULT_INTERVAL;
+                    try (Replay replay = new Replay(events, pack)) {
+                        long turns = replay.writeSnapshots(new File(args[3]), interval);
+                        System.out.println("Wrote " + turns / interval + " snapshots of " + turns + " turns to " + args[3] + ".");
+                    }
+                }
+                default -> System.out.println(USAGE);
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid number: " + e.getMessage());
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            System.out.println(e.getMessage());
+        } catch (IOException e) {
+            System.out.println("Error replaying game: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Gets the number of turns applied so far.
+     *
+     * @return the current turn.
+     */
+    public long getTurn() {
+        return turn;
+    }
+
+    /**
+     * Gets the number of players in the game.
+     *
+     * @return the number of players, and of decks.
+     */
+    public int getNumPlayers() {
+        return n;
+    }
+
+    /**
+     * Gets the winner, once the replay has reached the win.
+     *
+     * @return the winner's ID, or null if no one has won yet.
+     */
+    public Integer getWinnerId() {
+        return winnerId == 0 ? null : winnerId;
+    }
+
+    /**
+     * Gets a player's hand at the current turn.
+     *
+     * @param playerId the player's ID.
+     * @return a copy of the hand, in hand order.
+     */
+    public int[] getHand(int playerId) {
+        return hands[playerId - 1].clone();
+    }
+
+    /**
+     * Shows a deck's contents at the current turn.
+     *
+     * @param deckId the deck's ID.
+     * @return the cards from top to bottom, space separated.
+     */
+    public String deckContents(int deckId) {
+        return decks[deckId - 1].contentsAsString();
+    }
+
+    /**
+     * Applies records up to and including the next turn.
+     *
+     * @return false if the event file holds no more turns.
+     * @throws IOException if the event file can't be read.
+     * @throws IllegalStateException if a record doesn't follow from the state so far.
+     */
+    public boolean step() throws IOException {
+        while (true) {
+            // Players given a card by an earlier turn go first, in the order they were given it:
+            while (!ready.isEmpty()) {
+                ArrayDeque<LogRecord> queue = waiting.get(ready.peek() - 1);
+                LogRecord r = queue.peek();
+                if (r == null || !apply(r)) {
+                    ready.poll();
+                    continue;
+                }
+                queue.poll();
+                if (r.kind == LogRecord.TURN) return true;
+            }
+
+            LogRecord r = reader.next();
+            if (r == null) {
+                for (int p = 1; p <= n; p++) {
+                    if (!waiting.get(p - 1).isEmpty()) {
+                        throw new IllegalStateException("Player " + p + " draws a card never discarded to deck " + p);
+                    }
+                }
+                return false;
+            }
+            if (r.playerId < 1 || r.playerId > n) throw new IllegalStateException("No such player: " + r.playerId);
+            ArrayDeque<LogRecord> queue = waiting.get(r.playerId - 1);
+            if (!queue.isEmpty() || !apply(r)) {
+                queue.add(r);
+                continue;
+            }
+            if (r.kind == LogRecord.TURN) return true;
+        }
+    }
+
+    /**
+     * Moves to a turn, from the nearest snapshot before it if there is one, or else from the current turn or
+     * the start.
+     *
+     * @param target the number of turns to have applied.
+     * @return the turn reached: the target, or the last turn if the game was shorter.
+     * @throws IOException if the event or snapshot file can't be read.
+     * @throws IllegalStateException if a record doesn't follow from the state so far.
+     */
+    public long seek(long target) throws IOException {
+        int i = Arrays.binarySearch(snapshotTurns, target);
+        if (i < 0) i = -i - 2;      // The last snapshot before the target
+        if (i >= 0 && (snapshotTurns[i] > turn || target < turn)) {
+            restore(snapshotOffsets[i]);
+        } else if (target < turn) {
+            reset();
+        }
+        while (turn < target && step()) {
+            // Apply turns up to the target
+        }
+        return turn;
+    }
+
+    /**
+     * Replays the whole game, checks it ended, and compares each deck with its final output file.
+     *
+     * @param output the game's output directory, or its output archive.
+     * @return the names of the deck files that are missing or don't match; empty if all match.
+     * @throws IOException if a file can't be read.
+     * @throws IllegalStateException if a record doesn't follow from the state so far, or no one won.
+     */
+    public List<String> verifyDecks(File output) throws IOException {
+        seek(Long.MAX_VALUE);
+        if (winnerId == 0) throw new IllegalStateException("The game ended without a winner");
+
+        List<String> wrong = new ArrayList<>();
+        try (OutputArchive archive = output.isFile() ? new OutputArchive(output) : null) {
+            for (int id = 1; id <= n; id++) {
+                String name = OutputSink.deckStream(id);
+                File file = new File(output, name);
+                byte[] actual = archive != null ? archive.read(name)
+                        : file.exists() ? Files.readAllBytes(file.toPath()) : null;
+                String expected = CardGame.deckOutput(id, decks[id - 1].contentsAsString());
+                if (actual == null || !expected.equals(new String(actual, StandardCharsets.UTF_8))) {
+                    wrong.add(name);
+                }
+            }
+        }
+        return wrong;
+    }
+
+    /**
+     * Replays the game from the start, saving the state every so many turns, then seeks with the snapshots.
+     *
+     * @param file the snapshot file, replaced if present.
+     * @param interval the number of turns between snapshots.
+     * @return the number of turns in the game.
+     * @throws IOException if the event file can't be read or the snapshot file can't be written.
+     * @throws IllegalStateException if a record doesn't follow from the state so far.
+     */
+    public long writeSnapshots(File file, long interval) throws IOException {
+        if (interval <= 0) throw new IllegalArgumentException("Snapshot interval must be positive: " + interval);
+        reset();
+        List<long[]> index = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeByte(SNAPSHOT_VERSION);
+            out.writeByte(0);
+            out.writeShort(0);
+            out.writeInt(n);
+            out.writeLong(eventsLength);
+            while (step()) {
+                if (turn % interval != 0) continue;
+                out.flush();
+                index.add(new long[] {turn, channel.position()});
+                writeState(out);
+            }
+
+            // Index, then the trailer that points to it:
+            out.flush();
+            long indexOffset = channel.position();
+            out.writeInt(index.size());
+            for (long[] entry : index) {
+                out.writeLong(entry[0]);
+                out.writeLong(entry[1]);
+            }
+            out.writeLong(indexOffset);
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.flush();
+        }
+        useSnapshots(file);
+        return turn;
+    }
+
+    /**
+     * Closes the event file.
+     *
+     * @throws IOException if the file can't be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Applies one record, if it can be applied yet.
+     *
+     * @param r the record.
+     * @return false if it is a turn that draws a card not yet discarded.
+     * @throws IllegalStateException if the record doesn't follow from the state so far.
+     */
+    private boolean apply(LogRecord r) {
+        int p = r.playerId;
+        int[] hand = hands[p - 1];
+        switch (r.kind) {
+            case LogRecord.TURN -> {
+                if (r.b != p || r.d != p % n + 1) {
+                    throw mismatch("player " + p + " draws from deck " + r.b + " and discards to deck " + r.d);
+                }
+                Deck from = decks[r.b - 1];
+                if (from.size() == 0) return false;
+                int drawn = from.drawValue();
+                if (drawn != r.a) {
+                    throw mismatch("player " + p + " draws a " + r.a + " but deck " + r.b + " holds a " + drawn);
+                }
+                if (!followsFrom(hand, r.a, r.c, r.hand)) {
+                    throw mismatch("player " + p + " can't go from " + handAsString(hand) + " to "
+                            + handAsString(r.hand) + " drawing a " + r.a + " and discarding a " + r.c);
+                }
+                decks[r.d - 1].addValue(r.c);
+                hands[p - 1] = r.hand;
+                turn++;
+                if (!waiting.get(r.d - 1).isEmpty()) ready.add(r.d);   // The player drawing from deck d
+            }
+            case LogRecord.INITIAL_HAND, LogRecord.INFORMED -> {
+                if (!Arrays.equals(hand, r.hand)) {
+                    throw mismatch("player " + p + " holds " + handAsString(hand) + ", not " + handAsString(r.hand));
+                }
+            }
+            case LogRecord.WON -> {
+                if (!Arrays.equals(hand, r.hand) || Arrays.stream(hand).distinct().count() != 1) {
+                    throw mismatch("player " + p + " wins with " + handAsString(hand));
+                }
+                winnerId = p;
+            }
+            default -> { }  // Errors don't change the state
+        }
+        return true;
+    }
+
+    /**
+     * Checks that a hand follows from the one before by a turn: the discarded card taken out, the rest kept in
+     * order and the drawn card added last, or the drawn card discarded straight away.
+     *
+     * @param before the hand before the turn.
+     * @param drawn the value drawn.
+     * @param discarded the value discarded.
+     * @param after the hand after the turn.
+     * @return true if the turn could lead from one to the other.
+     */
+    private static boolean followsFrom(int[] before, int drawn, int discarded, int[] after) {
+        if (after.length != before.length) return false;
+        if (drawn == discarded && Arrays.equals(before, after)) return true;
+        if (after.length == 0 || after[after.length - 1] != drawn) return false;
+        for (int skip = 0; skip < before.length; skip++) {
+            if (before[skip] != discarded) continue;
+            boolean match = true;
+            for (int i = 0, j = 0; i < before.length && match; i++) {
+                if (i != skip) match = before[i] == after[j++];
+            }
+            if (match) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Builds the error for a record that doesn't follow from the state so far.
+     *
+     * @param problem what doesn't follow.
+     * @return the exception to throw.
+     */
+    private IllegalStateException mismatch(String problem) {
+        return new IllegalStateException("Event file doesn't match the game at turn " + turn + ": " + problem);
+    }
+
+    /**
+     * Shows a hand as space-separated values.
+     *
+     * @param hand the card values.
+     * @return the values.
+     */
+    private static String handAsString(int[] hand) {
+        StringBuilder sb = new StringBuilder();
+        for (int v : hand) {
+            if (sb.length() > 0) sb.append(' ');
+            sb.append(v);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Goes back to the deal, before the first record.
+     *
+     * @throws IOException if the event file can't be read.
+     */
+    private void reset() throws IOException {
+        // Deal as the game does: 4 cards to each player in turn, then the rest to each deck in turn:
+        newState();
+        for (int p = 0; p < n; p++) {
+            hands[p] = new int[4];
+        }
+        int index = 0;
+        for (int i = 0; i < 4 * n; i++) {
+            hands[i % n][i / n] = pack[index++];
+        }
+        for (int i = 0; i < 4 * n; i++) {
+            decks[i % n].addValue(pack[index++]);
+        }
+        turn = 0;
+        winnerId = 0;
+        reader.seek(EventLog.HEADER);
+    }
+
+    /**
+     * Replaces the decks, hands and waiting records with empty ones.
+     */
+    private void newState() {
+        GameContext context = new GameContext();    // Numbers the new decks from 1
+        decks = new Deck[n];
+        hands = new int[n][];
+        for (int d = 0; d < n; d++) {
+            decks[d] = new Deck(context);
+        }
+        for (ArrayDeque<LogRecord> queue : waiting) {
+            queue.clear();
+        }
+        ready.clear();
+    }
+
+    /**
+     * Writes the whole replay state: the turn, the event file position, the winner, every hand and deck, and
+     * the records read but not yet applied.
+     *
+     * @param out where to write it.
+     * @throws IOException if it can't be written.
+     */
+    private void writeState(DataOutputStream out) throws IOException {
+        out.writeLong(turn);
+        out.writeLong(reader.position());
+        out.writeInt(winnerId);
+        for (int[] hand : hands) {
+            writeValues(out, hand);
+        }
+        for (Deck deck : decks) {
+            writeValues(out, deck.values());
+        }
+        for (ArrayDeque<LogRecord> queue : waiting) {
+            out.writeInt(queue.size());
+            for (LogRecord r : queue) {
+                out.writeByte(r.kind);
+                out.writeInt(r.playerId);
+                out.writeInt(r.a);
+                out.writeInt(r.b);
+                out.writeInt(r.c);
+                out.writeInt(r.d);
+                writeValues(out, r.hand != null ? r.hand : new int[0]);
+                out.writeUTF(r.message != null ? r.message : "");
+            }
+        }
+        out.writeInt(ready.size());
+        for (int p : ready) {
+            out.writeInt(p);
+        }
+    }
+
+    /**
+     * Restores the state saved at a position in the snapshot file.
+     *
+     * @param offset the snapshot's position.
+     * @throws IOException if the snapshot can't be read.
+     */
+    private void restore(long offset) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshots.toPath(), StandardOpenOption.READ)) {
+            channel.position(offset);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 1 << 16));
+            newState();
+            turn = in.readLong();
+            reader.seek(in.readLong());
+            winnerId = in.readInt();
+            for (int p = 0; p < n; p++) {
+                hands[p] = readValues(in);
+            }
+            for (Deck deck : decks) {
+                for (int v : readValues(in)) {
+                    deck.addValue(v);
+                }
+            }
+            for (ArrayDeque<LogRecord> queue : waiting) {
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    int kind = in.readByte();
+                    int playerId = in.readInt();
+                    int a = in.readInt();
+                    int b = in.readInt();
+                    int c = in.readInt();
+                    int d = in.readInt();
+                    int[] hand = readValues(in);
+                    String message = in.readUTF();
+                    queue.add(new LogRecord(kind, playerId, null, a, b, c, d,
+                            kind == LogRecord.ERROR ? null : hand, kind == LogRecord.ERROR ? message : null));
+                }
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                ready.add(in.readInt());
+            }
+        }
+    }
+
+    /**
+     * Reads a snapshot file's index, after checking it was written for this event file.
+     *
+     * @param file the snapshot file.
+     * @throws IOException if it can't be read, or belongs to another event file.
+     */
+    private void useSnapshots(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            if (in.readInt() != SNAPSHOT_MAGIC) throw new IOException("Not a snapshot file");
+            if (in.readByte() != SNAPSHOT_VERSION) throw new IOException("Unsupported snapshot file version");
+            in.skipBytes(3);
+            if (in.readInt() != n || in.readLong() != eventsLength) {
+                throw new IOException("Snapshot file belongs to another event file");
+            }
+
+            channel.position(channel.size() - 12);
+            in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            long indexOffset = in.readLong();
+            if (in.readInt() != SNAPSHOT_MAGIC) throw new IOException("Snapshot file has no index");
+            channel.position(indexOffset);
+            in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            int count = in.readInt();
+            long[] turns = new long[count];
+            long[] offsets = new long[count];
+            for (int i = 0; i < count; i++) {
+                turns[i] = in.readLong();
+                offsets[i] = in.readLong();
+            }
+            snapshots = file;
+            snapshotTurns = turns;
+            snapshotOffsets = offsets;
+        }
+    }
+
+    /**
+     * Writes an array of values with its length.
+     *
+     * @param out where to write them.
+     * @param values the values.
+     * @throws IOException if they can't be written.
+     */
+    private static void writeValues(DataOutputStream out, int[] values) throws IOException {
+        out.writeInt(values.length);
+        for (int v : values) {
+            out.writeInt(v);
+        }
+    }
+
+    /**
+     * Reads an array of values written by {@link #writeValues}.
+     *
+     * @param in where to read them from.
+     * @return the values.
+     * @throws IOException if they can't be read.
+     */
+    private static int[] readValues(DataInputStream in) throws IOException {
+        int[] values = new int[in.readInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readInt();
+        }
+        return values;
+    }
+}
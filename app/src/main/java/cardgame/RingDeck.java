@@ -0,0 +1,178 @@
+// RingDeck.java
+
+package cardgame;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Lock-free, bounded FIFO deck for exactly one writer and one reader.
+ *
+ * In the ring of players each deck is discarded to only by the player on its left and drawn from only by the
+ * player on its right, so the two ends never need a shared lock. Cards are kept in a power-of-two array and the
+ * head (read) and tail (write) indices are read with acquire ordering and published with volatile stores, so no
+ * object is allocated per card. The volatile store orders each publish before the check for a parked player to wake.
+ */
+public class RingDeck extends Deck {
+
+    /**
+     * Largest ring used by {@link #capacityFor(int)}; a deck rarely holds more than a few cards.
+     */
+    private static final int MAX_DEFAULT_CAPACITY = 256;
+
+    // The head and tail live in one array, 128 bytes apart, so the reader and the writer never share a cache line.
+    private static final VarHandle INDEX = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final int HEAD = 15;
+    private static final int TAIL = 31;
+
+    private final long[] indices = new long[TAIL + 16];
+    private final int[] cards;
+    private final int mask;
+
+    /**
+     * Constructs an empty ring deck with an ID (automatically incremented).
+     *
+     * @param capacity the maximum number of cards, a positive power of two.
+     * @throws IllegalArgumentException if capacity is not a positive power of two.
+     */
+    public RingDeck(int capacity) throws IllegalArgumentException {
+        this(GameContext.shared(), capacity);
+    }
+
+    /**
+     * Constructs an empty ring deck with the next deck ID of a game.
+     *
+     * @param context the game the deck belongs to.
+     * @param capacity the maximum number of cards, a positive power of two.
+     * @throws IllegalArgumentException if capacity is not a positive power of two.
+     */
+    public RingDeck(GameContext context, int capacity) throws IllegalArgumentException {
+        super(context);
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring deck capacity must be a positive power of two.");
+        }
+        this.cards = new int[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Chooses a ring capacity for a game.
+     * The decks hold 4 cards per player between them, so any capacity above 4 leaves at least one player able to
+     * discard, and the game can always progress.
+     *
+     * @param numPlayers the number of players in the game.
+     * @return a power of two between 8 and 256.
+     */
+    public static int capacityFor(int numPlayers) {
+        int wanted = Math.min(4 * numPlayers, MAX_DEFAULT_CAPACITY);
+        return Math.max(8, Integer.highestOneBit(wanted - 1) << 1);
+    }
+
+    /**
+     * Gets the maximum number of cards the deck can hold.
+     *
+     * @return the capacity.
+     */
+    public int capacity() {
+        return cards.length;
+    }
+
+    /**
+     * Adds a card, given by its value, to the bottom of the deck. Must only be called by the deck's writer.
+     *
+     * @param value the non-negative card value.
+     * @throws IllegalArgumentException if value is negative.
+     * @throws IllegalStateException if the deck is full.
+     */
+    @Override
+    public void addValue(int value) throws IllegalArgumentException, IllegalStateException {
+        if (value < 0) {
+            throw new IllegalArgumentException("Card value must be non-negative.");
+        }
+        long tail = (long) INDEX.getOpaque(indices, TAIL);  // Only this thread writes the tail
+        long head = (long) INDEX.getAcquire(indices, HEAD);
+        if (tail - head == cards.length) {
+            throw new IllegalStateException("Deck " + getDeckId() + " is full.");
+        }
+        cards[(int) tail & mask] = value;
+        INDEX.setVolatile(indices, TAIL, tail + 1);    // Publish the card, ordered before the waiter check
+        wakeDrawer();
+    }
+
+    /**
+     * Draws (removes) the top card of the deck and returns its value. Must only be called by the deck's reader.
+     *
+     * @return the card value, or {@link #EMPTY} if the deck is empty.
+     */
+    @Override
+    public int drawValue() {
+        long head = (long) INDEX.getOpaque(indices, HEAD);  // Only this thread writes the head
+        long tail = (long) INDEX.getAcquire(indices, TAIL);
+        if (head == tail) return EMPTY;
+
+        int value = cards[(int) head & mask];
+        INDEX.setVolatile(indices, HEAD, head + 1);    // Hand the slot back, ordered before the waiter check
+        wakeAdder();
+        return value;
+    }
+
+    /**
+     * Checks whether the writer can add a card without the deck overflowing.
+     * Only the reader frees space, so once true it stays true for the writer until it adds a card.
+     *
+     * @return true if the deck is not full.
+     */
+    @Override
+    public boolean hasSpace() {
+        long tail = (long) INDEX.getOpaque(indices, TAIL);
+        long head = (long) INDEX.getAcquire(indices, HEAD);
+        return tail - head < cards.length;
+    }
+
+    /**
+     * Get the number of cards in the deck.
+     * Exact when neither end is moving, otherwise a recent value.
+     *
+     * @return the size of the deck.
+     */
+    @Override
+    public int size() {
+        long head = (long) INDEX.getAcquire(indices, HEAD);
+        long tail = (long) INDEX.getAcquire(indices, TAIL);
+        return (int) (tail - head);
+    }
+
+    /**
+     * Shows the deck's contents as a space-separated string.
+     * Only consistent once the players have stopped, e.g. when writing the final deck files.
+     *
+     * @return the string form of the deck, separated by spaces.
+     */
+    @Override
+    public String contentsAsString() {
+        long head = (long) INDEX.getAcquire(indices, HEAD);
+        long tail = (long) INDEX.getAcquire(indices, TAIL);
+        StringBuilder sb = new StringBuilder();
+        for (long i = head; i < tail; i++) {
+            sb.append(cards[(int) i & mask]).append(" ");
+        }
+        return sb.toString().trim();
+    }
+
+    /**
+     * Copies the deck's cards.
+     * Only consistent once the players have stopped, e.g. for a checkpoint.
+     *
+     * @return the card values from top to bottom.
+     */
+    @Override
+    public int[] values() {
+        long head = (long) INDEX.getAcquire(indices, HEAD);
+        long tail = (long) INDEX.getAcquire(indices, TAIL);
+        int[] values = new int[(int) (tail - head)];
+        for (long i = head; i < tail; i++) {
+            values[(int) (i - head)] = cards[(int) i & mask];
+        }
+        return values;
+    }
+}
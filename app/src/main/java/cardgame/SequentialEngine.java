@@ -0,0 +1,84 @@
+// SequentialEngine.java
+
+package cardgame;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Plays a dealt game on the calling thread: one turn at a time, in an explicit, seeded order.
+ *
+ * Only one thread ever touches the decks and players, so no thread is started or parked, and the same seed
+ * always gives the same turns, winner, logs and final decks. A turn doesn't lock its two decks together, but
+ * linked decks still take their own lock for each draw and discard, and a player its monitor while it
+ * chooses a card: locks that are never contended, so cheap, though not free. Ring decks take none.
+ */
+final class SequentialEngine {
+
+    private SequentialEngine() {
+    }
+
+    /**
+     * Plays until a player wins.
+     *
+     * @param players the dealt players, in ID order.
+     * @param context the game the players belong to.
+     * @param order the order of turns.
+     * @param seed seeds the turn order and every player's discard choices.
+     * @throws IllegalStateException if no player can take a turn, which the deck sizes rule out.
+     */
+    static void run(List<Player> players, GameContext context, TurnOrder order, long seed) {
+        int n = players.size();
+        Random scheduler = new Random(seed);
+        for (Player p : players) {
+            p.seed(playerSeed(seed, p.getPlayerId()));
+        }
+
+        // Log the initial hands; the lowest ID with a winning hand wins at once:
+        for (Player p : players) {
+            p.begin();
+        }
+
+        int next = 0;
+        int idleTurns = 0;
+        while (!context.isOver()) {
+            Player p = players.get(order == TurnOrder.ROUND_ROBIN ? next : scheduler.nextInt(n));
+            next = next + 1 == n ? 0 : next + 1;
+
+            if (p.playTurn()) {
+                idleTurns = 0;
+            } else if (++idleTurns % n == 0 && !anyCanTakeTurn(players)) {
+                throw new IllegalStateException("No player can take a turn.");
+            }
+        }
+
+        // Game over - final logs:
+        for (Player p : players) {
+            p.finish();
+        }
+    }
+
+    /**
+     * Derives a player's seed from the game's seed.
+     *
+     * @param seed the game's seed.
+     * @param playerId the player ID.
+     * @return the seed for that player's discard choices.
+     */
+    static long playerSeed(long seed, int playerId) {
+        return seed ^ (playerId * 0x9E3779B97F4A7C15L);     // Spread the seed across players
+    }
+
+    /**
+     * Checks whether any player could take a turn.
+     *
+     * @param players the players.
+     * @return true if some player's left deck holds a card and its right deck has space.
+     */
+    private static boolean anyCanTakeTurn(List<Player> players) {
+        for (Player p : players) {
+            if (p.canTakeTurn()) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,146 @@
+// ShardedEngine.java
+
+package cardgame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plays a dealt game with the ring split into contiguous segments of players, one worker per segment.
+ *
+ * Only neighbouring players share a deck, so every deck inside a segment is drawn from and discarded to by the
+ * same worker and needs no synchronisation at all ({@link LocalDeck}). The first deck of each segment is the only
+ * one touched by two workers: the last player of the previous segment discards to it, and it is a lock-free
+ * {@link RingDeck}. A turn therefore never takes a lock, and workers only interact at the segment boundaries.
+ *
+ * A worker plays its players in turn, round and round. When a whole pass takes no turn, the segment is waiting
+ * for a card from the previous segment or for space in the next one, and the worker parks until that changes.
+ */
+final class ShardedEngine {
+
+    private static final long PARK_TIMEOUT_NANOS = 100_000_000; // Backstop only: a neighbour or the game end wakes us
+
+    private ShardedEngine() {
+    }
+
+    /**
+     * Gets the segment a player or deck belongs to: segments are contiguous and their sizes differ by at most one.
+     *
+     * @param index the player or deck index (ID - 1).
+     * @param numPlayers the number of players in the game.
+     * @param shards the number of segments, at most the number of players.
+     * @return the segment, from 0.
+     */
+    private static int segmentOf(int index, int numPlayers, int shards) {
+        return (int) ((long) index * shards / numPlayers);
+    }
+
+    /**
+     * Creates a deck for a sharded game: a ring deck at the start of each segment, a local deck everywhere else.
+     * Decks must be created in ID order.
+     *
+     * @param context the game the deck belongs to.
+     * @param index the deck index (ID - 1).
+     * @param numPlayers the number of players in the game.
+     * @param shards the number of segments asked for; games with fewer players use one per player.
+     * @return the new deck.
+     */
+    static Deck createDeck(GameContext context, int index, int numPlayers, int shards) {
+        shards = Math.min(shards, numPlayers);
+        int capacity = RingDeck.capacityFor(numPlayers);
+        if (index == 0 || segmentOf(index, numPlayers, shards) != segmentOf(index - 1, numPlayers, shards)) {
+            return new RingDeck(context, capacity);
+        }
+        return new LocalDeck(context, capacity);
+    }
+
+    /**
+     * Builds the workers for a dealt game, one per segment, to be run on threads of the caller's choice.
+     *
+     * @param players the dealt players, in ID order.
+     * @param decks the decks, in ID order, as made by {@link #createDeck}.
+     * @param context the game the players belong to.
+     * @param shards the number of segments asked for, as given to {@link #createDeck}.
+     * @return one task per segment, in ring order.
+     */
+    static List<Runnable> workers(List<Player> players, List<Deck> decks, GameContext context, int shards) {
+        int n = players.size();
+        shards = Math.min(shards, n);
+        List<Runnable> workers = new ArrayList<>(shards);
+        int start = 0;
+        for (int k = 0; k < shards; k++) {
+            int end = start;
+            while (end < n && segmentOf(end, n, shards) == k) {
+                end++;
+            }
+            List<Player> segment = players.subList(start, end);
+            Deck incoming = decks.get(start);
+            Deck outgoing = decks.get(end % n);
+            workers.add(() -> play(segment, incoming, outgoing, context));
+            start = end;
+        }
+        return workers;
+    }
+
+    /**
+     * Plays one segment until the game is over.
+     *
+     * @param segment the segment's players, in ring order.
+     * @param incoming the ring deck the first player draws from.
+     * @param outgoing the ring deck the last player discards to.
+     * @param context the game the players belong to.
+     */
+    private static void play(List<Player> segment, Deck incoming, Deck outgoing, GameContext context) {
+        Player current = segment.get(0);
+        try {
+            for (Player p : segment) {
+                current = p;
+                p.begin();
+            }
+
+            // Main gameplay loop, one turn per player per pass:
+            while (!context.isOver()) {
+                boolean progress = false;
+                for (Player p : segment) {
+                    current = p;
+                    progress |= p.playTurn();
+                }
+                if (!progress) {
+                    awaitNeighbour(incoming, outgoing);
+                }
+            }
+
+            // Game over - final logs:
+            for (Player p : segment) {
+                current = p;
+                p.finish();
+            }
+        } catch (Exception e) {
+            // End the game: it can't be won without this segment. Close the other players' logs:
+            current.fail(e.getMessage());
+            for (Player p : segment) {
+                if (p != current) p.finish();
+            }
+        }
+    }
+
+    /**
+     * Waits after a pass in which no player in the segment could take a turn. Only the neighbouring segments
+     * can change that, by adding a card to the incoming deck or drawing from the outgoing one.
+     *
+     * @param incoming the ring deck the segment draws from.
+     * @param outgoing the ring deck the segment discards to.
+     */
+    private static void awaitNeighbour(Deck incoming, Deck outgoing) {
+        boolean empty = incoming.size() == 0;
+        boolean full = !outgoing.hasSpace();
+        if (empty && full) {
+            Deck.awaitCardOrSpace(incoming, outgoing, PARK_TIMEOUT_NANOS);
+        } else if (empty) {
+            incoming.awaitCard(PARK_TIMEOUT_NANOS);
+        } else if (full) {
+            outgoing.awaitSpace(PARK_TIMEOUT_NANOS);
+        }
+        // Otherwise a neighbour changed a deck during the pass: play again
+    }
+}
@@ -0,0 +1,74 @@
+// Simulation.java
+
+package cardgame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Monte Carlo batch mode: plays many independent games of the same pack in parallel and aggregates the outcomes.
+ *
+ * Every game has its own {@link GameContext}, decks and players, so games never share a winner or IDs.
+ * Games are played silently: no log files and no console output per game.
+ */
+public class Simulation {
+
+    private final int numPlayers;
+    private final int[] pack;
+    private final GameOptions options;
+
+    /**
+     * Constructs a simulation of a validated pack.
+     *
+     * @param numPlayers the number of players in each game.
+     * @param pack the card values, 8 per player, in pack order.
+     * @param options the game options, e.g. the deck type.
+     */
+    public Simulation(int numPlayers, int[] pack, GameOptions options) {
+        this.numPlayers = numPlayers;
+        this.pack = pack;
+        this.options = options;
+    }
+
+    /**
+     * Plays a batch of games on a fork/join pool.
+     *
+     * @param games the number of games to play.
+     * @param parallelism the number of games played at the same time.
+     * @return the aggregated results.
+     */
+    public SimulationSummary run(int games, int parallelism) {
+        long start = System.nanoTime();
+        long seed = options.getSeed() != null ? options.getSeed() : new Random().nextLong();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            // Submit every game, then collect the results:
+            List<ForkJoinTask<GameResult>> tasks = new ArrayList<>(games);
+            for (int i = 0; i < games; i++) {
+                long gameSeed = seed + i;
+                tasks.add(pool.submit(() -> playOne(gameSeed)));
+            }
+            List<GameResult> results = new ArrayList<>(games);
+            for (ForkJoinTask<GameResult> t : tasks) {
+                results.add(t.join());
+            }
+            return new SimulationSummary(numPlayers, results, System.nanoTime() - start);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Plays one silent game with its own decks and players.
+     *
+     * @param seed seeds a single-threaded engine, so a batch with a given seed is reproducible.
+     * @return the game's result.
+     */
+    private GameResult playOne(long seed) {
+        CardGame game = new CardGame(options, false);
+        return game.play(numPlayers, pack, seed);
+    }
+}
@@ -0,0 +1,124 @@
+// SimulationSummary.java
+
+package cardgame;
+
+import java.util.List;
+
+/**
+ * Aggregated results of a batch of simulated games: win distribution, turns to win and wall time.
+ */
+public final class SimulationSummary {
+
+    private final int numPlayers;
+    private final int games;
+    private final long[] wins;      // Index = player ID
+    private final long minTurns;
+    private final long maxTurns;
+    private final double meanTurns;
+    private final double meanTotalTurns;
+    private final double meanWallMillis;
+    private final double maxWallMillis;
+    private final long elapsedNanos;
+
+    /**
+     * Aggregates the results of a batch.
+     *
+     * @param numPlayers the number of players in each game.
+     * @param results one result per game, in any order.
+     * @param elapsedNanos the wall time of the whole batch, in nanoseconds.
+     */
+    public SimulationSummary(int numPlayers, List<GameResult> results, long elapsedNanos) {
+        this.numPlayers = numPlayers;
+        this.games = results.size();
+        this.wins = new long[numPlayers + 1];
+        this.elapsedNanos = elapsedNanos;
+
+        long min = Long.MAX_VALUE;
+        long max = 0;
+        long turns = 0;
+        long totalTurns = 0;
+        long wall = 0;
+        long maxWall = 0;
+        for (GameResult r : results) {
+            wins[r.getWinnerId()]++;
+            min = Math.min(min, r.getWinnerTurns());
+            max = Math.max(max, r.getWinnerTurns());
+            turns += r.getWinnerTurns();
+            totalTurns += r.getTotalTurns();
+            wall += r.getWallNanos();
+            maxWall = Math.max(maxWall, r.getWallNanos());
+        }
+        this.minTurns = games == 0 ? 0 : min;
+        this.maxTurns = max;
+        this.meanTurns = games == 0 ? 0 : (double) turns / games;
+        this.meanTotalTurns = games == 0 ? 0 : (double) totalTurns / games;
+        this.meanWallMillis = games == 0 ? 0 : wall / 1e6 / games;
+        this.maxWallMillis = maxWall / 1e6;
+    }
+
+    /**
+     * Gets the number of games in the batch.
+     *
+     * @return the game count.
+     */
+    public int getGames() {
+        return games;
+    }
+
+    /**
+     * Gets the number of games a player won.
+     *
+     * @param playerId the player's ID, from 1.
+     * @return the number of wins.
+     */
+    public long getWins(int playerId) {
+        return wins[playerId];
+    }
+
+    /**
+     * Gets the mean number of turns the winner took to win.
+     *
+     * @return the mean turns to win.
+     */
+    public double getMeanTurnsToWin() {
+        return meanTurns;
+    }
+
+    /**
+     * Gets the mean number of turns taken by all players in a game.
+     *
+     * @return the mean total turns.
+     */
+    public double getMeanTotalTurns() {
+        return meanTotalTurns;
+    }
+
+    /**
+     * Gets the mean wall time of one game.
+     *
+     * @return the mean game time in milliseconds.
+     */
+    public double getMeanWallMillis() {
+        return meanWallMillis;
+    }
+
+    /**
+     * Human-readable report of the batch.
+     *
+     * @return the summary, one fact per line.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Simulated %d games of %d players in %.3f s%n", games, numPlayers, elapsedNanos / 1e9));
+        sb.append("Wins by player:\n");
+        for (int id = 1; id <= numPlayers; id++) {
+            double share = games == 0 ? 0 : 100.0 * wins[id] / games;
+            sb.append(String.format("  player %d: %d (%.1f%%)%n", id, wins[id], share));
+        }
+        sb.append(String.format("Turns to win: mean %.1f, min %d, max %d%n", meanTurns, minTurns, maxTurns));
+        sb.append(String.format("Turns per game (all players): mean %.1f%n", meanTotalTurns));
+        sb.append(String.format("Wall time per game: mean %.3f ms, max %.3f ms%n", meanWallMillis, maxWallMillis));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,144 @@
+// TaskEngine.java
+
+package cardgame;
+
+import java.lang.invoke.VarHandle;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Plays a dealt game with players as tasks on a fixed pool of work-stealing threads, so the number of threads
+ * doesn't grow with the number of players.
+ *
+ * A scheduled player takes turns until it can't, then is descheduled rather than blocking a thread. After every
+ * turn the player wakes its neighbours: the player on its right, whose deck just gained a card, and the player on
+ * its left, whose deck just gained space. Waking a player that is already scheduled costs one read.
+ *
+ * A player is never scheduled twice at once, but neighbours do play at the same time on different threads, so
+ * turns take the deck locks, or none with ring decks, as with a thread per player.
+ */
+final class TaskEngine {
+
+    private static final int TURN_BUDGET = 64;  // Turns in a row before a player lets others run
+
+    private final List<Player> players;
+    private final GameContext context;
+    private final int workers;
+    private final AtomicIntegerArray scheduled; // 1 while a player's task is queued or running
+    private final Runnable[] tasks;
+    private ForkJoinPool pool;
+
+    /**
+     * Prepares a dealt game to be played by a pool of threads.
+     *
+     * @param players the dealt players, in ID order.
+     * @param context the game the players belong to.
+     * @param workers the number of pool threads.
+     */
+    TaskEngine(List<Player> players, GameContext context, int workers) {
+        this.players = players;
+        this.context = context;
+        this.workers = workers;
+        this.scheduled = new AtomicIntegerArray(players.size());
+        this.tasks = new Runnable[players.size()];
+        for (int i = 0; i < tasks.length; i++) {
+            int index = i;
+            tasks[i] = () -> play(index);
+        }
+    }
+
+    /**
+     * Plays until a player wins or the game is stopped, then logs the end of the game for every player.
+     * If the calling thread is interrupted, the game is stopped.
+     */
+    void run() {
+        Thread caller = Thread.currentThread();
+        context.setOnOver(() -> LockSupport.unpark(caller));
+        pool = new ForkJoinPool(workers, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+
+        // Log the initial hands, then schedule every player:
+        for (Player p : players) {
+            p.begin();
+        }
+        for (int i = 0; i < tasks.length; i++) {
+            wake(i);
+        }
+
+        // Wait for the game to end:
+        boolean interrupted = false;
+        while (!context.isOver()) {
+            LockSupport.park(this);
+            if (Thread.interrupted()) {
+                // If the program is stopped manually, stop the players:
+                context.stop();
+                interrupted = true;
+            }
+        }
+
+        // Let the running turns finish, then log the end of the game:
+        pool.shutdown();
+        while (true) {
+            try {
+                if (pool.awaitTermination(1, TimeUnit.SECONDS)) break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        for (Player p : players) {
+            p.finish();
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    /**
+     * Schedules a player, unless it is already scheduled or the game is over.
+     *
+     * @param index the player's index (ID - 1).
+     */
+    private void wake(int index) {
+        if (scheduled.get(index) != 0 || context.isOver()) return;
+        if (!scheduled.compareAndSet(index, 0, 1)) return;
+        try {
+            pool.execute(tasks[index]);
+        } catch (RejectedExecutionException e) {
+            // The game ended and the pool shut down in the meantime
+        }
+    }
+
+    /**
+     * A player's task: takes turns while it can, up to a budget, then requeues itself or is descheduled.
+     *
+     * @param index the player's index (ID - 1).
+     */
+    private void play(int index) {
+        Player p = players.get(index);
+        int n = players.size();
+        try {
+            int turns = 0;
+            while (turns < TURN_BUDGET && p.drawAndDiscard()) {
+                turns++;
+                wake(index + 1 == n ? 0 : index + 1);  // A card for the right neighbour
+                wake(index == 0 ? n - 1 : index - 1);  // Space for the left neighbour
+            }
+            if (turns == TURN_BUDGET) {
+                // Still able to play: go to the back of the queue, and stay scheduled
+                pool.execute(tasks[index]);
+                return;
+            }
+
+            // Deschedule, then check again, so a neighbour's change either sees us idle or is seen by us:
+            scheduled.set(index, 0);
+            VarHandle.fullFence();
+            if (p.canTakeTurn()) wake(index);
+        } catch (RejectedExecutionException e) {
+            // The game ended and the pool shut down in the meantime
+        } catch (Exception e) {
+            // End the game: it can't be won without this player
+            p.fail(e.getMessage());
+        }
+    }
+}
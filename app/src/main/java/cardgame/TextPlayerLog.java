@@ -0,0 +1,98 @@
+// TextPlayerLog.java
+
+package cardgame;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+
+/**
+ * Writes a player's events straight to its output, on the player's own thread.
+ * Each event is flushed as soon as it is recorded.
+ */
+public class TextPlayerLog implements PlayerLog {
+
+    private final int playerId;
+    private final PrintWriter out;
+    private final StringBuilder line = new StringBuilder(128);  // Reused for every event
+
+    /**
+     * Constructs a log writing to any character stream.
+     *
+     * @param playerId the player's ID.
+     * @param out where the text goes.
+     */
+    public TextPlayerLog(int playerId, Writer out) {
+        this.playerId = playerId;
+        this.out = new PrintWriter(out);
+    }
+
+    /**
+     * Opens {@code playerN_output.txt} in the output directory.
+     *
+     * @param outDir the output directory, created if not present.
+     * @param playerId the player's ID.
+     * @return the log.
+     * @throws IOException if the log file can't be written to.
+     */
+    public static TextPlayerLog open(File outDir, int playerId) throws IOException {
+        return open(OutputSink.directory(outDir), playerId);
+    }
+
+    /**
+     * Opens the {@code playerN_output.txt} stream of an output sink.
+     *
+     * @param sink the output sink.
+     * @param playerId the player's ID.
+     * @return the log.
+     * @throws IOException if the stream can't be created.
+     */
+    public static TextPlayerLog open(OutputSink sink, int playerId) throws IOException {
+        return new TextPlayerLog(playerId, sink.open(OutputSink.playerStream(playerId)));
+    }
+
+    @Override
+    public void initialHand(int[] hand, int size) {
+        LogText.initialHand(line, playerId, hand, size);
+        flushLine();
+    }
+
+    @Override
+    public void turn(int drawn, int fromDeck, int discarded, int toDeck, int[] hand, int size) {
+        LogText.turn(line, playerId, drawn, fromDeck, discarded, toDeck, hand, size);
+        flushLine();
+    }
+
+    @Override
+    public void won(int[] hand, int size) {
+        LogText.won(line, playerId, hand, size);
+        flushLine();
+    }
+
+    @Override
+    public void informed(int winnerId, int[] hand, int size) {
+        LogText.informed(line, playerId, winnerId, hand, size);
+        flushLine();
+    }
+
+    @Override
+    public void error(String message) {
+        LogText.error(line, message);
+        flushLine();
+    }
+
+    @Override
+    public void close() {
+        out.close();
+    }
+
+    /**
+     * Writes and flushes the formatted event, then clears it for the next one.
+     */
+    private void flushLine() {
+        out.append(line);
+        out.flush();
+        line.setLength(0);
+    }
+}
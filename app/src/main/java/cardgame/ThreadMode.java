@@ -0,0 +1,35 @@
+// ThreadMode.java
+
+package cardgame;
+
+/**
+ * The kind of thread each player runs on.
+ */
+public enum ThreadMode {
+
+    /**
+     * One operating system thread per player. Each reserves a native stack, so very large games
+     * can run out of memory and take seconds to start.
+     */
+    PLATFORM,
+
+    /**
+     * One virtual thread per player, scheduled by the JVM on a small pool of carrier threads.
+     * Suited to tens of thousands of players.
+     */
+    VIRTUAL;
+
+    /**
+     * Creates an unstarted thread of this kind.
+     *
+     * @param task the player to run.
+     * @param name the thread name, e.g. {@code Player-1}.
+     * @return the new thread.
+     */
+    public Thread newThread(Runnable task, String name) {
+        if (this == VIRTUAL) {
+            return Thread.ofVirtual().name(name).unstarted(task);
+        }
+        return new Thread(task, name);
+    }
+}
@@ -0,0 +1,41 @@
+// TurnEvent.java
+
+package cardgame;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one turn taken by a player, timed from the start of the draw to the end of the log.
+ * Off unless a recording enables it, e.g. with the bundled {@code cardgame.jfc} settings.
+ */
+@Name("cardgame.Turn")
+@Label("Turn")
+@Category("Card Game")
+@Description("A player draws from the left deck and discards to the right deck")
+@Enabled(false)
+@StackTrace(false)
+final class TurnEvent extends jdk.jfr.Event {
+
+    @Label("Player")
+    int playerId;
+
+    @Label("Drawn")
+    int drawn;
+
+    @Label("From Deck")
+    int fromDeck;
+
+    @Label("Discarded")
+    int discarded;
+
+    @Label("To Deck")
+    int toDeck;
+
+    @Label("Won")
+    boolean won;
+}
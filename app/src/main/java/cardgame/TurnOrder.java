@@ -0,0 +1,19 @@
+// TurnOrder.java
+
+package cardgame;
+
+/**
+ * The order in which a single-threaded engine lets players take their turns.
+ */
+public enum TurnOrder {
+
+    /**
+     * Players 1 to n in turn, repeatedly.
+     */
+    ROUND_ROBIN,
+
+    /**
+     * A player chosen at random for each turn, from the game's seed.
+     */
+    RANDOM
+}
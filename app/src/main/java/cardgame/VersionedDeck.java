@@ -0,0 +1,228 @@
+// VersionedDeck.java
+
+package cardgame;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Bounded FIFO deck guarded by a version stamp instead of a lock, for optimistic turns.
+ *
+ * The version is even while the deck is stable and odd while a player is changing it. A player reads the versions
+ * of both its decks, then the decks themselves, and decides whether a turn can be taken without writing anything.
+ * To take it, the player claims both decks by moving each version from the value it read to the next odd value:
+ * if a neighbour changed either deck in the meantime the claim fails, and the player reads again. A claimed turn
+ * then draws and discards with nothing else able to touch either deck, so the draw and discard stay atomic, and a
+ * turn that can't be taken (an empty left deck, a full right deck) never writes to shared memory.
+ *
+ * The card methods themselves don't synchronise: they must be called by the only thread using the deck, e.g. while
+ * dealing, or by a player holding a claim on it.
+ */
+public class VersionedDeck extends Deck {
+
+    private static final VarHandle VERSION;
+    private static final int SPINS_BEFORE_YIELD = 64;  // A claim holder may have been descheduled mid-turn
+
+    static {
+        try {
+            VERSION = MethodHandles.lookup().findVarHandle(VersionedDeck.class, "version", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final int[] cards;
+    private final int mask;
+    private int head = 0;       // Cards drawn so far; guarded by the version
+    private int tail = 0;       // Cards added so far; guarded by the version
+    @SuppressWarnings("unused")
+    private volatile int version = 0;
+
+    /**
+     * Constructs an empty versioned deck with an ID (automatically incremented).
+     *
+     * @param capacity the maximum number of cards, a positive power of two.
+     * @throws IllegalArgumentException if capacity is not a positive power of two.
+     */
+    public VersionedDeck(int capacity) throws IllegalArgumentException {
+        this(GameContext.shared(), capacity);
+    }
+
+    /**
+     * Constructs an empty versioned deck with the next deck ID of a game.
+     *
+     * @param context the game the deck belongs to.
+     * @param capacity the maximum number of cards, a positive power of two.
+     * @throws IllegalArgumentException if capacity is not a positive power of two.
+     */
+    public VersionedDeck(GameContext context, int capacity) throws IllegalArgumentException {
+        super(context);
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Versioned deck capacity must be a positive power of two.");
+        }
+        this.cards = new int[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Reads the version, waiting while a claim is in progress. Reads of the deck made after this are checked by
+     * {@link #validate(int)}, or by claiming the deck with the stamp.
+     *
+     * @return the current, even version.
+     */
+    int stamp() {
+        for (int spins = 1; ; spins++) {
+            int v = (int) VERSION.getAcquire(this);
+            if ((v & 1) == 0) return v;
+            backOff(spins);
+        }
+    }
+
+    /**
+     * Checks that the deck hasn't changed since a stamp was read, so the reads made since are consistent.
+     *
+     * @param stamp the version from {@link #stamp()}.
+     * @return true if the deck is unchanged.
+     */
+    boolean validate(int stamp) {
+        VarHandle.acquireFence();   // Order the deck reads before the version check
+        return version == stamp;
+    }
+
+    /**
+     * Claims the two decks of a turn, unless either has changed since its stamp was read.
+     * Claims are attempted in deck ID order; a failed second claim gives back the first.
+     *
+     * @param source the deck to draw from, with its stamp.
+     * @param sourceStamp the source's version from {@link #stamp()}.
+     * @param target the deck to discard to, possibly the same deck.
+     * @param targetStamp the target's version from {@link #stamp()}.
+     * @return true if both decks are now claimed, false if nothing was claimed.
+     */
+    static boolean claim(VersionedDeck source, int sourceStamp, VersionedDeck target, int targetStamp) {
+        if (source == target) {
+            return VERSION.compareAndSet(source, sourceStamp, sourceStamp + 1);
+        }
+        boolean sourceFirst = source.getDeckId() < target.getDeckId();
+        VersionedDeck first = sourceFirst ? source : target;
+        VersionedDeck second = sourceFirst ? target : source;
+        int firstStamp = sourceFirst ? sourceStamp : targetStamp;
+        int secondStamp = sourceFirst ? targetStamp : sourceStamp;
+
+        if (!VERSION.compareAndSet(first, firstStamp, firstStamp + 1)) return false;
+        if (VERSION.compareAndSet(second, secondStamp, secondStamp + 1)) return true;
+        VERSION.setVolatile(first, firstStamp);     // Unchanged, so readers of the old stamp stay valid
+        return false;
+    }
+
+    /**
+     * Publishes a claimed turn: moves both versions on to the next even value, then wakes a neighbour parked on
+     * either deck.
+     *
+     * @param source the deck drawn from.
+     * @param sourceStamp the stamp it was claimed with.
+     * @param target the deck discarded to, possibly the same deck.
+     * @param targetStamp the stamp it was claimed with.
+     */
+    static void release(VersionedDeck source, int sourceStamp, VersionedDeck target, int targetStamp) {
+        // Volatile stores, so the published turn is ordered before the waiter checks:
+        VERSION.setVolatile(source, sourceStamp + 2);
+        if (target != source) VERSION.setVolatile(target, targetStamp + 2);
+        source.wakeAdder();
+        target.wakeDrawer();
+    }
+
+    /**
+     * Waits for a neighbour's claim to end: spins briefly, then yields the core in case the neighbour's thread
+     * was descheduled during its turn.
+     *
+     * @param spins the number of times in a row the caller has had to wait.
+     */
+    static void backOff(int spins) {
+        if (spins % SPINS_BEFORE_YIELD == 0) Thread.yield();
+        else Thread.onSpinWait();
+    }
+
+    /**
+     * Adds a card, given by its value, to the bottom of the deck. The caller must hold a claim on the deck, or be
+     * the only thread using it.
+     *
+     * @param value the non-negative card value.
+     * @throws IllegalArgumentException if value is negative.
+     * @throws IllegalStateException if the deck is full.
+     */
+    @Override
+    public void addValue(int value) throws IllegalArgumentException, IllegalStateException {
+        if (value < 0) {
+            throw new IllegalArgumentException("Card value must be non-negative.");
+        }
+        if (tail - head == cards.length) {
+            throw new IllegalStateException("Deck " + getDeckId() + " is full.");
+        }
+        cards[tail++ & mask] = value;
+    }
+
+    /**
+     * Draws (removes) the top card of the deck and returns its value. The caller must hold a claim on the deck,
+     * or be the only thread using it.
+     *
+     * @return the card value, or {@link #EMPTY} if the deck is empty.
+     */
+    @Override
+    public int drawValue() {
+        if (head == tail) return EMPTY;
+        return cards[head++ & mask];
+    }
+
+    /**
+     * Checks whether a card can be added without the deck overflowing.
+     * From another thread, only meaningful between a stamp and its validation.
+     *
+     * @return true if the deck is not full.
+     */
+    @Override
+    public boolean hasSpace() {
+        return tail - head < cards.length;
+    }
+
+    /**
+     * Get the number of cards in the deck.
+     * From another thread, only meaningful between a stamp and its validation.
+     *
+     * @return the size of the deck.
+     */
+    @Override
+    public int size() {
+        return tail - head;
+    }
+
+    /**
+     * Shows the deck's contents as a space-separated string.
+     * Only consistent once the players have stopped, e.g. when writing the final deck files.
+     *
+     * @return the string form of the deck, separated by spaces.
+     */
+    @Override
+    public String contentsAsString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = head; i != tail; i++) {
+            sb.append(cards[i & mask]).append(" ");
+        }
+        return sb.toString().trim();
+    }
+
+    /**
+     * Copies the deck's cards.
+     * Only consistent once the players have stopped, e.g. for a checkpoint.
+     *
+     * @return the card values from top to bottom.
+     */
+    @Override
+    public int[] values() {
+        int[] values = new int[tail - head];
+        for (int i = head; i != tail; i++) {
+            values[i - head] = cards[i & mask];
+        }
+        return values;
+    }
+}
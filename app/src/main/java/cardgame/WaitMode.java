@@ -0,0 +1,22 @@
+// WaitMode.java
+
+package cardgame;
+
+/**
+ * What a player does when it can't take a turn, because its left deck is empty or its right deck is full.
+ */
+public enum WaitMode {
+
+    /**
+     * Retry straight away, yielding the processor between attempts. Reacts fastest, but a waiting player keeps
+     * a core busy, which starves the players it is waiting for when there are more players than cores.
+     */
+    SPIN,
+
+    /**
+     * Retry for a short, adaptive number of spins, then park until a neighbour adds a card or makes space.
+     * The spin limit grows while neighbours answer within it and shrinks while they don't; with one processor,
+     * spinning can't help, so the player parks at once.
+     */
+    PARK
+}
@@ -0,0 +1,31 @@
+// WinEvent.java
+
+package cardgame;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for the player that wins a game. Off unless a recording enables it.
+ */
+@Name("cardgame.Win")
+@Label("Win")
+@Category("Card Game")
+@Description("A player holds four of a kind and wins the game")
+@Enabled(false)
+@StackTrace(false)
+final class WinEvent extends jdk.jfr.Event {
+
+    @Label("Player")
+    int playerId;
+
+    @Label("Turns")
+    long turns;
+
+    @Label("Winning Value")
+    int value;
+}
@@ -0,0 +1,147 @@
+// ArrayEngineTest.java
+
+package cardgame_test;
+
+import cardgame.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the struct-of-arrays engine, checked against the sequential engine with ring decks.
+ */
+public class ArrayEngineTest {
+
+    /**
+     * Builds a random pack, with values from 1 to one more than the number of players.
+     *
+     * @param numPlayers the number of players.
+     * @param seed seeds the card values.
+     * @return 8 cards per player.
+     */
+    private int[] randomPack(int numPlayers, long seed) {
+        Random random = new Random(seed);
+        int[] pack = new int[8 * numPlayers];
+        for (int i = 0; i < pack.length; i++) {
+            pack[i] = random.nextInt(numPlayers + 1) + 1;
+        }
+        return pack;
+    }
+
+    /**
+     * Utility function to play a game from a pack file and read every output file.
+     *
+     * @param options the game options.
+     * @param numPlayers the number of players.
+     * @param pack the pack file.
+     * @return the contents of each file in {@code out/}, by name.
+     * @throws IOException if a file can't be read.
+     */
+    private Map<String, String> play(GameOptions options, int numPlayers, File pack) throws IOException {
+        new CardGame(options).start(numPlayers, pack);
+        Map<String, String> files = new TreeMap<>();
+        for (File f : Objects.requireNonNull(new File("out").listFiles())) {
+            files.put(f.getName(), Files.readString(f.toPath()));
+        }
+        tearDown();
+        return files;
+    }
+
+    /**
+     * Tests that every log and deck file matches the sequential engine's, in both turn orders, for small games
+     * and for games whose ring decks hold more than 16 cards.
+     *
+     * @throws IOException if the pack or output files can't be read or written.
+     */
+    @Test
+    public void testSameGameAsSequential() throws IOException {
+        for (int numPlayers : new int[] {1, 2, 3, 4, 5, 8, 20}) {
+            File pack = File.createTempFile("pack", ".txt");
+            pack.deleteOnExit();
+            StringBuilder sb = new StringBuilder();
+            for (int v : randomPack(numPlayers, numPlayers)) {
+                sb.append(v).append('\n');
+            }
+            Files.writeString(pack.toPath(), sb);
+
+            for (TurnOrder order : TurnOrder.values()) {
+                GameOptions sequential = new GameOptions().setEngine(Engine.SEQUENTIAL).setDeckType(DeckType.RING)
+                        .setTurnOrder(order).setSeed(2414L);
+                GameOptions arrays = new GameOptions().setEngine(Engine.ARRAYS).setTurnOrder(order).setSeed(2414L);
+
+                Map<String, String> expected = play(sequential, numPlayers, pack);
+                assertEquals(2 * numPlayers, expected.size());
+                assertEquals(expected, play(arrays, numPlayers, pack));
+            }
+        }
+    }
+
+    /**
+     * Tests that a seeded batch of games has the same winners and turn counts as the sequential engine. In a
+     * random turn order some of the larger games fill a deck past 16 cards, so the decks must be as large as
+     * ring decks.
+     */
+    @Test
+    public void testSameSimulationAsSequential() {
+        for (int numPlayers : new int[] {4, 8, 20}) {
+            int[] pack = randomPack(numPlayers, 15);
+            GameOptions sequential = new GameOptions().setEngine(Engine.SEQUENTIAL).setDeckType(DeckType.RING)
+                    .setTurnOrder(TurnOrder.RANDOM).setSeed(99L);
+            GameOptions arrays = new GameOptions().setEngine(Engine.ARRAYS).setTurnOrder(TurnOrder.RANDOM).setSeed(99L);
+            SimulationSummary expected = new Simulation(numPlayers, pack, sequential).run(200, 2);
+            SimulationSummary actual = new Simulation(numPlayers, pack, arrays).run(200, 2);
+
+            for (int id = 1; id <= numPlayers; id++) {
+                assertEquals(expected.getWins(id), actual.getWins(id));
+            }
+            assertEquals(expected.getMeanTurnsToWin(), actual.getMeanTurnsToWin(), 0);
+            assertEquals(expected.getMeanTotalTurns(), actual.getMeanTotalTurns(), 0);
+        }
+    }
+
+    /**
+     * Tests that a game with a hundred thousand players runs to a single, reproducible winner.
+     */
+    @Test
+    public void testHundredThousandPlayers() {
+        int numPlayers = 100_000;
+        int[] pack = new int[8 * numPlayers];
+        Random random = new Random(1);
+        for (int i = 0; i < pack.length; i++) {
+            pack[i] = random.nextInt(16) + 1;
+        }
+        GameOptions options = new GameOptions().setEngine(Engine.ARRAYS).setSeed(5L);
+        SimulationSummary first = new Simulation(numPlayers, pack, options).run(1, 1);
+        SimulationSummary second = new Simulation(numPlayers, pack, options).run(1, 1);
+
+        long wins = 0;
+        for (int id = 1; id <= numPlayers; id++) {
+            assertEquals(first.getWins(id), second.getWins(id));
+            wins += first.getWins(id);
+        }
+        assertEquals(1, wins);
+        assertEquals(first.getMeanTotalTurns(), second.getMeanTotalTurns(), 0);
+    }
+
+    /**
+     * Clean up after tests: remove output files.
+     */
+    @After
+    public void tearDown() {
+        File out = new File("out");
+        if (out.exists()) {
+            for (File f : Objects.requireNonNull(out.listFiles())) {
+                f.delete();
+            }
+            out.delete();
+        }
+    }
+}
@@ -0,0 +1,207 @@
+// AsyncLogPipelineTest.java
+
+package cardgame_test;
+
+import cardgame.*;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Objects;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the {@link cardgame.AsyncLogPipeline} class.
+ */
+public class AsyncLogPipelineTest {
+
+    private File directDir;
+    private File asyncDir;
+
+    /**
+     * Create an empty output directory for each kind of log.
+     *
+     * @throws IOException if the directories can't be created.
+     */
+    @Before
+    public void setup() throws IOException {
+        directDir = Files.createTempDirectory("direct_log").toFile();
+        asyncDir = Files.createTempDirectory("async_log").toFile();
+    }
+
+    /**
+     * Records the same events for a player as a game would: initial hand, turns, then an exit.
+     *
+     * @param log the player's log.
+     * @param won whether the player wins or is informed of another player's win.
+     */
+    private void playEvents(PlayerLog log, boolean won) {
+        int[] hand = {1, 2, 3, 4, 0};
+        log.initialHand(hand, 4);
+        for (int turn = 0; turn < 500; turn++) {
+            hand[turn % 4] = turn % 7;
+            log.turn(turn % 9, 1, turn % 5, 2, hand, 4);
+        }
+        if (won) {
+            log.won(new int[]{7, 7, 7, 7}, 4);
+        } else {
+            log.informed(3, hand, 4);
+        }
+        log.close();
+    }
+
+    /**
+     * Tests that the queued, batched files are byte-identical to the files written directly.
+     *
+     * @throws IOException if the logs can't be written or read.
+     */
+    @Test
+    public void testSameFileContents() throws IOException {
+        PlayerLogFactory direct = PlayerLogFactory.files(directDir);
+        try (AsyncLogPipeline pipeline = new AsyncLogPipeline(asyncDir, 2, 16)) {
+            for (int id = 1; id <= 4; id++) {
+                playEvents(direct.open(id), id == 3);
+                playEvents(pipeline.open(id), id == 3);
+            }
+        }
+
+        for (int id = 1; id <= 4; id++) {
+            String name = "player" + id + "_output.txt";
+            byte[] expected = Files.readAllBytes(new File(directDir, name).toPath());
+            byte[] actual = Files.readAllBytes(new File(asyncDir, name).toPath());
+            assertArrayEquals(expected, actual);
+        }
+    }
+
+    /**
+     * Tests that events still queued when the game ends are written when the pipeline closes,
+     * even for a player that never closed its log.
+     *
+     * @throws IOException if the log can't be written or read.
+     */
+    @Test
+    public void testCloseFlushesEverything() throws IOException {
+        AsyncLogPipeline pipeline = new AsyncLogPipeline(asyncDir, 1, 4);
+        PlayerLog log = pipeline.open(1);
+        log.initialHand(new int[]{5, 6, 7, 8}, 4);
+        log.error("stopped");
+        pipeline.close();
+
+        String text = Files.readString(new File(asyncDir, "player1_output.txt").toPath());
+        assertEquals("player 1 initial hand 5 6 7 8" + System.lineSeparator()
+                + "Error: stopped" + System.lineSeparator(), text);
+    }
+
+    /**
+     * Utility function to make a sink whose player 1 stream fails on every write.
+     *
+     * @param others the stream of every other player.
+     * @param failure throws the failure.
+     * @return the sink.
+     */
+    private OutputSink failingSink(Writer others, Runnable failure) {
+        return new OutputSink() {
+            @Override
+            public Writer open(String name) {
+                if (!name.equals(OutputSink.playerStream(1))) return others;
+                return new Writer() {
+                    @Override
+                    public void write(char[] buf, int off, int len) {
+                        failure.run();
+                    }
+
+                    @Override
+                    public void flush() {
+                    }
+
+                    @Override
+                    public void close() {
+                    }
+                };
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    /**
+     * Tests that a record whose stream throws an unchecked exception is reported and skipped: the writer thread
+     * keeps taking records, so players never wait on a full queue, and the other player's log is complete.
+     *
+     * @throws IOException if a log can't be opened.
+     */
+    @Test(timeout = 10000)
+    public void testWriterSurvivesFailingStream() throws IOException {
+        StringWriter good = new StringWriter();
+        AsyncLogPipeline pipeline = new AsyncLogPipeline(failingSink(good, () -> {
+            throw new IllegalStateException("broken stream");
+        }), 1, 4);
+        playEvents(pipeline.open(1), false);    // Many more records than the queue holds
+        playEvents(pipeline.open(2), false);
+
+        IOException e = assertThrows(IOException.class, pipeline::close);
+        assertTrue(e.getCause() instanceof IllegalStateException);
+        assertTrue(good.toString().startsWith("player 2 initial hand 1 2 3 4"));
+        assertTrue(good.toString().contains("player 2 exits"));
+    }
+
+    /**
+     * Tests that a writer thread killed by an error fails the pipeline instead of leaving players waiting:
+     * records are dropped, and flush and close report the failure.
+     *
+     * @throws IOException if a log can't be opened.
+     */
+    @Test(timeout = 10000)
+    public void testDeadWriterFailsPipeline() throws IOException {
+        AsyncLogPipeline pipeline = new AsyncLogPipeline(failingSink(new StringWriter(), () -> {
+            throw new StackOverflowError("test: writer thread dies");
+        }), 1, 4);
+        playEvents(pipeline.open(1), false);
+        playEvents(pipeline.open(2), false);
+
+        assertThrows(IOException.class, pipeline::flush);
+        IOException e = assertThrows(IOException.class, pipeline::close);
+        assertTrue(e.getCause() instanceof StackOverflowError);
+    }
+
+    /**
+     * Tests that interrupting a writer thread doesn't stop it: every record queued afterwards is still written.
+     *
+     * @throws IOException if the log can't be written or read.
+     */
+    @Test(timeout = 10000)
+    public void testWriterIgnoresInterrupts() throws IOException {
+        AsyncLogPipeline pipeline = new AsyncLogPipeline(asyncDir, 1, 4);
+        for (Thread t : Thread.getAllStackTraces().keySet()) {
+            if (t.getName().startsWith("Log-Writer-")) t.interrupt();
+        }
+        playEvents(pipeline.open(1), true);
+        pipeline.flush();
+        pipeline.close();
+
+        List<String> lines = Files.readAllLines(new File(asyncDir, "player1_output.txt").toPath());
+        assertEquals("player 1 initial hand 1 2 3 4", lines.get(0));
+        assertEquals("player 1 exits", lines.get(lines.size() - 2));
+    }
+
+    /**
+     * Clean up after tests: remove output files.
+     */
+    @After
+    public void tearDown() {
+        for (File dir : new File[]{directDir, asyncDir}) {
+            for (File f : Objects.requireNonNull(dir.listFiles())) {
+                f.delete();
+            }
+            dir.delete();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+// BinaryPackTest.java
+
+package cardgame_test;
+
+import cardgame.BinaryPack;
+import cardgame.PackLoader;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the {@link cardgame.BinaryPack} class.
+ */
+public class BinaryPackTest {
+
+    private final List<File> files = new ArrayList<>();
+
+    /**
+     * Utility function to create a temporary file, deleted after the test.
+     *
+     * @param suffix the file suffix.
+     * @return the empty file.
+     * @throws IOException if the file can't be created.
+     */
+    private File tempFile(String suffix) throws IOException {
+        File file = File.createTempFile("pack", suffix);
+        files.add(file);
+        return file;
+    }
+
+    /**
+     * Utility function to overwrite one byte of a file.
+     *
+     * @param file the file.
+     * @param pos the byte position.
+     * @param value the new byte.
+     * @throws IOException if the file can't be written.
+     */
+    private void poke(File file, long pos, int value) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(pos);
+            raf.write(value);
+        }
+    }
+
+    /**
+     * Tests that every encoding reads back the values written, including the largest int.
+     *
+     * @throws IOException if the pack can't be written or read.
+     */
+    @Test
+    public void testRoundTripEveryWidth() throws IOException {
+        int[] small = {0, 1, 7, 255, 3, 200, 42, 9};
+        int[] medium = {0, 256, 65535, 1, 300, 4, 5, 6};
+        int[] large = {0, 65536, Integer.MAX_VALUE, 128, 16384, 2097152, 268435456, 1};
+
+        for (int width : new int[]{1, 2, 4, BinaryPack.VARINT}) {
+            File file = tempFile(".cgp");
+            BinaryPack.write(file, small, width);
+            assertTrue(BinaryPack.isBinary(file));
+            assertArrayEquals(small, BinaryPack.load(file, small.length));
+        }
+        for (int width : new int[]{2, 4, BinaryPack.VARINT}) {
+            File file = tempFile(".cgp");
+            BinaryPack.write(file, medium, width);
+            assertArrayEquals(medium, BinaryPack.load(file, medium.length));
+        }
+        for (int width : new int[]{4, BinaryPack.VARINT}) {
+            File file = tempFile(".cgp");
+            BinaryPack.write(file, large, width);
+            assertArrayEquals(large, BinaryPack.load(file, large.length));
+        }
+    }
+
+    /**
+     * Tests that the automatic encoding is the smaller of fixed width and varints.
+     *
+     * @throws IOException if the pack can't be written or read.
+     */
+    @Test
+    public void testChoosesSmallerEncoding() throws IOException {
+        int[] bytes = new int[800];
+        int[] mostlySmall = new int[800];
+        Random random = new Random(2414);
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = random.nextInt(256);
+            mostlySmall[i] = random.nextInt(100);
+        }
+        mostlySmall[0] = 1_000_000;     // One wide value forces 4 byte fixed width; varints stay 1 byte each
+
+        File fixed = tempFile(".cgp");
+        BinaryPack.write(fixed, bytes);
+        assertEquals(BinaryPack.HEADER + 800, fixed.length());
+        assertArrayEquals(bytes, BinaryPack.load(fixed, 800));
+
+        File varint = tempFile(".cgp");
+        BinaryPack.write(varint, mostlySmall);
+        assertEquals(BinaryPack.HEADER + 799 + 3, varint.length());
+        assertArrayEquals(mostlySmall, BinaryPack.load(varint, 800));
+    }
+
+    /**
+     * Tests that a damaged pack or a pack for the wrong number of players is rejected.
+     *
+     * @throws IOException if the pack can't be written or read.
+     */
+    @Test
+    public void testInvalidPacks() throws IOException {
+        int[] values = {1, 2, 3, 4, 5, 6, 7, 8};
+
+        File file = tempFile(".cgp");
+        BinaryPack.write(file, values, 1);
+        assertNull(BinaryPack.load(file, 16));         // Wrong count
+
+        poke(file, BinaryPack.HEADER + 3, 9);           // Value changed: checksum mismatch
+        assertNull(BinaryPack.load(file, 8));
+
+        File truncated = tempFile(".cgp");
+        BinaryPack.write(truncated, values, 2);
+        try (RandomAccessFile raf = new RandomAccessFile(truncated, "rw")) {
+            raf.setLength(raf.length() - 1);
+        }
+        assertNull(BinaryPack.load(truncated, 8));
+
+        File negative = tempFile(".cgp");
+        BinaryPack.write(negative, values, 4);
+        poke(negative, BinaryPack.HEADER, 0x80);       // Sign bit set on the first value
+        assertNull(BinaryPack.load(negative, 8));
+
+        File badWidth = tempFile(".cgp");
+        BinaryPack.write(badWidth, values, 1);
+        poke(badWidth, 5, 3);
+        assertNull(BinaryPack.load(badWidth, 8));
+
+        File tooShort = tempFile(".cgp");
+        Files.write(tooShort.toPath(), new byte[]{'C', 'G'});
+        assertFalse(BinaryPack.isBinary(tooShort));
+        assertNull(BinaryPack.load(tooShort, 0));
+    }
+
+    /**
+     * Tests that a text pack is not taken for a binary one, and converts to the same cards.
+     *
+     * @throws IOException if the pack can't be written or read.
+     */
+    @Test
+    public void testConvertTextPack() throws IOException {
+        File text = tempFile(".txt");
+        Files.writeString(text.toPath(), "1\n2\n3\n4\n5\n6\n7\n8\n", StandardCharsets.US_ASCII);
+        assertFalse(BinaryPack.isBinary(text));
+
+        File binary = tempFile(".cgp");
+        BinaryPack.main(new String[]{"1", text.getPath(), binary.getPath()});
+        assertTrue(BinaryPack.isBinary(binary));
+        assertArrayEquals(PackLoader.load(text, 8), BinaryPack.load(binary, 8));
+    }
+
+    /**
+     * Clean up after tests: remove the temporary packs.
+     */
+    @After
+    public void tearDown() {
+        for (File f : files) {
+            f.delete();
+        }
+    }
+}
@@ -9,6 +9,10 @@ import java.util.*;
 import java.lang.reflect.Method;
 import java.nio.file.Files;
 import java.lang.reflect.Field;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 
 import org.junit.Test;
 import org.junit.After;
@@ -90,6 +94,28 @@ public class CardGameTest {
         assertTrue(result);
     }
 
+    /**
+     * Tests if a binary pack is detected and loads the same cards as its text pack.
+     *
+     * @throws Exception if there was a problem with running the private method.
+     */
+    @Test
+    public void testBinaryPackFile() throws Exception {
+        File text = makeTempValidPack(4);
+        File binary = File.createTempFile("valid_pack", ".cgp");
+        binary.deleteOnExit();
+        BinaryPack.write(binary, PackLoader.load(text, 32));
+
+        boolean result = (boolean) callPrivate("loadPack", new Class[]{File.class, int.class}, binary, 4);
+        assertTrue(result);
+
+        // Compare with the text pack:
+        Field packField = CardGame.class.getDeclaredField("pack");
+        packField.setAccessible(true);
+        assertArrayEquals(PackLoader.load(text, 32), (int[]) packField.get(game));
+        assertFalse((boolean) callPrivate("loadPack", new Class[]{File.class, int.class}, binary, 5));
+    }
+
     /**
      * Tests if a pack with too few cards is rejected.
      *
@@ -149,6 +175,29 @@ public class CardGameTest {
         assertEquals(4, decks.size());
     }
 
+    /**
+     * Tests that the deck type in the options decides which decks are created.
+     *
+     * @throws Exception if there was a problem with running the private method.
+     */
+    @Test
+    public void testInitRingDecks() throws Exception {
+        game = new CardGame(new GameOptions().setDeckType(DeckType.RING));
+        callPrivate("initDecks", new Class[]{int.class}, 4);
+
+        // Get the private field 'decks'.
+        Field decksField = CardGame.class.getDeclaredField("decks");
+        decksField.setAccessible(true);
+
+        // Test the list of decks: all should be ring decks.
+        @SuppressWarnings("unchecked")
+        List<Deck> decks = (List<Deck>) decksField.get(game);
+        assertEquals(4, decks.size());
+        for (Deck d : decks) {
+            assertTrue(d instanceof RingDeck);
+        }
+    }
+
     /**
      * Tests if the correct number of players are created and initialised.
      *
@@ -183,12 +232,12 @@ public class CardGameTest {
         Field packField = CardGame.class.getDeclaredField("pack");
         packField.setAccessible(true);
 
-        // Fill the pack with cards [0..16].
-        @SuppressWarnings("unchecked")
-        List<Card> pack = (List<Card>) packField.get(game);
+        // Fill the pack with card values [0..16].
+        int[] pack = new int[16];
         for (int i = 0; i < 16; i++) {
-            pack.add(new Card(i));
+            pack[i] = i;
         }
+        packField.set(game, pack);
 
         callPrivate("dealCards", new Class[]{int.class}, 2);
 
@@ -225,7 +274,7 @@ public class CardGameTest {
             d.addCard(new Card(5));
         }
 
-        callPrivate("writeDeckOutputs", new Class[]{}, new Object[]{});
+        callPrivate("writeDeckOutputs", new Class[]{OutputSink.class}, OutputSink.directory(new File("out")));
 
         // Check that the output files exist and contents are correct.
         for (Deck d : decks) {
@@ -239,6 +288,165 @@ public class CardGameTest {
         }
     }
 
+    /**
+     * Tests a whole game with players on virtual threads: one player wins and every file is written.
+     *
+     * @throws Exception if the pack or the log files can't be read or written.
+     */
+    @Test
+    public void testVirtualThreadGame() throws Exception {
+        File pack = makeTempValidPack(4);
+        game = new CardGame(new GameOptions().setThreadMode(ThreadMode.VIRTUAL));
+        game.start(4, pack);
+
+        int winners = 0;
+        for (int i = 1; i <= 4; i++) {
+            assertTrue(new File("out/deck" + i + "_output.txt").exists());
+            String log = Files.readString(new File("out/player" + i + "_output.txt").toPath());
+            if (log.contains("player " + i + " wins")) winners++;
+        }
+        assertEquals(1, winners);
+    }
+
+    /**
+     * Tests a whole game with the asynchronous log: every player file ends with the player's exit.
+     *
+     * @throws Exception if the pack or the log files can't be read or written.
+     */
+    @Test
+    public void testAsyncLogGame() throws Exception {
+        File pack = makeTempValidPack(4);
+        game = new CardGame(new GameOptions().setLogMode(LogMode.ASYNC).setLogWriters(2));
+        game.start(4, pack);
+
+        for (int i = 1; i <= 4; i++) {
+            List<String> lines = Files.readAllLines(new File("out/player" + i + "_output.txt").toPath());
+            assertTrue(lines.get(0).startsWith("player " + i + " initial hand "));
+            assertTrue(lines.get(lines.size() - 2).equals("player " + i + " exits"));
+        }
+    }
+
+    /**
+     * Tests that a game with metrics writes a JSON report whose totals agree with its entries and names the
+     * decks it played with, and that a game without them writes none.
+     *
+     * @throws Exception if the pack or the output files can't be read or written.
+     */
+    @Test
+    public void testMetricsFile() throws Exception {
+        File pack = makeTempValidPack(4);
+        for (DeckType deckType : DeckType.values()) {
+            game = new CardGame(new GameOptions().setDeckType(deckType).setMetricsMode(MetricsMode.JSON));
+            game.start(4, pack);
+
+            String json = Files.readString(new File("out/metrics.json").toPath());
+            assertTrue(json.startsWith("{\"players\": 4, \"engine\": \"threads\", \"deck\": \""
+                    + deckType.name().toLowerCase(Locale.ROOT) + "\""));
+            assertEquals(8, json.split("\\{\"id\": ").length - 1);   // 4 players and 4 decks
+            Matcher turns = Pattern.compile("\"turns\": (\\d+)").matcher(json);
+            Matcher latency = Pattern.compile("\"turnLatencyNanos\": \\{\"count\": (\\d+)").matcher(json);
+            assertTrue(turns.find() && latency.find());
+            assertEquals(turns.group(1), latency.group(1));
+            assertEquals(Long.parseLong(turns.group(1)), game.getTurnCount());
+            tearDown();
+        }
+
+        // The sharded engine plays on local decks, whatever the options say:
+        game = new CardGame(new GameOptions().setEngine(Engine.SHARDED).setShards(2).setDeckType(DeckType.RING)
+                .setMetricsMode(MetricsMode.JSON));
+        game.start(4, pack);
+        assertTrue(Files.readString(new File("out/metrics.json").toPath())
+                .startsWith("{\"players\": 4, \"engine\": \"sharded\", \"deck\": \"local\""));
+        tearDown();
+
+        game = new CardGame();
+        game.start(4, pack);
+        assertFalse(new File("out/metrics.json").exists());
+    }
+
+    /**
+     * Test that a recording holds a turn event, a drawn and a discarded card per turn, and one win by the winner.
+     */
+    @Test
+    public void testRecordingFile() throws Exception {
+        File pack = makeTempValidPack(4);
+        File jfr = File.createTempFile("game", ".jfr");
+        jfr.deleteOnExit();
+        game = new CardGame(new GameOptions().setEngine(Engine.SEQUENTIAL).setSeed(7L).setRecordingFile(jfr));
+        game.start(4, pack);
+
+        Map<String, Integer> counts = new HashMap<>();
+        int winner = 0;
+        for (RecordedEvent e : RecordingFile.readAllEvents(jfr.toPath())) {
+            String name = e.getEventType().getName();
+            counts.merge(name, 1, Integer::sum);
+            if (name.equals("cardgame.Win")) winner = e.getInt("playerId");
+            if (name.equals("cardgame.Turn")) {
+                assertEquals(e.getInt("playerId"), e.getInt("fromDeck"));
+                assertEquals(e.getInt("playerId") % 4 + 1, e.getInt("toDeck"));
+            }
+        }
+        long turns = game.getTurnCount();
+        assertEquals(turns, (long) counts.getOrDefault("cardgame.Turn", 0));
+        assertEquals(turns, (long) counts.getOrDefault("cardgame.CardDrawn", 0));
+        assertEquals(turns, (long) counts.getOrDefault("cardgame.CardDiscarded", 0));
+        assertEquals(1, (int) counts.getOrDefault("cardgame.Win", 0));
+        String log = Files.readString(new File("out/player" + winner + "_output.txt").toPath());
+        assertTrue(log.contains("player " + winner + " wins"));
+    }
+
+    /**
+     * Test that an archived game holds the same files as a game written to a directory, in both log modes,
+     * and leaves no other files in the output directory.
+     */
+    @Test
+    public void testArchiveOutput() throws Exception {
+        File pack = makeTempValidPack(4);
+        for (LogMode logMode : new LogMode[] {LogMode.DIRECT, LogMode.ASYNC}) {
+            GameOptions options = new GameOptions().setEngine(Engine.SEQUENTIAL).setSeed(11L).setLogMode(logMode);
+            new CardGame(options).start(4, pack);
+            Map<String, String> files = new TreeMap<>();
+            for (File f : Objects.requireNonNull(new File("out").listFiles())) {
+                files.put(f.getName(), Files.readString(f.toPath()));
+            }
+            tearDown();
+
+            new CardGame(options.setOutputMode(OutputMode.ARCHIVE)).start(4, pack);
+            assertArrayEquals(new String[] {CardGame.ARCHIVE_NAME}, new File("out").list());
+            try (OutputArchive archive = new OutputArchive(new File("out", CardGame.ARCHIVE_NAME))) {
+                assertEquals(files.keySet(), new TreeSet<>(archive.names()));
+                for (String name : archive.names()) {
+                    assertEquals(files.get(name), new String(archive.read(name)));
+                }
+            }
+            tearDown();
+        }
+    }
+
+    /**
+     * Test that binary logging writes an event file in place of the player logs, which renders as the same text.
+     */
+    @Test
+    public void testBinaryLog() throws Exception {
+        File pack = makeTempValidPack(4);
+        GameOptions options = new GameOptions().setEngine(Engine.SEQUENTIAL).setSeed(5L);
+        new CardGame(options).start(4, pack);
+        Map<String, String> files = new TreeMap<>();
+        for (File f : Objects.requireNonNull(new File("out").listFiles())) {
+            if (f.getName().startsWith("player")) files.put(f.getName(), Files.readString(f.toPath()));
+        }
+        tearDown();
+
+        new CardGame(options.setLogMode(LogMode.BINARY)).start(4, pack);
+        assertFalse(new File("out/player1_output.txt").exists());
+        assertTrue(new File("out/deck1_output.txt").exists());
+        File rendered = Files.createTempDirectory("rendered").toFile();
+        assertEquals(4, EventLog.renderAll(new File("out", CardGame.EVENTS_NAME), OutputSink.directory(rendered)));
+        for (Map.Entry<String, String> e : files.entrySet()) {
+            assertEquals(e.getValue(), Files.readString(new File(rendered, e.getKey()).toPath()));
+        }
+    }
+
     /**
      * Clean up after tests: remove output files.
      */
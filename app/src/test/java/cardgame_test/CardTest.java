@@ -28,6 +28,24 @@ public class CardTest {
         new Card(-1);
     }
 
+    /**
+     * Tests that common values share one cached card, and other values still get a card.
+     */
+    @Test
+    public void testFlyweightCards() {
+        assertSame(Card.of(7), Card.of(7));
+        assertEquals(7, Card.of(7).getValue());
+        assertEquals(1_000_000, Card.of(1_000_000).getValue());
+    }
+
+    /**
+     * Tests that the factory rejects negative values like the constructor.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidFlyweightCard() {
+        Card.of(-1);
+    }
+
     /**
      * Tests that a card's value can be converted to a string.
      */
@@ -0,0 +1,251 @@
+// CheckpointTest.java
+
+package cardgame_test;
+
+import cardgame.*;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the {@link cardgame.Checkpoint} class, and saving and resuming a {@link cardgame.CardGame}.
+ */
+public class CheckpointTest {
+
+    private File dir;
+
+    /**
+     * Create an empty directory for each test's checkpoints, and an empty output directory.
+     *
+     * @throws IOException if the directory can't be created.
+     */
+    @Before
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("checkpoint").toFile();
+        tearDown();
+    }
+
+    /**
+     * Utility function to make a small checkpoint of 2 players.
+     *
+     * @param deck1 the cards of deck 1; deck 2 holds the rest, so the game has 16 cards.
+     * @return the checkpoint.
+     */
+    private Checkpoint twoPlayers(int... deck1) {
+        int[] deck2 = Arrays.copyOf(new int[] {20, 21, 22, 23, 24, 25, 26, 27}, 8 - deck1.length);
+        return new Checkpoint(DeckType.LINKED, new long[] {41, 40}, new long[] {123456789L, 1L << 47},
+                new long[] {10, 0}, new int[][] {{1, 1, 1, 5}, {6, 7, 8, 9}}, new int[][] {deck1, deck2});
+    }
+
+    /**
+     * Utility function to write a pack of distinct cards, so nobody can ever win.
+     *
+     * @param n the number of players.
+     * @return the pack file.
+     * @throws IOException if the file can't be written.
+     */
+    private File unwinnablePack(int n) throws IOException {
+        File file = new File(dir, "pack.txt");
+        try (PrintWriter w = new PrintWriter(file)) {
+            for (int i = 0; i < 8 * n; i++) {
+                w.println(100 + i);
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Test that a checkpoint reads back as written, in a few bytes per player.
+     *
+     * @throws IOException if the checkpoint can't be written or read.
+     */
+    @Test
+    public void testWriteAndRead() throws IOException {
+        File file = new File(dir, "game.ckp");
+        Checkpoint written = twoPlayers(1, 10, 11);
+        written.write(file);
+        assertTrue(file.length() < 60);
+        assertArrayEquals(new String[] {"game.ckp"}, dir.list());    // No temporary file left
+
+        Checkpoint read = Checkpoint.read(file);
+        assertEquals(2, read.getNumPlayers());
+        assertEquals(DeckType.LINKED, read.getDeckType());
+        assertEquals(81, read.getTotalTurns());
+        for (int id = 1; id <= 2; id++) {
+            assertEquals(written.getTurns(id), read.getTurns(id));
+            assertEquals(written.getRandomState(id), read.getRandomState(id));
+            assertEquals(written.getLogLength(id), read.getLogLength(id));
+            assertArrayEquals(written.getHand(id), read.getHand(id));
+            assertArrayEquals(written.getDeck(id), read.getDeck(id));
+        }
+    }
+
+    /**
+     * Test that damaged files and impossible games are rejected.
+     *
+     * @throws IOException if a file can't be written.
+     */
+    @Test
+    public void testInvalidCheckpoints() throws IOException {
+        File file = new File(dir, "game.ckp");
+        twoPlayers(1, 10, 11).write(file);
+        byte[] bytes = Files.readAllBytes(file.toPath());
+
+        // A changed card, a lost end and another file:
+        byte[] changed = bytes.clone();
+        changed[20] ^= 1;
+        Files.write(file.toPath(), changed);
+        assertThrows(IOException.class, () -> Checkpoint.read(file));
+        Files.write(file.toPath(), Arrays.copyOf(bytes, bytes.length - 5));
+        assertThrows(IOException.class, () -> Checkpoint.read(file));
+        Files.writeString(file.toPath(), "1\n2\n3\n");
+        assertThrows(IOException.class, () -> Checkpoint.read(file));
+
+        // A player count the body can't hold, with the body and its checksum intact:
+        for (int n : new int[] {3, Integer.MAX_VALUE}) {
+            byte[] counted = bytes.clone();
+            ByteBuffer.wrap(counted).putInt(8, n);
+            Files.write(file.toPath(), counted);
+            assertThrows(IOException.class, () -> Checkpoint.read(file));
+        }
+
+        // Too many cards, and a short hand:
+        int[][] hands = {{1, 2, 3, 4}, {1, 2, 3, 4}};
+        assertThrows(IllegalArgumentException.class, () -> new Checkpoint(DeckType.LINKED, new long[2],
+                new long[2], new long[2], hands, new int[][] {{1, 2, 3}, {4, 5, 6, 7, 8, 9}}));
+        assertThrows(IllegalArgumentException.class, () -> new Checkpoint(DeckType.LINKED, new long[1],
+                new long[1], new long[1], new int[][] {{1, 2, 3}}, new int[][] {{1, 2, 3, 4, 5}}));
+    }
+
+    /**
+     * Test that an interrupted game is saved at a consistent point: every card once, every log as long as saved,
+     * and that resuming it carries on from there, keeping the logs.
+     *
+     * @throws Exception if the game is interrupted or a file can't be read.
+     */
+    @Test
+    public void testInterruptAndResume() throws Exception {
+        File pack = unwinnablePack(4);
+        File file = new File(dir, "game.ckp");
+        GameOptions options = new GameOptions().setDeckType(DeckType.RING).setLogMode(LogMode.ASYNC)
+                .setCheckpointFile(file).setCheckpointInterval(Duration.ofMillis(20));
+        playUntilSaved(() -> new CardGame(options).start(4, pack), file, 2);
+
+        Checkpoint first = Checkpoint.read(file);
+        assertEquals(DeckType.RING, first.getDeckType());
+        assertTrue(first.getTotalTurns() > 0);
+        List<Integer> cards = new ArrayList<>();
+        List<String> logs = new ArrayList<>();
+        for (int id = 1; id <= 4; id++) {
+            for (int v : first.getHand(id)) cards.add(v);
+            for (int v : first.getDeck(id)) cards.add(v);
+            String log = Files.readString(new File("out/player" + id + "_output.txt").toPath());
+            assertEquals(first.getLogLength(id), log.length());
+            String hand = Arrays.toString(first.getHand(id)).replaceAll("[\\[\\],]", "");
+            assertTrue(log.endsWith(" " + hand + "\n"));     // The last hand logged is the saved hand
+            logs.add(log);
+        }
+        cards.sort(null);
+        for (int i = 0; i < cards.size(); i++) {
+            assertEquals(100 + i, (int) cards.get(i));
+        }
+
+        // Resume, and save again:
+        GameOptions resumed = new GameOptions().setCheckpointFile(file).setCheckpointInterval(Duration.ofMillis(20));
+        playUntilSaved(() -> new CardGame(resumed).resume(file), file, 1);
+        Checkpoint second = Checkpoint.read(file);
+        assertEquals(DeckType.RING, second.getDeckType());
+        for (int id = 1; id <= 4; id++) {
+            assertTrue(second.getTurns(id) >= first.getTurns(id));
+            String log = Files.readString(new File("out/player" + id + "_output.txt").toPath());
+            assertTrue(log.startsWith(logs.get(id - 1)));
+            assertEquals(1, log.split("initial hand", -1).length - 1);
+        }
+        assertTrue(second.getTotalTurns() > first.getTotalTurns());
+    }
+
+    /**
+     * Test that a resumed game continues from the saved hands and decks, and cuts the logs back to their saved
+     * length: player 1 holds three 1s with a 1 on top of its deck, so wins at once.
+     *
+     * @throws IOException if a file can't be written or read.
+     */
+    @Test
+    public void testResumeFromSavedState() throws IOException {
+        File file = new File(dir, "game.ckp");
+        twoPlayers(1, 10, 11).write(file);
+        new File("out").mkdirs();
+        Files.writeString(new File("out/player1_output.txt").toPath(), "saved....\nlost after the checkpoint\n");
+        Files.writeString(new File("out/player2_output.txt").toPath(), "lost\n");
+
+        CardGame game = new CardGame(new GameOptions().setDeckType(DeckType.RING).setMetricsMode(MetricsMode.JSON));
+        game.resume(file);
+
+        String log1 = Files.readString(new File("out/player1_output.txt").toPath());
+        assertTrue(log1.startsWith("saved....\nplayer 1 draws a 1 from deck 1\nplayer 1 discards a 5 to deck 2\n"));
+        assertTrue(log1.contains("player 1 wins\n"));
+        assertFalse(log1.contains("lost"));
+        String log2 = Files.readString(new File("out/player2_output.txt").toPath());
+        assertFalse(log2.contains("lost"));
+        assertTrue(log2.contains("player 1 has informed player 2 that player 1 has won\n"));
+        assertTrue(game.getTurnCount() > 81);
+        assertTrue(new File("out/deck1_output.txt").exists());
+        String metrics = Files.readString(new File("out/metrics.json").toPath());
+        assertTrue(metrics.contains("\"deck\": \"linked\""));     // The saved game's decks, not the options'
+
+        // Only the threads engine can be resumed:
+        tearDown();
+        new CardGame(new GameOptions().setEngine(Engine.SEQUENTIAL)).resume(file);
+        assertFalse(new File("out/player1_output.txt").exists());
+    }
+
+    /**
+     * Utility function to play an endless game on another thread until it has saved a number of checkpoints,
+     * then interrupt it, which saves it once more.
+     *
+     * @param game plays the game.
+     * @param file the checkpoint file.
+     * @param checkpoints the number of checkpoints to wait for.
+     * @throws InterruptedException if the test is interrupted.
+     */
+    private void playUntilSaved(Runnable game, File file, int checkpoints) throws InterruptedException {
+        long modified = file.lastModified();
+        Thread t = new Thread(game);
+        t.start();
+        for (int saved = 0; saved < checkpoints; ) {
+            Thread.sleep(5);
+            if (file.lastModified() != modified && file.exists()) {
+                modified = file.lastModified();
+                saved++;
+            }
+        }
+        t.interrupt();
+        t.join();
+    }
+
+    /**
+     * Clean up after tests: remove output files.
+     */
+    @After
+    public void tearDown() {
+        File out = new File("out");
+        if (out.exists()) {
+            for (File f : Objects.requireNonNull(out.listFiles())) {
+                f.delete();
+            }
+            out.delete();
+        }
+    }
+}
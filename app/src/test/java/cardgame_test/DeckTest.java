@@ -72,6 +72,45 @@ public class DeckTest {
         assertEquals("5 10", deck.contentsAsString());
     }
 
+    /**
+     * Tests that card values can be added and drawn without card objects.
+     * Adds enough cards to grow the storage after the top has moved, so the order must survive the wrap.
+     */
+    @Test
+    public void testAddAndDrawValues() {
+        Deck deck = new Deck();
+        for (int i = 0; i < 6; i++) {
+            deck.addValue(i);
+        }
+        assertEquals(0, deck.drawValue());
+        assertEquals(1, deck.drawValue());
+        for (int i = 6; i < 20; i++) {
+            deck.addValue(i);
+        }
+        assertEquals(18, deck.size());
+
+        for (int i = 2; i < 20; i++) {
+            assertEquals(i, deck.drawValue());
+        }
+        assertEquals(Deck.EMPTY, deck.drawValue());
+        assertNull(deck.drawCard());
+    }
+
+    /**
+     * Tests that a negative card value, which would read back as {@link Deck#EMPTY}, is rejected by every deck.
+     */
+    @Test
+    public void testAddNegativeValue() {
+        for (DeckType type : DeckType.values()) {
+            Deck deck = type.create(4);
+            assertThrows(type.name(), IllegalArgumentException.class, () -> deck.addValue(-1));
+            assertThrows(type.name(), IllegalArgumentException.class, () -> deck.addValue(Integer.MIN_VALUE));
+            deck.addValue(0);
+            assertEquals(type.name(), 1, deck.size());
+            assertEquals(type.name(), 0, deck.drawValue());
+        }
+    }
+
     /**
      * Tests that the synchronised deck array can be accessed by multiple threads.
      *
@@ -107,4 +146,44 @@ public class DeckTest {
         // Deck should now be empty (size = 0).
         assertEquals(0, deck.size());
     }
+
+    /**
+     * Tests that a player parked waiting for a card is woken by the next add, not by the timeout.
+     *
+     * @throws InterruptedException if the test is interrupted.
+     */
+    @Test
+    public void testAddWakesWaitingDrawer() throws InterruptedException {
+        Deck deck = new Deck();
+        long[] waited = {0};
+        Thread drawer = new Thread(() -> {
+            long start = System.nanoTime();
+            deck.awaitCard(60_000_000_000L);
+            waited[0] = System.nanoTime() - start;
+        });
+        drawer.start();
+
+        // Wait for the drawer to park, then add:
+        while (drawer.getState() != Thread.State.TIMED_WAITING) {
+            Thread.sleep(1);
+        }
+        deck.addValue(5);
+        drawer.join(10_000);
+
+        assertFalse(drawer.isAlive());
+        assertTrue("Waited " + waited[0] + " ns", waited[0] < 10_000_000_000L);
+        assertEquals(5, deck.drawValue());
+    }
+
+    /**
+     * Tests that waiting for a card returns at once if the deck already holds one.
+     */
+    @Test
+    public void testAwaitCardWhenNotEmpty() {
+        Deck deck = new Deck();
+        deck.addValue(1);
+        long start = System.nanoTime();
+        deck.awaitCard(60_000_000_000L);
+        assertTrue(System.nanoTime() - start < 10_000_000_000L);
+    }
 }
@@ -0,0 +1,115 @@
+// EventLogTest.java
+
+package cardgame_test;
+
+import cardgame.*;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the {@link cardgame.EventLog} class.
+ */
+public class EventLogTest {
+
+    private File dir;
+    private File events;
+
+    /**
+     * Create an empty directory for each test's files.
+     *
+     * @throws IOException if the directory can't be created.
+     */
+    @Before
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("event_log").toFile();
+        events = new File(dir, "events.cge");
+    }
+
+    /**
+     * Records the same events for a player as a game would: initial hand, turns, then an exit.
+     *
+     * @param log the player's log.
+     * @param playerId the player's ID.
+     * @param won whether the player wins or is informed of another player's win.
+     */
+    private void playEvents(PlayerLog log, int playerId, boolean won) {
+        int[] hand = {playerId, 2, 3, 4, 0};
+        log.initialHand(hand, 4);
+        for (int turn = 0; turn < 500; turn++) {
+            hand[turn % 4] = turn % 7 + playerId;
+            log.turn(turn % 9, playerId, turn % 5 + 100_000, playerId + 1, hand, 4);
+        }
+        if (won) {
+            log.won(new int[]{7, 7, 7, 7}, 4);
+        } else {
+            log.error("Deck " + playerId + " failed: ünexpected state, with a message longer than one record");
+            log.informed(3, hand, 4);
+        }
+        log.close();
+    }
+
+    /**
+     * Tests that rendered logs are identical to the text written directly, for interleaved players.
+     *
+     * @throws IOException if the logs can't be written or read.
+     */
+    @Test
+    public void testRenderMatchesText() throws IOException {
+        StringWriter[] expected = new StringWriter[4];
+        try (EventLog log = new EventLog(events)) {
+            PlayerLog[] logs = new PlayerLog[4];
+            for (int id = 1; id <= 3; id++) {
+                logs[id] = log.open(id);
+            }
+            for (int id = 1; id <= 3; id++) {
+                expected[id] = new StringWriter();
+                playEvents(new TextPlayerLog(id, expected[id]), id, id == 2);
+                playEvents(logs[id], id, id == 2);
+            }
+        }
+
+        for (int id = 1; id <= 3; id++) {
+            StringWriter rendered = new StringWriter();
+            EventLog.render(events, id, rendered);
+            assertEquals(expected[id].toString(), rendered.toString());
+        }
+
+        File out = new File(dir, "out");
+        assertEquals(3, EventLog.renderAll(events, OutputSink.directory(out)));
+        assertEquals(expected[1].toString(), Files.readString(new File(out, "player1_output.txt").toPath()));
+    }
+
+    /**
+     * Tests that a turn takes one fixed-width record, far less than its text.
+     *
+     * @throws IOException if the log can't be written.
+     */
+    @Test
+    public void testRecordSize() throws IOException {
+        StringWriter text = new StringWriter();
+        try (EventLog log = new EventLog(events)) {
+            playEvents(log.open(1), 1, true);
+        }
+        playEvents(new TextPlayerLog(1, text), 1, true);
+
+        assertEquals(16 + 40 * 502, events.length());     // Header, initial hand, 500 turns and the win
+        assertTrue(text.toString().length() > 2 * events.length());
+    }
+
+    /**
+     * Tests that a file that isn't an event file can't be rendered.
+     *
+     * @throws IOException if the file can't be written.
+     */
+    @Test
+    public void testInvalidFile() throws IOException {
+        Files.writeString(events.toPath(), "1\n2\n3\n4\n5\n6\n7\n8\n9\n10\n11\n12\n");
+        assertThrows(IOException.class, () -> EventLog.render(events, 1, new StringWriter()));
+    }
+}
@@ -0,0 +1,171 @@
+// GameContextTest.java
+
+package cardgame_test;
+
+import cardgame.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the {@link cardgame.GameContext} class.
+ */
+public class GameContextTest {
+
+    /**
+     * Tests that every game numbers its players and decks from 1, independently of other games.
+     */
+    @Test
+    public void testIdsPerGame() {
+        GameContext first = new GameContext();
+        GameContext second = new GameContext();
+
+        assertEquals(1, new Deck(first).getDeckId());
+        assertEquals(2, new Deck(first).getDeckId());
+        assertEquals(1, new Deck(second).getDeckId());
+        assertEquals(1, first.nextPlayerId());
+        assertEquals(1, second.nextPlayerId());
+    }
+
+    /**
+     * Tests that only the first claim wins, and that a win in one game does not end another.
+     */
+    @Test
+    public void testClaimWin() {
+        GameContext first = new GameContext();
+        GameContext second = new GameContext();
+        assertNull(first.getWinnerId());
+
+        assertTrue(first.claimWin(3));
+        assertFalse(first.claimWin(2));
+        assertEquals(Integer.valueOf(3), first.getWinnerId());
+        assertNull(second.getWinnerId());
+    }
+
+    /**
+     * Tests that when many players claim a win at once, exactly one succeeds and every ID is handed out once.
+     *
+     * @throws InterruptedException if the test is interrupted.
+     */
+    @Test
+    public void testConcurrentClaims() throws InterruptedException {
+        GameContext context = new GameContext();
+        int n = 64;
+        CountDownLatch go = new CountDownLatch(1);
+        AtomicInteger winners = new AtomicInteger();
+        boolean[] seen = new boolean[n + 1];
+        Thread[] threads = new Thread[n];
+        for (int i = 0; i < n; i++) {
+            threads[i] = new Thread(() -> {
+                int id = context.nextPlayerId();
+                synchronized (seen) {
+                    assertFalse(seen[id]);
+                    seen[id] = true;
+                }
+                try {
+                    go.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (context.claimWin(id)) winners.incrementAndGet();
+            });
+            threads[i].start();
+        }
+        go.countDown();
+        for (Thread t : threads) {
+            t.join();
+        }
+
+        assertEquals(1, winners.get());
+        assertTrue(context.isOver());
+        assertNotNull(context.getWinnerId());
+        assertEquals(n + 1, context.nextPlayerId());
+    }
+
+    /**
+     * Tests that a stopped game is over with no winner, and can't be won afterwards.
+     */
+    @Test
+    public void testStop() {
+        GameContext context = new GameContext();
+        assertFalse(context.isOver());
+        assertTrue(context.stop());
+        assertTrue(context.isOver());
+        assertFalse(context.claimWin(1));
+        assertNull(context.getWinnerId());
+        assertFalse(context.stop());
+    }
+
+    /**
+     * Tests that the game-over action runs exactly once, when the game ends.
+     */
+    @Test
+    public void testOnOver() {
+        GameContext context = new GameContext();
+        int[] runs = {0};
+        context.setOnOver(() -> runs[0]++);
+
+        assertEquals(0, runs[0]);
+        assertTrue(context.claimWin(2));
+        assertFalse(context.stop());
+        assertEquals(1, runs[0]);
+    }
+
+    /**
+     * Tests that a pause stops every player until it is resumed, that a later pause stops them again, and that a
+     * win during a pause ends the game.
+     *
+     * @throws InterruptedException if the test is interrupted.
+     */
+    @Test
+    public void testPauseAndResume() throws InterruptedException {
+        GameContext context = new GameContext();
+        int n = 4;
+        AtomicLongArray turns = new AtomicLongArray(n);
+        Thread[] threads = new Thread[n];
+        for (int i = 0; i < n; i++) {
+            int player = i;
+            threads[i] = new Thread(() -> {
+                do {
+                    while (!context.isOver()) {
+                        turns.incrementAndGet(player);
+                        Thread.yield();
+                    }
+                } while (context.awaitResume());
+            });
+            threads[i].start();
+        }
+
+        for (int pause = 0; pause < 3; pause++) {
+            assertTrue(context.pause());
+            assertFalse(context.pause());
+            assertTrue(context.awaitPaused(n));
+            assertTrue(context.isOver());
+            assertNull(context.getWinnerId());
+
+            // Nobody plays while paused:
+            long[] stopped = new long[n];
+            for (int i = 0; i < n; i++) stopped[i] = turns.get(i);
+            Thread.sleep(20);
+            for (int i = 0; i < n; i++) assertEquals(stopped[i], turns.get(i));
+
+            // Everybody plays again once resumed:
+            assertTrue(context.resume());
+            for (int i = 0; i < n; i++) {
+                while (turns.get(i) == stopped[i]) Thread.sleep(1);
+            }
+        }
+
+        assertTrue(context.pause());
+        assertTrue(context.awaitPaused(n));
+        assertTrue(context.claimWin(2));
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertFalse(context.resume());
+        assertEquals(Integer.valueOf(2), context.getWinnerId());
+        assertFalse(context.awaitPaused(n));
+    }
+}
@@ -0,0 +1,300 @@
+// GameEventPublisherTest.java
+
+package cardgame_test;
+
+import cardgame.*;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the {@link cardgame.GameEventPublisher} class, and a game's stream of events.
+ */
+public class GameEventPublisherTest {
+
+    /**
+     * A subscriber that keeps every event, asking for a given number at first.
+     */
+    private static class Collector implements Flow.Subscriber<GameEvent> {
+
+        final List<GameEvent> events = new ArrayList<>();
+        final CountDownLatch done = new CountDownLatch(1);
+        final long initialRequest;
+        Flow.Subscription subscription;
+        Throwable error;
+
+        /**
+         * Constructs the collector.
+         *
+         * @param initialRequest the number of events to ask for on subscribing, or 0.
+         */
+        Collector(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (initialRequest > 0) subscription.request(initialRequest);
+        }
+
+        @Override
+        public synchronized void onNext(GameEvent event) {
+            events.add(event);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            done.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            done.countDown();
+        }
+
+        /**
+         * Describes the events received so far.
+         *
+         * @return their descriptions, in order.
+         */
+        synchronized List<String> lines() {
+            return events.stream().map(GameEvent::toString).toList();
+        }
+    }
+
+    /**
+     * Utility function to make a publisher that delivers on the calling thread, by default dropping events.
+     *
+     * @return the publisher.
+     */
+    private GameEventPublisher directPublisher() {
+        return new GameEventPublisher(Runnable::run, 4, OverflowPolicy.DROP);
+    }
+
+    /**
+     * Test that a game publishes every player's deal, turns and exit, in order, matching its log files,
+     * with a single win.
+     *
+     * @throws Exception if the pack or the logs can't be read or written, or the test is interrupted.
+     */
+    @Test
+    public void testGameEvents() throws Exception {
+        File pack = File.createTempFile("valid", ".txt");
+        try (PrintWriter w = new PrintWriter(pack)) {
+            for (int i = 0; i < 32; i++) {
+                w.println(i % 5);
+            }
+        }
+        CardGame game = new CardGame();
+        Collector collector = new Collector(Long.MAX_VALUE);
+        game.getEvents().subscribe(collector, 16, OverflowPolicy.BLOCK);    // Small, so players must wait
+        game.start(4, pack);
+        assertTrue(collector.done.await(10, TimeUnit.SECONDS));
+        assertNull(collector.error);
+        assertEquals(0, game.getEvents().getDroppedEvents());
+
+        List<GameEvent> events = collector.events;
+        List<GameEvent> wins = events.stream().filter(e -> e.getKind() == GameEventKind.WIN).toList();
+        assertEquals(1, wins.size());
+        int winnerId = wins.get(0).getPlayerId();
+        assertEquals(2 * game.getTurnCount() + 4 + 4 + 1, events.size());
+        for (int id = 1; id <= 4; id++) {
+            final int playerId = id;
+            List<GameEvent> own = events.stream().filter(e -> e.getPlayerId() == playerId).toList();
+            assertEquals(GameEventKind.DEAL, own.get(0).getKind());
+            GameEvent exit = own.get(own.size() - 1);
+            assertEquals(GameEventKind.EXIT, exit.getKind());
+            assertEquals(winnerId, exit.getWinnerId());
+
+            // The draws and discards are the log's lines, in the same order:
+            List<String> logged = Files.readAllLines(new File("out/player" + id + "_output.txt").toPath()).stream()
+                    .filter(line -> line.contains(" draws ") || line.contains(" discards ")).toList();
+            List<String> published = own.stream()
+                    .filter(e -> e.getKind() == GameEventKind.DRAW || e.getKind() == GameEventKind.DISCARD)
+                    .map(GameEvent::toString).toList();
+            assertEquals(logged, published);
+        }
+    }
+
+    /**
+     * Test that a full buffer drops new events under the drop policy, and delivers the rest once requested.
+     *
+     * @throws IOException never: the logs write nothing.
+     */
+    @Test
+    public void testDropWhenFull() throws IOException {
+        GameEventPublisher publisher = directPublisher();
+        Collector collector = new Collector(0);
+        publisher.subscribe(collector, 3, OverflowPolicy.DROP);
+        PlayerLog log = publisher.wrap(PlayerLogFactory.NONE).open(1);
+        log.initialHand(new int[] {1, 2, 3, 4}, 4);
+        log.turn(5, 1, 2, 2, new int[] {1, 3, 4, 5}, 4);
+        log.turn(6, 1, 3, 2, new int[] {1, 4, 5, 6}, 4);
+        assertTrue(collector.events.isEmpty());     // Nothing requested yet
+        assertEquals(2, publisher.getDroppedEvents());
+
+        collector.subscription.request(10);
+        assertEquals(List.of("player 1 initial hand 1 2 3 4", "player 1 draws a 5 from deck 1",
+                "player 1 discards a 2 to deck 2"), collector.lines());
+        assertArrayEquals(new int[] {1, 3, 4, 5}, collector.events.get(2).getHand());
+        assertNull(collector.events.get(1).getHand());
+
+        publisher.close();
+        assertEquals(0, collector.done.getCount());
+        assertNull(collector.error);
+    }
+
+    /**
+     * Test that a full buffer keeps each player's latest draw and discard under the coalesce policy, and drops
+     * the oldest event when nothing can be replaced.
+     *
+     * @throws IOException never: the logs write nothing.
+     */
+    @Test
+    public void testCoalesceWhenFull() throws IOException {
+        GameEventPublisher publisher = directPublisher();
+        Collector collector = new Collector(0);
+        publisher.subscribe(collector, 3, OverflowPolicy.COALESCE);
+        PlayerLogFactory logs = publisher.wrap(PlayerLogFactory.NONE);
+        PlayerLog log1 = logs.open(1);
+        log1.initialHand(new int[] {1, 2, 3, 4}, 4);
+        for (int v = 5; v <= 7; v++) {
+            log1.turn(v, 1, v - 3, 2, new int[] {1, 2, 3, v}, 4);
+        }
+        logs.open(2).initialHand(new int[] {2, 2, 2, 9}, 4);
+        assertEquals(5, publisher.getDroppedEvents());
+
+        collector.subscription.request(Long.MAX_VALUE);
+        assertEquals(List.of("player 1 draws a 7 from deck 1", "player 1 discards a 4 to deck 2",
+                "player 2 initial hand 2 2 2 9"), collector.lines());
+    }
+
+    /**
+     * Test that a full buffer makes the player wait under the block policy, losing nothing, until the subscriber
+     * requests more.
+     *
+     * @throws Exception if the log can't be opened or the test is interrupted.
+     */
+    @Test
+    public void testBlockWhenFull() throws Exception {
+        GameEventPublisher publisher = directPublisher();
+        Collector collector = new Collector(0);
+        publisher.subscribe(collector, 1, OverflowPolicy.BLOCK);
+        PlayerLog log = publisher.wrap(PlayerLogFactory.NONE).open(1);
+        Thread player = new Thread(() -> {
+            log.turn(5, 1, 2, 2, new int[] {1, 3, 4, 5}, 4);
+            log.won(new int[] {1, 1, 1, 1}, 4);
+        });
+        player.start();
+        while (player.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+
+        collector.subscription.request(Long.MAX_VALUE);
+        player.join();
+        assertEquals(List.of("player 1 draws a 5 from deck 1", "player 1 discards a 2 to deck 2",
+                "player 1 wins", "player 1 exits"), collector.lines());
+        assertEquals(0, publisher.getDroppedEvents());
+    }
+
+    /**
+     * Test that a subscriber that never requests anything can't hang a blocking game: the players give up their
+     * events for each checkpoint's pause, and again when the game is interrupted.
+     *
+     * @throws Exception if the pack can't be written or the test is interrupted.
+     */
+    @Test(timeout = 30_000)
+    public void testStalledSubscriberDoesNotHang() throws Exception {
+        File pack = File.createTempFile("pack", ".txt");
+        pack.deleteOnExit();
+        try (PrintWriter w = new PrintWriter(pack)) {
+            for (int i = 0; i < 32; i++) {
+                w.println(100 + i);     // Nobody can ever win
+            }
+        }
+        File checkpoint = File.createTempFile("game", ".ckp");
+        checkpoint.delete();
+        checkpoint.deleteOnExit();
+
+        CardGame game = new CardGame(new GameOptions().setCheckpointFile(checkpoint)
+                .setCheckpointInterval(Duration.ofMillis(20)));
+        Collector stalled = new Collector(0);
+        game.getEvents().subscribe(stalled, 1, OverflowPolicy.BLOCK);
+        Thread t = new Thread(() -> game.start(4, pack));
+        t.start();
+        while (!checkpoint.exists()) {
+            Thread.sleep(5);
+        }
+        t.interrupt();
+        t.join();
+        assertTrue(game.getEvents().getDroppedEvents() > 0);
+
+        // The buffered event, then the end of the stream:
+        stalled.subscription.request(Long.MAX_VALUE);
+        assertTrue(stalled.done.await(10, TimeUnit.SECONDS));
+        assertEquals(1, stalled.events.size());
+    }
+
+    /**
+     * Test the subscription rules: cancelling stops publishing, a request that isn't positive fails, and a
+     * subscriber to a closed publisher completes at once.
+     *
+     * @throws IOException never: the logs write nothing.
+     */
+    @Test
+    public void testCancelAndInvalidRequest() throws IOException {
+        GameEventPublisher publisher = directPublisher();
+        assertSame(PlayerLogFactory.NONE, publisher.wrap(PlayerLogFactory.NONE));   // No subscribers: no events
+
+        Collector cancelled = new Collector(Long.MAX_VALUE);
+        publisher.subscribe(cancelled);
+        PlayerLog log = publisher.wrap(PlayerLogFactory.NONE).open(1);
+        log.initialHand(new int[] {1, 2, 3, 4}, 4);
+        cancelled.subscription.cancel();
+        assertFalse(publisher.hasSubscribers());
+        log.turn(5, 1, 2, 2, new int[] {1, 3, 4, 5}, 4);
+        log.close();
+        assertEquals(1, cancelled.events.size());
+
+        Collector invalid = new Collector(0);
+        publisher.subscribe(invalid);
+        invalid.subscription.request(0);
+        assertTrue(invalid.error instanceof IllegalArgumentException);
+        assertFalse(publisher.hasSubscribers());
+        assertThrows(IllegalArgumentException.class, () -> publisher.subscribe(new Collector(1), 0, OverflowPolicy.DROP));
+
+        publisher.close();
+        Collector late = new Collector(0);
+        publisher.subscribe(late);
+        assertEquals(0, late.done.getCount());
+        assertNull(late.error);
+    }
+
+    /**
+     * Clean up after tests: remove output files.
+     */
+    @After
+    public void tearDown() {
+        File out = new File("out");
+        if (out.exists()) {
+            for (File f : Objects.requireNonNull(out.listFiles())) {
+                f.delete();
+            }
+            out.delete();
+        }
+    }
+}
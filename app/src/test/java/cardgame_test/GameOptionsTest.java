@@ -0,0 +1,152 @@
+// GameOptionsTest.java
+
+package cardgame_test;
+
+import cardgame.*;
+import java.io.File;
+import java.time.Duration;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the {@link cardgame.GameOptions} class.
+ */
+public class GameOptionsTest {
+
+    /**
+     * Tests that no arguments give the default options.
+     */
+    @Test
+    public void testDefaults() {
+        GameOptions options = GameOptions.parse(new String[]{});
+        assertEquals(DeckType.LINKED, options.getDeckType());
+        assertEquals(0, options.getNumPlayers());
+        assertNull(options.getPackFile());
+        assertEquals(0, options.getSimulations());
+    }
+
+    /**
+     * Tests that the deck type can be chosen, ignoring case.
+     */
+    @Test
+    public void testDeckOption() {
+        GameOptions options = GameOptions.parse(new String[]{"--deck=Ring"});
+        assertEquals(DeckType.RING, options.getDeckType());
+    }
+
+    /**
+     * Tests that players can be run on virtual threads.
+     */
+    @Test
+    public void testThreadsOption() {
+        assertEquals(ThreadMode.PLATFORM, GameOptions.parse(new String[]{}).getThreadMode());
+        assertEquals(ThreadMode.VIRTUAL, GameOptions.parse(new String[]{"--threads=virtual"}).getThreadMode());
+    }
+
+    /**
+     * Tests the logging options.
+     */
+    @Test
+    public void testLogOptions() {
+        GameOptions options = GameOptions.parse(new String[]{"--log=async", "--log-writers=3"});
+        assertEquals(LogMode.ASYNC, options.getLogMode());
+        assertEquals(3, options.getLogWriters());
+    }
+
+    /**
+     * Tests the non-interactive and batch simulation options.
+     */
+    @Test
+    public void testSimulationOptions() {
+        GameOptions options = GameOptions.parse(new String[]{
+                "--players=4", "--pack=example_input.txt", "--simulate=1000", "--parallelism=2"});
+        assertEquals(4, options.getNumPlayers());
+        assertEquals("example_input.txt", options.getPackFile().getName());
+        assertEquals(1000, options.getSimulations());
+        assertEquals(2, options.getParallelism());
+    }
+
+    /**
+     * Tests that counts must be positive.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonPositiveCount() {
+        GameOptions.parse(new String[]{"--simulate=0"});
+    }
+
+    /**
+     * Tests that unknown options are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownOption() {
+        GameOptions.parse(new String[]{"--colour=red"});
+    }
+
+    /**
+     * Tests that unknown values are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidValue() {
+        GameOptions.parse(new String[]{"--deck=stack"});
+    }
+
+    /**
+     * Tests that players park by default, and can be made to spin.
+     */
+    @Test
+    public void testWaitOption() {
+        assertEquals(WaitMode.PARK, GameOptions.parse(new String[]{}).getWaitMode());
+        assertEquals(WaitMode.SPIN, GameOptions.parse(new String[]{"--wait=spin"}).getWaitMode());
+    }
+
+    /**
+     * Tests the single-threaded engine options, and that a seed must be an integer.
+     */
+    @Test
+    public void testEngineOptions() {
+        GameOptions defaults = GameOptions.parse(new String[]{});
+        assertEquals(Engine.THREADS, defaults.getEngine());
+        assertEquals(TurnOrder.ROUND_ROBIN, defaults.getTurnOrder());
+        assertNull(defaults.getSeed());
+
+        GameOptions options = GameOptions.parse(new String[]{"--engine=sequential", "--order=random", "--seed=-12"});
+        assertEquals(Engine.SEQUENTIAL, options.getEngine());
+        assertEquals(TurnOrder.RANDOM, options.getTurnOrder());
+        assertEquals(Long.valueOf(-12), options.getSeed());
+        assertThrows(IllegalArgumentException.class, () -> GameOptions.parse(new String[]{"--seed=x"}));
+
+        GameOptions sharded = GameOptions.parse(new String[]{"--engine=sharded", "--shards=3"});
+        assertEquals(Engine.SHARDED, sharded.getEngine());
+        assertEquals(3, sharded.getShards());
+        assertEquals(Runtime.getRuntime().availableProcessors(), defaults.getShards());
+        assertThrows(IllegalArgumentException.class, () -> GameOptions.parse(new String[]{"--shards=0"}));
+
+        GameOptions tasks = GameOptions.parse(new String[]{"--engine=tasks", "--workers=2"});
+        assertEquals(Engine.TASKS, tasks.getEngine());
+        assertEquals(2, tasks.getWorkers());
+        assertEquals(Runtime.getRuntime().availableProcessors(), defaults.getWorkers());
+
+        assertEquals(MetricsMode.OFF, defaults.getMetricsMode());
+        assertEquals(MetricsMode.JSON, GameOptions.parse(new String[]{"--metrics=json"}).getMetricsMode());
+
+        assertEquals(OutputMode.FILES, defaults.getOutputMode());
+        assertEquals(OutputMode.ARCHIVE, GameOptions.parse(new String[]{"--output=archive"}).getOutputMode());
+    }
+
+    /**
+     * Tests the checkpoint options: none by default, and an interval in whole seconds.
+     */
+    @Test
+    public void testCheckpointOptions() {
+        GameOptions defaults = GameOptions.parse(new String[]{});
+        assertNull(defaults.getCheckpointFile());
+        assertNull(defaults.getCheckpointInterval());
+        assertNull(defaults.getResumeFile());
+
+        GameOptions options = GameOptions.parse(new String[]{"--checkpoint=out/game.ckp", "--checkpoint-every=30"});
+        assertEquals(new File("out/game.ckp"), options.getCheckpointFile());
+        assertEquals(Duration.ofSeconds(30), options.getCheckpointInterval());
+        assertEquals(new File("game.ckp"), GameOptions.parse(new String[]{"--resume=game.ckp"}).getResumeFile());
+        assertThrows(IllegalArgumentException.class, () -> GameOptions.parse(new String[]{"--checkpoint-every=0"}));
+    }
+}
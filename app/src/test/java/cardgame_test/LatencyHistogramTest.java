@@ -0,0 +1,81 @@
+// LatencyHistogramTest.java
+
+package cardgame_test;
+
+import cardgame.*;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the {@link cardgame.LatencyHistogram} class.
+ */
+public class LatencyHistogramTest {
+
+    /**
+     * Tests that an empty histogram reports zeros.
+     */
+    @Test
+    public void testEmpty() {
+        LatencyHistogram h = new LatencyHistogram();
+        assertEquals(0, h.getCount());
+        assertEquals(0, h.getMax());
+        assertEquals(0, h.getMean(), 0);
+        assertEquals(0, h.getValueAtPercentile(99));
+    }
+
+    /**
+     * Tests that small values are exact, and the count, mean and maximum are exact for any values.
+     */
+    @Test
+    public void testExactValues() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (int v = 1; v <= 10; v++) {
+            h.record(v);
+        }
+        assertEquals(10, h.getCount());
+        assertEquals(5.5, h.getMean(), 0);
+        assertEquals(10, h.getMax());
+        assertEquals(5, h.getValueAtPercentile(50));
+        assertEquals(9, h.getValueAtPercentile(90));
+        assertEquals(10, h.getValueAtPercentile(100));
+    }
+
+    /**
+     * Tests that percentiles of large values are within 3% across many orders of magnitude.
+     */
+    @Test
+    public void testPrecision() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (long v = 1_000; v <= 100_000; v++) {
+            h.record(v);
+        }
+        for (double p : new double[]{10, 50, 90, 99, 99.9}) {
+            double expected = 1_000 + p / 100 * 99_000;
+            long actual = h.getValueAtPercentile(p);
+            assertTrue(p + "th percentile " + actual, Math.abs(actual - expected) <= 0.03 * expected);
+        }
+
+        LatencyHistogram big = new LatencyHistogram();
+        big.record(Long.MAX_VALUE);
+        big.record(-5);     // Recorded as 0
+        assertEquals(Long.MAX_VALUE, big.getValueAtPercentile(100));
+        assertEquals(0, big.getValueAtPercentile(50));
+    }
+
+    /**
+     * Tests that adding one histogram to another combines their values.
+     */
+    @Test
+    public void testAdd() {
+        LatencyHistogram a = new LatencyHistogram();
+        LatencyHistogram b = new LatencyHistogram();
+        a.record(10);
+        b.record(20);
+        b.record(30);
+        a.add(b);
+        assertEquals(3, a.getCount());
+        assertEquals(20, a.getMean(), 0);
+        assertEquals(30, a.getMax());
+        assertEquals(20, a.getValueAtPercentile(50));
+    }
+}
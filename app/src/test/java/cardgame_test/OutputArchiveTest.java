@@ -0,0 +1,245 @@
+// OutputArchiveTest.java
+
+package cardgame_test;
+
+import cardgame.*;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the {@link cardgame.OutputArchive} class and the {@link cardgame.OutputSink}s.
+ */
+public class OutputArchiveTest {
+
+    private File dir;
+    private File archiveFile;
+
+    /**
+     * Create an empty directory for each test's files.
+     *
+     * @throws IOException if the directory can't be created.
+     */
+    @Before
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("archive").toFile();
+        archiveFile = new File(dir, "output.cga");
+    }
+
+    /**
+     * Builds some text for a stream, long enough to need several segments.
+     *
+     * @param name the stream name, repeated through the text.
+     * @param lines the number of lines.
+     * @return the text.
+     */
+    private String text(String name, int lines) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            sb.append(name).append(" line ").append(i).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Tests that interleaved streams, including non-ASCII text, read back exactly and in the order opened.
+     *
+     * @throws IOException if the archive can't be written or read.
+     */
+    @Test
+    public void testRoundTrip() throws IOException {
+        String[] names = {"player1_output.txt", "player2_output.txt", "deck1_output.txt"};
+        String[] texts = {text("a", 500), text("b é€", 300), ""};
+        try (OutputSink sink = OutputSink.archive(archiveFile)) {
+            List<Writer> writers = new ArrayList<>();
+            for (String name : names) {
+                writers.add(sink.open(name));
+            }
+            // Write a line to each stream in turn:
+            for (int i = 0; i < 500; i++) {
+                for (int s = 0; s < names.length; s++) {
+                    String[] lines = texts[s].split("(?<=\n)");
+                    if (i < lines.length && !lines[i].isEmpty()) writers.get(s).write(lines[i]);
+                }
+            }
+            writers.get(0).close();     // The rest are closed by the sink
+        }
+
+        try (OutputArchive archive = new OutputArchive(archiveFile)) {
+            assertEquals(List.of(names), archive.names());
+            for (int s = 0; s < names.length; s++) {
+                assertEquals(texts[s], new String(archive.read(names[s]), StandardCharsets.UTF_8));
+            }
+            assertNull(archive.read("player3_output.txt"));
+            assertFalse(archive.extract("player3_output.txt", dir));
+        }
+    }
+
+    /**
+     * Tests that extracting an archive gives the same files as writing to a directory.
+     *
+     * @throws IOException if the logs can't be written or read.
+     */
+    @Test
+    public void testExtractMatchesDirectory() throws IOException {
+        File direct = new File(dir, "direct");
+        File extracted = new File(dir, "extracted");
+        OutputSink files = OutputSink.directory(direct);
+        try (OutputSink archive = OutputSink.archive(archiveFile)) {
+            for (OutputSink sink : new OutputSink[] {files, archive}) {
+                PlayerLog log = PlayerLogFactory.to(sink).open(4);
+                int[] hand = {1, 2, 3, 4};
+                log.initialHand(hand, 4);
+                for (int turn = 0; turn < 200; turn++) {
+                    hand[turn % 4] = turn % 7;
+                    log.turn(turn % 9, 4, turn % 5, 1, hand, 4);
+                }
+                log.won(new int[] {4, 4, 4, 4}, 4);
+                log.close();
+            }
+        }
+        files.close();
+
+        try (OutputArchive archive = new OutputArchive(archiveFile)) {
+            archive.extractAll(extracted);
+        }
+        assertArrayEquals(Files.readAllBytes(new File(direct, "player4_output.txt").toPath()),
+                Files.readAllBytes(new File(extracted, "player4_output.txt").toPath()));
+    }
+
+    /**
+     * Tests that streams written on many threads at once all read back whole.
+     *
+     * @throws Exception if a thread fails or the archive can't be read.
+     */
+    @Test
+    public void testConcurrentStreams() throws Exception {
+        int n = 8;
+        List<Thread> threads = new ArrayList<>();
+        List<Throwable> errors = new ArrayList<>();
+        try (OutputSink sink = OutputSink.archive(archiveFile)) {
+            for (int i = 0; i < n; i++) {
+                Writer out = sink.open("stream" + i);
+                String text = text("stream" + i, 2000);
+                Thread t = new Thread(() -> {
+                    try (out) {
+                        for (String line : text.split("(?<=\n)")) {
+                            out.write(line);
+                            out.flush();
+                        }
+                    } catch (Throwable e) {
+                        synchronized (errors) {
+                            errors.add(e);
+                        }
+                    }
+                });
+                threads.add(t);
+                t.start();
+            }
+            for (Thread t : threads) {
+                t.join();
+            }
+        }
+        assertTrue(errors.toString(), errors.isEmpty());
+
+        try (OutputArchive archive = new OutputArchive(archiveFile)) {
+            for (int i = 0; i < n; i++) {
+                assertEquals(text("stream" + i, 2000), new String(archive.read("stream" + i), StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    /**
+     * Tests that a stream name can only be used once, and nothing can be opened once the archive is closed.
+     *
+     * @throws IOException if the archive can't be written.
+     */
+    @Test
+    public void testStreamNames() throws IOException {
+        OutputSink sink = OutputSink.archive(archiveFile);
+        sink.open("a").close();
+        assertThrows(IllegalArgumentException.class, () -> sink.open("a"));
+        sink.close();
+        assertThrows(IOException.class, () -> sink.open("b"));
+    }
+
+    /**
+     * Tests that closing a directory sink closes the writers still open, so their buffered text reaches the files,
+     * and nothing can be opened afterwards.
+     *
+     * @throws IOException if the files can't be written or read.
+     */
+    @Test
+    public void testDirectoryCloseFlushes() throws IOException {
+        File out = new File(dir, "out");
+        OutputSink sink = OutputSink.directory(out);
+        Writer open = sink.open("player1_output.txt");
+        open.write("player 1 initial hand 1 2 3 4\n");
+        Writer closed = sink.open("deck1_output.txt");
+        closed.write("deck1 contents: 5 6 7 8\n");
+        closed.close();
+        assertEquals(0, new File(out, "player1_output.txt").length());      // Still buffered
+
+        sink.close();
+        assertEquals("player 1 initial hand 1 2 3 4\n", Files.readString(new File(out, "player1_output.txt").toPath()));
+        assertEquals("deck1 contents: 5 6 7 8\n", Files.readString(new File(out, "deck1_output.txt").toPath()));
+        assertThrows(IOException.class, () -> open.write("more"));
+        assertThrows(IOException.class, () -> sink.open("player2_output.txt"));
+    }
+
+    /**
+     * Tests that a stream whose name would be written outside the directory is rejected as damage, not extracted.
+     *
+     * @throws IOException if the archive can't be written or read.
+     */
+    @Test
+    public void testExtractRejectsPaths() throws IOException {
+        String[] names = {"../escaped.txt", "sub/player1_output.txt", "sub\\player2_output.txt", ".."};
+        try (OutputSink sink = OutputSink.archive(archiveFile)) {
+            for (String name : names) {
+                try (Writer out = sink.open(name)) {
+                    out.write("text\n");
+                }
+            }
+        }
+        File out = new File(dir, "out");
+        try (OutputArchive archive = new OutputArchive(archiveFile)) {
+            for (String name : names) {
+                assertArrayEquals("text\n".getBytes(StandardCharsets.UTF_8), archive.read(name));
+                assertThrows(name, IOException.class, () -> archive.extract(name, out));
+            }
+            assertThrows(IOException.class, () -> archive.extractAll(out));
+        }
+        assertFalse(new File(dir, "escaped.txt").exists());
+        assertFalse(new File(out, "sub").exists());
+    }
+
+    /**
+     * Tests that an unfinished archive, or a file that isn't an archive, can't be opened.
+     *
+     * @throws IOException if the files can't be written.
+     */
+    @Test
+    public void testInvalidArchives() throws IOException {
+        OutputSink sink = OutputSink.archive(archiveFile);
+        Writer out = sink.open("player1_output.txt");
+        out.write(text("x", 200));
+        assertThrows(IOException.class, () -> new OutputArchive(archiveFile));     // No index yet
+        sink.close();
+        try (OutputArchive archive = new OutputArchive(archiveFile)) {
+            assertEquals(text("x", 200), new String(archive.read("player1_output.txt"), StandardCharsets.UTF_8));
+        }
+
+        File text = new File(dir, "pack.txt");
+        Files.writeString(text.toPath(), "1\n2\n3\n4\n5\n6\n7\n8\n9\n10\n11\n12\n");
+        assertThrows(IOException.class, () -> new OutputArchive(text));
+    }
+}
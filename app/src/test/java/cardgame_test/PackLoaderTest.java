@@ -0,0 +1,208 @@
+// PackLoaderTest.java
+
+package cardgame_test;
+
+import cardgame.PackLoader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the {@link cardgame.PackLoader} class.
+ */
+public class PackLoaderTest {
+
+    private final List<File> files = new ArrayList<>();
+
+    /**
+     * Utility function to write a pack file with exact contents.
+     *
+     * @param text the file contents.
+     * @return the temporary file.
+     * @throws IOException if the file can't be written.
+     */
+    private File pack(String text) throws IOException {
+        File file = File.createTempFile("pack", ".txt");
+        Files.writeString(file.toPath(), text, StandardCharsets.US_ASCII);
+        files.add(file);
+        return file;
+    }
+
+    /**
+     * The line-by-line reader the loader replaces, used as the reference behaviour.
+     *
+     * @param file the pack file.
+     * @param expected the number of cards the pack must hold.
+     * @return the card values, or null if the pack is invalid.
+     * @throws IOException if the file can't be read.
+     */
+    private int[] scannerLoad(File file, int expected) throws IOException {
+        List<Integer> values = new ArrayList<>();
+        try (Scanner sc = new Scanner(file)) {
+            while (sc.hasNextLine()) {
+                String line = sc.nextLine().trim();
+                if (line.isEmpty()) return null;
+                int value;
+                try {
+                    value = Integer.parseInt(line);
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+                if (value < 0) return null;
+                values.add(value);
+            }
+        }
+        if (values.size() != expected) return null;
+        return values.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Tests a plain pack, with and without a final line break.
+     *
+     * @throws IOException if the pack can't be written or read.
+     */
+    @Test
+    public void testValidPack() throws IOException {
+        assertArrayEquals(new int[]{1, 22, 333, 0}, PackLoader.load(pack("1\n22\n333\n0\n"), 4));
+        assertArrayEquals(new int[]{1, 22, 333, 0}, PackLoader.load(pack("1\n22\n333\n0"), 4));
+    }
+
+    /**
+     * Tests Windows and old Mac line breaks, surrounding whitespace and signs.
+     *
+     * @throws IOException if the pack can't be written or read.
+     */
+    @Test
+    public void testLineBreaksAndWhitespace() throws IOException {
+        assertArrayEquals(new int[]{1, 2, 3, 4}, PackLoader.load(pack("1\r\n2\r\n3\r4\r\n"), 4));
+        assertArrayEquals(new int[]{5, 6, 0, 7}, PackLoader.load(pack("  5 \n\t6\t\n-0\n+7\n"), 4));
+    }
+
+    /**
+     * Tests each reason a pack is rejected.
+     *
+     * @throws IOException if the pack can't be written or read.
+     */
+    @Test
+    public void testInvalidPacks() throws IOException {
+        assertNull(PackLoader.load(pack("1\n\n2\n3\n"), 4));            // Empty line
+        assertNull(PackLoader.load(pack("1\n  \n2\n3\n"), 4));          // Blank line
+        assertNull(PackLoader.load(pack("1\n-2\n3\n4\n"), 4));          // Negative
+        assertNull(PackLoader.load(pack("1\nx\n3\n4\n"), 4));           // Not an integer
+        assertNull(PackLoader.load(pack("1\n2 3\n4\n5\n"), 4));         // Two numbers on a line
+        assertNull(PackLoader.load(pack("1\n2147483648\n3\n4\n"), 4));  // Too big for an int
+        assertNull(PackLoader.load(pack("1\n2\n3\n"), 4));              // Too few
+        assertNull(PackLoader.load(pack("1\n2\n3\n4\n5\n"), 4));        // Too many
+        assertNull(PackLoader.load(pack(""), 4));                       // Empty file
+    }
+
+    /**
+     * Tests that the loader accepts and rejects exactly what the line-by-line reader did, on random packs
+     * built from digits, signs, whitespace, line breaks and the odd stray letter.
+     *
+     * @throws IOException if a pack can't be written or read.
+     */
+    @Test
+    public void testMatchesLineReader() throws IOException {
+        String[] pieces = {"0", "1", "7", "42", "-", "+", " ", "\t", "\n", "\n", "\n", "\r\n", "\r", "x", "-0"};
+        Random random = new Random(2414);
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder sb = new StringBuilder();
+            int length = random.nextInt(12);
+            for (int j = 0; j < length; j++) {
+                sb.append(pieces[random.nextInt(pieces.length)]);
+            }
+            File file = pack(sb.toString());
+            for (int expected = 0; expected <= 4; expected++) {
+                assertArrayEquals("Pack: " + sb.toString().replace("\r", "\\r").replace("\n", "\\n"),
+                        scannerLoad(file, expected), PackLoader.load(file, expected));
+            }
+        }
+    }
+
+    /**
+     * Tests that splitting a pack into chunks parsed in parallel gives the same result as parsing it in one piece,
+     * whichever line the chunk boundaries land on.
+     *
+     * @throws IOException if a pack can't be written or read.
+     */
+    @Test
+    public void testChunksMatchLineReader() throws IOException {
+        String[] pieces = {"0", "1", "7", "42", "-", " ", "\n", "\n", "\n", "\n", "\r\n", "\r\n", "\r", "x"};
+        Random random = new Random(2415);
+        for (int i = 0; i < 500; i++) {
+            StringBuilder sb = new StringBuilder();
+            int length = random.nextInt(60);
+            for (int j = 0; j < length; j++) {
+                sb.append(pieces[random.nextInt(pieces.length)]);
+            }
+            File file = pack(sb.toString());
+            int lines = sb.toString().split("\r\n|\r|\n", -1).length;
+            for (int chunks = 2; chunks <= 9; chunks += 7) {
+                for (int expected = Math.max(0, lines - 2); expected <= lines; expected++) {
+                    assertArrayEquals("Pack: " + sb.toString().replace("\r", "\\r").replace("\n", "\\n"),
+                            scannerLoad(file, expected), PackLoader.load(file, expected, chunks));
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests a larger valid pack split into many chunks, and an error in its last line.
+     *
+     * @throws IOException if the pack can't be written or read.
+     */
+    @Test
+    public void testManyChunks() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        int[] expected = new int[8000];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = i % 1000;
+            sb.append(expected[i]).append(i % 3 == 0 ? "\r\n" : "\n");
+        }
+        assertArrayEquals(expected, PackLoader.load(pack(sb.toString()), expected.length, 64));
+        sb.append("-1\n");
+        assertNull(PackLoader.load(pack(sb.toString()), expected.length + 1, 64));
+    }
+
+    /**
+     * Tests that a card count far beyond what the file could hold, even one beyond an int, is an invalid pack
+     * rather than an attempt to allocate the cards. Also that a count the parallel loader can only disprove by
+     * counting lines is still invalid.
+     *
+     * @throws IOException if the pack can't be written or read.
+     */
+    @Test
+    public void testHugeCount() throws IOException {
+        File tiny = pack("1\n2\n");
+        for (long players : new long[] {100_000_000L, 300_000_000L, Integer.MAX_VALUE}) {
+            assertNull(PackLoader.load(tiny, 8 * players));
+            assertNull(PackLoader.load(tiny, 8 * players, 1));
+            assertNull(PackLoader.load(tiny, 8 * players, 4));
+        }
+
+        // Big enough to pass the size check, but with far fewer lines:
+        File padded = pack(("1" + " ".repeat(99) + "\n").repeat(20));
+        assertNull(PackLoader.load(padded, 800, 4));
+        assertNull(PackLoader.load(padded, 800, 1));
+    }
+
+    /**
+     * Clean up after tests: remove the temporary packs.
+     */
+    @After
+    public void tearDown() {
+        for (File f : files) {
+            f.delete();
+        }
+    }
+}
@@ -6,6 +6,11 @@ import cardgame.*;
 import org.junit.Test;
 import static org.junit.Assert.*;
 import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.List;
 
 /**
  * Unit tests for the {@link cardgame.Player} class.
@@ -53,6 +58,25 @@ public class PlayerTest {
         assertEquals(4, p.getHand().size());
     }
 
+    /**
+     * Tests that the hand keeps the order cards were dealt in, and holds at most four cards.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testHandOrderAndLimit() throws IOException {
+        Player p = new Player(new Deck(), new Deck());
+        for (int i = 4; i > 0; i--) {
+            p.addCardToHand(new Card(i));
+        }
+
+        List<Card> hand = p.getHand();
+        for (int i = 0; i < 4; i++) {
+            assertEquals(4 - i, hand.get(i).getValue());
+        }
+        assertThrows(IllegalStateException.class, () -> p.addCardToHand(new Card(5)));
+    }
+
     /**
      * Test the winning hand detection (four identical cards).
      *
@@ -82,4 +106,119 @@ public class PlayerTest {
             fail("Reflection test failed: " + e.getMessage());
         }
     }
+
+    /**
+     * Utility function to get a handle on the private turn method, so tests can take single turns.
+     *
+     * @return a handle taking a player and returning whether a turn was taken.
+     * @throws ReflectiveOperationException if the method can't be found.
+     */
+    private MethodHandle turnHandle() throws ReflectiveOperationException {
+        Method m = Player.class.getDeclaredMethod("drawAndDiscard");
+        m.setAccessible(true);
+        return MethodHandles.lookup().unreflect(m);
+    }
+
+    /**
+     * Tests that a win is detected as soon as a turn completes four of a kind, and that discards
+     * and draws keep the denomination counts right on the way.
+     *
+     * @throws Throwable if a turn fails.
+     */
+    @Test
+    public void testWinDetectedAfterTurns() throws Throwable {
+        // One player whose discards come back round to them:
+        GameContext context = new GameContext();
+        Deck deck = new Deck(context);
+        Player p = new Player(context, deck, deck, PlayerLogFactory.NONE);
+        assertEquals(1, p.getPlayerId());
+
+        p.addCardToHand(new Card(1));
+        p.addCardToHand(new Card(2));
+        p.addCardToHand(new Card(1));
+        p.addCardToHand(new Card(3));
+        deck.addValue(1);
+        deck.addValue(1);
+
+        MethodHandle turn = turnHandle();
+        assertTrue((boolean) turn.invokeExact(p));
+        assertNull(context.getWinnerId());      // Three 1s: not yet
+        assertEquals(3, p.getHand().stream().filter(c -> c.getValue() == 1).count());
+
+        assertTrue((boolean) turn.invokeExact(p));
+        assertEquals(Integer.valueOf(1), context.getWinnerId());
+        for (Card c : p.getHand()) {
+            assertEquals(1, c.getValue());
+        }
+    }
+
+    /**
+     * Tests that a turn allocates nothing once warmed up: measured with the thread's allocation counter
+     * over many turns, with logging off.
+     *
+     * @throws Throwable if a turn fails.
+     */
+    @Test
+    public void testTurnAllocatesNothing() throws Throwable {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        org.junit.Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        // One player with no 1s, passing distinct cards round a single deck, so they never win:
+        GameContext context = new GameContext();
+        Deck deck = new Deck(context);
+        Player p = new Player(context, deck, deck, PlayerLogFactory.NONE);
+        for (int v = 2; v <= 5; v++) {
+            p.addCardToHand(new Card(v));
+            deck.addValue(v + 4);
+        }
+
+        MethodHandle turn = turnHandle();
+        for (int i = 0; i < 50_000; i++) {
+            assertTrue((boolean) turn.invokeExact(p));
+        }
+
+        int turns = 200_000;
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < turns; i++) {
+            if (!(boolean) turn.invokeExact(p)) fail("Turn not taken");
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        // Allow a little for the measurement itself; a single allocation per turn would be megabytes.
+        assertTrue("Allocated " + allocated + " bytes in " + turns + " turns", allocated < 1024);
+        assertNull(context.getWinnerId());
+    }
+
+    /**
+     * Tests that metrics are off by default, and once enabled count turns, failed turns and the deck's depth.
+     *
+     * @throws Throwable if a turn fails.
+     */
+    @Test
+    public void testMetrics() throws Throwable {
+        GameContext context = new GameContext();
+        Deck left = new Deck(context);
+        Deck right = new Deck(context);
+        Player p = new Player(context, left, right, PlayerLogFactory.NONE);
+        assertNull(p.getMetrics());
+        p.enableMetrics();
+        for (int v = 2; v <= 5; v++) {
+            p.addCardToHand(new Card(v));
+            left.addValue(v + 4);
+        }
+
+        MethodHandle turn = turnHandle();
+        for (int i = 0; i < 4; i++) {
+            assertTrue((boolean) turn.invokeExact(p));
+        }
+        assertFalse((boolean) turn.invokeExact(p));    // The left deck is empty
+
+        PlayerMetrics metrics = p.getMetrics();
+        assertEquals(4, metrics.getTurnLatency().getCount());
+        assertEquals(1, metrics.getFailedTurns());
+        assertEquals(4, metrics.getDeckHighWater());
+        assertEquals(0, metrics.getLockWaits());
+        assertTrue(metrics.getTurnLatency().getMax() > 0);
+    }
 }
@@ -0,0 +1,189 @@
+// ReplayTest.java
+
+package cardgame_test;
+
+import cardgame.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the {@link cardgame.Replay} class.
+ */
+public class ReplayTest {
+
+    /**
+     * Writes a pack where each value 1..n appears 8 times, shuffled.
+     *
+     * @param numPlayers the number of players.
+     * @param seed seeds the shuffle.
+     * @return the pack file.
+     * @throws IOException if the file can't be written.
+     */
+    private File shuffledPack(int numPlayers, long seed) throws IOException {
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < 8 * numPlayers; i++) {
+            values.add(i % numPlayers + 1);
+        }
+        Collections.shuffle(values, new Random(seed));
+        StringBuilder sb = new StringBuilder();
+        for (int v : values) {
+            sb.append(v).append('\n');
+        }
+        File pack = File.createTempFile("pack", ".txt");
+        pack.deleteOnExit();
+        Files.writeString(pack.toPath(), sb);
+        return pack;
+    }
+
+    /**
+     * Plays a game with binary logging.
+     *
+     * @param options the game options.
+     * @param numPlayers the number of players.
+     * @param pack the pack file.
+     * @return the number of turns the game took.
+     */
+    private long play(GameOptions options, int numPlayers, File pack) {
+        CardGame game = new CardGame(options.setLogMode(LogMode.BINARY));
+        game.start(numPlayers, pack);
+        return game.getTurnCount();
+    }
+
+    /**
+     * Tests that replaying games from every engine reaches their deck files, and the winner, turn for turn.
+     *
+     * @throws IOException if the files can't be read.
+     */
+    @Test
+    public void testVerifyDecks() throws IOException {
+        for (Engine engine : new Engine[] {Engine.SEQUENTIAL, Engine.THREADS, Engine.TASKS}) {
+            File pack = shuffledPack(16, 3);
+            long turns = play(new GameOptions().setEngine(engine).setSeed(3L).setDeckType(DeckType.RING), 16, pack);
+
+            try (Replay replay = new Replay(new File("out", CardGame.EVENTS_NAME), pack)) {
+                assertEquals(List.of(), replay.verifyDecks(new File("out")));
+                assertEquals(turns, replay.getTurn());
+                assertNotNull(replay.getWinnerId());
+            }
+            tearDown();
+        }
+    }
+
+    /**
+     * Tests that verification finds a deck file that doesn't match, and works on an output archive.
+     *
+     * @throws IOException if the files can't be read or written.
+     */
+    @Test
+    public void testVerifyFindsChangedDeck() throws IOException {
+        File pack = shuffledPack(6, 4);
+        play(new GameOptions().setEngine(Engine.SEQUENTIAL).setSeed(4L), 6, pack);
+        Files.writeString(new File("out", "deck2_output.txt").toPath(), "deck2 contents: 99\n");
+        Files.delete(new File("out", "deck5_output.txt").toPath());
+        try (Replay replay = new Replay(new File("out", CardGame.EVENTS_NAME), pack)) {
+            assertEquals(List.of("deck2_output.txt", "deck5_output.txt"), replay.verifyDecks(new File("out")));
+        }
+        tearDown();
+
+        play(new GameOptions().setEngine(Engine.SEQUENTIAL).setSeed(4L).setOutputMode(OutputMode.ARCHIVE), 6, pack);
+        try (Replay replay = new Replay(new File("out", CardGame.EVENTS_NAME), pack)) {
+            assertEquals(List.of(), replay.verifyDecks(new File("out", CardGame.ARCHIVE_NAME)));
+        }
+    }
+
+    /**
+     * Records every hand and deck at a turn.
+     *
+     * @param replay the replay, at the turn.
+     * @return one line per player.
+     */
+    private List<String> state(Replay replay) {
+        List<String> lines = new ArrayList<>();
+        for (int id = 1; id <= replay.getNumPlayers(); id++) {
+            lines.add(java.util.Arrays.toString(replay.getHand(id)) + " | " + replay.deckContents(id));
+        }
+        return lines;
+    }
+
+    /**
+     * Tests that seeking with snapshots, forwards and back, gives the same state as stepping from the start.
+     *
+     * @throws IOException if the files can't be read or written.
+     */
+    @Test
+    public void testSeekWithSnapshots() throws IOException {
+        File pack = shuffledPack(8, 5);
+        long turns = play(new GameOptions().setEngine(Engine.THREADS), 8, pack);
+        assumeLongGame(turns);
+        File events = new File("out", CardGame.EVENTS_NAME);
+        File snapshots = new File("out", "events.snap");
+
+        List<List<String>> expected = new ArrayList<>();
+        try (Replay replay = new Replay(events, pack)) {
+            expected.add(state(replay));
+            while (replay.step()) {
+                expected.add(state(replay));
+            }
+            assertEquals(turns, replay.writeSnapshots(snapshots, 7));
+        }
+
+        try (Replay replay = new Replay(events, pack, snapshots)) {
+            for (long target : new long[] {turns / 2, 3, turns, 0, turns - 1, 14, turns / 3}) {
+                assertEquals(target, replay.seek(target));
+                assertEquals("Turn " + target, expected.get((int) target), state(replay));
+            }
+            assertEquals(turns, replay.seek(turns + 100));
+        }
+    }
+
+    /**
+     * Skips a test whose game was won too soon to seek around in.
+     *
+     * @param turns the number of turns in the game.
+     */
+    private void assumeLongGame(long turns) {
+        org.junit.Assume.assumeTrue(turns > 30);
+    }
+
+    /**
+     * Tests that an event file and pack that don't belong together are refused, and a record that doesn't
+     * follow is reported.
+     *
+     * @throws IOException if the files can't be read or written.
+     */
+    @Test
+    public void testMismatchedFiles() throws IOException {
+        File pack = shuffledPack(5, 6);
+        play(new GameOptions().setEngine(Engine.SEQUENTIAL).setSeed(6L), 5, pack);
+        File events = new File("out", CardGame.EVENTS_NAME);
+
+        assertThrows(IOException.class, () -> new Replay(events, shuffledPack(6, 6)));     // Wrong size
+        try (Replay replay = new Replay(events, shuffledPack(5, 7))) {                     // Another deal
+            assertThrows(IllegalStateException.class, () -> replay.seek(Long.MAX_VALUE));
+        }
+    }
+
+    /**
+     * Clean up after tests: remove output files.
+     */
+    @After
+    public void tearDown() {
+        File out = new File("out");
+        if (out.exists()) {
+            for (File f : Objects.requireNonNull(out.listFiles())) {
+                f.delete();
+            }
+            out.delete();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+// RingDeckTest.java
+
+package cardgame_test;
+
+import cardgame.*;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the {@link cardgame.RingDeck} class.
+ */
+public class RingDeckTest {
+
+    /**
+     * Tests that cards are drawn in the order they were added.
+     */
+    @Test
+    public void testFirstInFirstOut() {
+        RingDeck deck = new RingDeck(8);
+        deck.addCard(new Card(1));
+        deck.addCard(new Card(2));
+        assertEquals(2, deck.size());
+
+        assertEquals(1, deck.drawCard().getValue());
+        assertEquals(2, deck.drawCard().getValue());
+        assertNull(deck.drawCard());
+        assertEquals(0, deck.size());
+    }
+
+    /**
+     * Tests that the deck reports when it is full, and refuses extra cards.
+     */
+    @Test
+    public void testFullDeck() {
+        RingDeck deck = new RingDeck(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(deck.hasSpace());
+            deck.addCard(new Card(i));
+        }
+        assertFalse(deck.hasSpace());
+        assertThrows(IllegalStateException.class, () -> deck.addCard(new Card(9)));
+
+        // Drawing frees a slot again.
+        deck.drawCard();
+        assertTrue(deck.hasSpace());
+    }
+
+    /**
+     * Tests that the capacity must be a positive power of two.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCapacity() {
+        new RingDeck(6);
+    }
+
+    /**
+     * Tests that a game's ring capacity leaves room for the game to progress.
+     */
+    @Test
+    public void testCapacityFor() {
+        assertEquals(8, RingDeck.capacityFor(1));
+        assertEquals(16, RingDeck.capacityFor(3));
+        assertEquals(256, RingDeck.capacityFor(10000));
+    }
+
+    /**
+     * Tests the contents string after wrapping around the end of the array.
+     */
+    @Test
+    public void testContentsAsString() {
+        RingDeck deck = new RingDeck(4);
+        for (int i = 0; i < 3; i++) {
+            deck.addCard(new Card(i));
+        }
+        deck.drawCard();
+        deck.drawCard();
+        deck.addCard(new Card(5));
+        deck.addCard(new Card(10));
+        assertEquals("2 5 10", deck.contentsAsString());
+    }
+
+    /**
+     * Tests that one writer thread and one reader thread pass every card across in order.
+     *
+     * @throws InterruptedException
+     */
+    @Test
+    public void testSingleWriterSingleReader() throws InterruptedException {
+        RingDeck deck = new RingDeck(16);
+        int total = 100_000;
+
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < total; i++) {
+                while (!deck.hasSpace()) Thread.yield();      // Let the reader run, even on one core
+                deck.addCard(new Card(i));
+            }
+        });
+        int[] next = {0};
+        Thread reader = new Thread(() -> {
+            while (next[0] < total) {
+                Card c = deck.drawCard();
+                if (c == null) {
+                    Thread.yield();     // Let the writer run, even on one core
+                } else if (c.getValue() == next[0]) {
+                    next[0]++;
+                } else {
+                    break;  // Out of order: stop and fail below
+                }
+            }
+        });
+
+        writer.start();
+        reader.start();
+        writer.join();
+        reader.join();
+
+        assertEquals(total, next[0]);
+        assertEquals(0, deck.size());
+    }
+
+    /**
+     * Tests that a player parked waiting for space in a full ring is woken by the next draw.
+     *
+     * @throws InterruptedException if the test is interrupted.
+     */
+    @Test
+    public void testDrawWakesWaitingAdder() throws InterruptedException {
+        RingDeck deck = new RingDeck(2);
+        deck.addValue(1);
+        deck.addValue(2);
+        Thread adder = new Thread(() -> {
+            deck.awaitSpace(60_000_000_000L);
+            deck.addValue(3);
+        });
+        adder.start();
+
+        // Wait for the adder to park, then draw:
+        while (adder.getState() != Thread.State.TIMED_WAITING) {
+            Thread.sleep(1);
+        }
+        assertEquals(1, deck.drawValue());
+        adder.join(10_000);
+
+        assertFalse(adder.isAlive());
+        assertEquals("2 3", deck.contentsAsString());
+    }
+}
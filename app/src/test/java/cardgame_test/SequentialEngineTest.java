@@ -0,0 +1,124 @@
+// SequentialEngineTest.java
+
+package cardgame_test;
+
+import cardgame.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the single-threaded, seeded engine, through {@link cardgame.CardGame} and
+ * {@link cardgame.Simulation}.
+ */
+public class SequentialEngineTest {
+
+    /**
+     * Builds the pack from example_input.txt: four of each value from 1 to 8.
+     *
+     * @return the card values for 4 players.
+     */
+    private int[] examplePack() {
+        int[] pack = new int[32];
+        for (int i = 0; i < 32; i++) {
+            pack[i] = i / 4 + 1;
+        }
+        return pack;
+    }
+
+    /**
+     * Utility function to read every output file.
+     *
+     * @return the contents of each file in {@code out/}, by name.
+     * @throws IOException if a file can't be read.
+     */
+    private Map<String, String> readOutput() throws IOException {
+        Map<String, String> files = new TreeMap<>();
+        for (File f : Objects.requireNonNull(new File("out").listFiles())) {
+            files.put(f.getName(), Files.readString(f.toPath()));
+        }
+        return files;
+    }
+
+    /**
+     * Tests that the same seed replays the same game: every log and deck file is identical.
+     *
+     * @throws IOException if the output files can't be read.
+     */
+    @Test
+    public void testSameSeedSameGame() throws IOException {
+        File pack = File.createTempFile("example", ".txt");
+        pack.deleteOnExit();
+        StringBuilder sb = new StringBuilder();
+        for (int v : examplePack()) {
+            sb.append(v).append('\n');
+        }
+        Files.writeString(pack.toPath(), sb);
+
+        for (TurnOrder order : TurnOrder.values()) {
+            GameOptions options = new GameOptions().setEngine(Engine.SEQUENTIAL).setTurnOrder(order).setSeed(2414L);
+
+            new CardGame(options).start(4, pack);
+            Map<String, String> first = readOutput();
+            tearDown();
+            new CardGame(options).start(4, pack);
+            Map<String, String> second = readOutput();
+
+            assertEquals(8, first.size());
+            assertEquals(first, second);
+            tearDown();
+        }
+    }
+
+    /**
+     * Tests that a seeded batch of games is reproducible, and that each game has exactly one winner.
+     */
+    @Test
+    public void testSeededSimulation() {
+        GameOptions options = new GameOptions().setEngine(Engine.SEQUENTIAL).setTurnOrder(TurnOrder.RANDOM).setSeed(7L);
+        SimulationSummary first = new Simulation(4, examplePack(), options).run(200, 2);
+        SimulationSummary second = new Simulation(4, examplePack(), options).run(200, 1);
+
+        long wins = 0;
+        for (int id = 1; id <= 4; id++) {
+            assertEquals(first.getWins(id), second.getWins(id));
+            wins += first.getWins(id);
+        }
+        assertEquals(200, wins);
+        assertEquals(first.getMeanTurnsToWin(), second.getMeanTurnsToWin(), 0);
+        assertEquals(first.getMeanTotalTurns(), second.getMeanTotalTurns(), 0);
+    }
+
+    /**
+     * Tests that different seeds give different games.
+     */
+    @Test
+    public void testDifferentSeeds() {
+        GameOptions a = new GameOptions().setEngine(Engine.SEQUENTIAL).setSeed(1L);
+        GameOptions b = new GameOptions().setEngine(Engine.SEQUENTIAL).setSeed(1_000_000L);
+        double turnsA = new Simulation(4, examplePack(), a).run(50, 1).getMeanTotalTurns();
+        double turnsB = new Simulation(4, examplePack(), b).run(50, 1).getMeanTotalTurns();
+        assertNotEquals(turnsA, turnsB, 0);
+    }
+
+    /**
+     * Clean up after tests: remove output files.
+     */
+    @After
+    public void tearDown() {
+        File out = new File("out");
+        if (out.exists()) {
+            for (File f : Objects.requireNonNull(out.listFiles())) {
+                f.delete();
+            }
+            out.delete();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+// SimulationTest.java
+
+package cardgame_test;
+
+import cardgame.*;
+import java.io.File;
+import java.util.Objects;
+
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the {@link cardgame.Simulation} class.
+ */
+public class SimulationTest {
+
+    /**
+     * Builds the pack from example_input.txt: four of each value from 1 to 8.
+     *
+     * @return the card values for 4 players.
+     */
+    private int[] examplePack() {
+        int[] pack = new int[32];
+        for (int i = 0; i < 32; i++) {
+            pack[i] = i / 4 + 1;
+        }
+        return pack;
+    }
+
+    /**
+     * Tests that parallel games each produce exactly one winner from that game's players.
+     */
+    @Test
+    public void testParallelGames() {
+        Simulation simulation = new Simulation(4, examplePack(), new GameOptions());
+        SimulationSummary summary = simulation.run(50, 4);
+
+        assertEquals(50, summary.getGames());
+        long wins = 0;
+        for (int id = 1; id <= 4; id++) {
+            wins += summary.getWins(id);
+        }
+        assertEquals(50, wins);
+        assertTrue(summary.getMeanTurnsToWin() >= 0);
+    }
+
+    /**
+     * Tests that simulations also run with lock-free ring decks.
+     */
+    @Test
+    public void testParallelRingGames() {
+        Simulation simulation = new Simulation(4, examplePack(), new GameOptions().setDeckType(DeckType.RING));
+        SimulationSummary summary = simulation.run(20, 4);
+        assertEquals(20, summary.getGames());
+        assertTrue(summary.toString().contains("Simulated 20 games of 4 players"));
+    }
+
+    /**
+     * Tests that games finish with both ways of waiting for a turn.
+     */
+    @Test
+    public void testWaitModes() {
+        for (WaitMode wait : WaitMode.values()) {
+            for (ThreadMode threads : ThreadMode.values()) {
+                GameOptions options = new GameOptions().setWaitMode(wait).setThreadMode(threads);
+                assertEquals(20, new Simulation(4, examplePack(), options).run(20, 2).getGames());
+            }
+        }
+    }
+
+    /**
+     * Tests hundreds of games running at once in one JVM: each has its own IDs and exactly one winner.
+     */
+    @Test
+    public void testHundredsOfConcurrentGames() {
+        Simulation simulation = new Simulation(4, examplePack(), new GameOptions().setThreadMode(ThreadMode.VIRTUAL));
+        SimulationSummary summary = simulation.run(400, 200);
+
+        assertEquals(400, summary.getGames());
+        long wins = 0;
+        for (int id = 1; id <= 4; id++) {
+            wins += summary.getWins(id);
+        }
+        assertEquals(400, wins);
+    }
+
+    /**
+     * Tests that simulated games are silent: no player or deck files are written.
+     */
+    @Test
+    public void testNoOutputFiles() {
+        new Simulation(4, examplePack(), new GameOptions()).run(5, 2);
+        File out = new File("out");
+        assertTrue(!out.exists() || Objects.requireNonNull(out.list()).length == 0);
+    }
+
+    /**
+     * Clean up after tests: remove output files.
+     */
+    @After
+    public void tearDown() {
+        File out = new File("out");
+        if (out.exists()) {
+            for (File f : Objects.requireNonNull(out.listFiles())) {
+                f.delete();
+            }
+            out.delete();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+// TaskEngineTest.java
+
+package cardgame_test;
+
+import cardgame.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the task engine, through {@link cardgame.CardGame} and {@link cardgame.Simulation}.
+ */
+public class TaskEngineTest {
+
+    /**
+     * Builds a shuffled pack in which every denomination from 1 to n appears eight times, so games terminate.
+     *
+     * @param numPlayers the number of players.
+     * @param seed the shuffle seed.
+     * @return 8 cards per player.
+     */
+    private int[] shuffledPack(int numPlayers, long seed) {
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < 8 * numPlayers; i++) {
+            values.add(i % numPlayers + 1);
+        }
+        Collections.shuffle(values, new Random(seed));
+        int[] pack = new int[values.size()];
+        for (int i = 0; i < pack.length; i++) {
+            pack[i] = values.get(i);
+        }
+        return pack;
+    }
+
+    /**
+     * Tests that every game has exactly one winner, with either deck type and any number of pool threads.
+     */
+    @Test
+    public void testWorkerCounts() {
+        for (DeckType deckType : DeckType.values()) {
+            for (int numPlayers : new int[]{1, 2, 3, 8}) {
+                for (int workers : new int[]{1, 2, 4}) {
+                    GameOptions options = new GameOptions().setEngine(Engine.TASKS).setWorkers(workers)
+                            .setDeckType(deckType);
+                    SimulationSummary summary = new Simulation(numPlayers, shuffledPack(numPlayers, workers), options)
+                            .run(20, 2);
+
+                    long wins = 0;
+                    for (int id = 1; id <= numPlayers; id++) {
+                        wins += summary.getWins(id);
+                    }
+                    assertEquals(20, wins);
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests that a game played by tasks writes every player and deck file, with no card lost or duplicated.
+     *
+     * @throws IOException if the pack or output files can't be read or written.
+     */
+    @Test
+    public void testOutputFiles() throws IOException {
+        int numPlayers = 9;
+        File pack = File.createTempFile("pack", ".txt");
+        pack.deleteOnExit();
+        StringBuilder sb = new StringBuilder();
+        for (int v : shuffledPack(numPlayers, 9)) {
+            sb.append(v).append('\n');
+        }
+        Files.writeString(pack.toPath(), sb);
+
+        new CardGame(new GameOptions().setEngine(Engine.TASKS).setWorkers(2)).start(numPlayers, pack);
+
+        int deckCards = 0;
+        int winners = 0;
+        for (int id = 1; id <= numPlayers; id++) {
+            String deck = Files.readString(new File("out", "deck" + id + "_output.txt").toPath()).trim();
+            String contents = deck.substring(("deck" + id + " contents:").length()).trim();
+            deckCards += contents.isEmpty() ? 0 : contents.split(" ").length;
+
+            String log = Files.readString(new File("out", "player" + id + "_output.txt").toPath());
+            assertTrue(log.contains("player " + id + " exits"));
+            if (log.contains("player " + id + " wins")) winners++;
+        }
+        assertEquals(4 * numPlayers, deckCards);
+        assertEquals(1, winners);
+    }
+
+    /**
+     * Tests a game of thousands of players on two pool threads.
+     */
+    @Test
+    public void testLargeGame() {
+        int numPlayers = 5000;
+        GameOptions options = new GameOptions().setEngine(Engine.TASKS).setWorkers(2).setDeckType(DeckType.RING);
+        SimulationSummary summary = new Simulation(numPlayers, shuffledPack(numPlayers, 5), options).run(1, 1);
+
+        long wins = 0;
+        for (int id = 1; id <= numPlayers; id++) {
+            wins += summary.getWins(id);
+        }
+        assertEquals(1, wins);
+    }
+
+    /**
+     * Clean up after tests: remove output files.
+     */
+    @After
+    public void tearDown() {
+        File out = new File("out");
+        if (out.exists()) {
+            for (File f : Objects.requireNonNull(out.listFiles())) {
+                f.delete();
+            }
+            out.delete();
+        }
+    }
+}
@@ -0,0 +1,181 @@
+// VersionedDeckTest.java
+
+package cardgame_test;
+
+import cardgame.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the {@link cardgame.VersionedDeck} class, and for optimistic turns in small, contended rings.
+ */
+public class VersionedDeckTest {
+
+    /**
+     * Tests that cards are drawn in the order they were added.
+     */
+    @Test
+    public void testFirstInFirstOut() {
+        VersionedDeck deck = new VersionedDeck(8);
+        deck.addCard(new Card(1));
+        deck.addCard(new Card(2));
+        assertEquals(2, deck.size());
+
+        assertEquals(1, deck.drawCard().getValue());
+        assertEquals(2, deck.drawCard().getValue());
+        assertNull(deck.drawCard());
+        assertEquals(0, deck.size());
+    }
+
+    /**
+     * Tests that the deck reports when it is full, and refuses extra cards.
+     */
+    @Test
+    public void testFullDeck() {
+        VersionedDeck deck = new VersionedDeck(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(deck.hasSpace());
+            deck.addCard(new Card(i));
+        }
+        assertFalse(deck.hasSpace());
+        assertThrows(IllegalStateException.class, () -> deck.addCard(new Card(9)));
+
+        deck.drawCard();
+        assertTrue(deck.hasSpace());
+    }
+
+    /**
+     * Tests that the capacity must be a positive power of two.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCapacity() {
+        new VersionedDeck(6);
+    }
+
+    /**
+     * Tests the contents string after wrapping around the end of the array.
+     */
+    @Test
+    public void testContentsAsString() {
+        VersionedDeck deck = new VersionedDeck(4);
+        for (int i = 0; i < 3; i++) {
+            deck.addCard(new Card(i));
+        }
+        deck.drawCard();
+        deck.drawCard();
+        deck.addCard(new Card(5));
+        deck.addCard(new Card(10));
+        assertEquals("2 5 10", deck.contentsAsString());
+    }
+
+    /**
+     * Tests that small rings, where every deck is fought over, finish every game with exactly one winner.
+     */
+    @Test
+    public void testContendedGames() {
+        for (int numPlayers = 1; numPlayers <= 3; numPlayers++) {
+            GameOptions options = new GameOptions().setDeckType(DeckType.OPTIMISTIC);
+            SimulationSummary summary = new Simulation(numPlayers, shuffledPack(numPlayers, numPlayers), options)
+                    .run(50, 2);
+
+            long wins = 0;
+            for (int id = 1; id <= numPlayers; id++) {
+                wins += summary.getWins(id);
+            }
+            assertEquals(50, wins);
+        }
+    }
+
+    /**
+     * Tests that turns are atomic: after a contended game the final hands and decks hold exactly the cards of the
+     * pack, none lost or duplicated.
+     *
+     * @throws IOException if the pack or output files can't be read or written.
+     */
+    @Test
+    public void testCardsConserved() throws IOException {
+        int numPlayers = 3;
+        int[] values = shuffledPack(numPlayers, 2414);
+        File pack = File.createTempFile("pack", ".txt");
+        pack.deleteOnExit();
+        StringBuilder sb = new StringBuilder();
+        for (int v : values) {
+            sb.append(v).append('\n');
+        }
+        Files.writeString(pack.toPath(), sb);
+
+        new CardGame(new GameOptions().setDeckType(DeckType.OPTIMISTIC)).start(numPlayers, pack);
+
+        List<Integer> cards = new ArrayList<>();
+        for (int id = 1; id <= numPlayers; id++) {
+            String deck = Files.readString(new File("out", "deck" + id + "_output.txt").toPath()).trim();
+            addValues(cards, deck.substring(deck.indexOf(':') + 1));
+            List<String> log = Files.readAllLines(new File("out", "player" + id + "_output.txt").toPath());
+            String hand = log.get(log.size() - 1);
+            addValues(cards, hand.substring(hand.indexOf(':') + 1));
+        }
+        List<Integer> expected = new ArrayList<>();
+        for (int v : values) {
+            expected.add(v);
+        }
+        Collections.sort(cards);
+        Collections.sort(expected);
+        assertEquals(expected, cards);
+    }
+
+    /**
+     * Builds a shuffled pack in which every denomination from 1 to n appears eight times, so games terminate.
+     *
+     * @param numPlayers the number of players.
+     * @param seed the shuffle seed.
+     * @return 8 cards per player.
+     */
+    private int[] shuffledPack(int numPlayers, long seed) {
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < 8 * numPlayers; i++) {
+            values.add(i % numPlayers + 1);
+        }
+        Collections.shuffle(values, new Random(seed));
+        int[] pack = new int[values.size()];
+        for (int i = 0; i < pack.length; i++) {
+            pack[i] = values.get(i);
+        }
+        return pack;
+    }
+
+    /**
+     * Utility function to parse space-separated card values.
+     *
+     * @param cards the list to add to.
+     * @param text the values, e.g. {@code " 1 2 3"}.
+     */
+    private void addValues(List<Integer> cards, String text) {
+        for (String s : text.trim().split(" ")) {
+            if (!s.isEmpty()) cards.add(Integer.parseInt(s));
+        }
+    }
+
+    /**
+     * Clean up after tests: remove output files.
+     */
+    @After
+    public void tearDown() {
+        File out = new File("out");
+        if (out.exists()) {
+            for (File f : Objects.requireNonNull(out.listFiles())) {
+                f.delete();
+            }
+            out.delete();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+// BenchSupport.java
+
+package cardgame_bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Shared helpers for the benchmarks.
+ */
+final class BenchSupport {
+
+    private BenchSupport() {
+    }
+
+    /**
+     * Writes a shuffled pack for n players: every denomination 1..n appears eight times,
+     * so each player's preferred card is in play and games terminate.
+     *
+     * @param n the number of players.
+     * @param seed the shuffle seed, so every fork plays the same pack.
+     * @return the temporary pack file.
+     * @throws IOException if the file can't be written.
+     */
+    static File writePack(int n, long seed) throws IOException {
+        List<Integer> values = new ArrayList<>(8 * n);
+        for (int i = 0; i < 8 * n; i++) {
+            values.add(i % n + 1);
+        }
+        Collections.shuffle(values, new Random(seed));
+
+        File file = File.createTempFile("bench_pack_" + n + "_", ".txt");
+        file.deleteOnExit();
+        try (PrintWriter w = new PrintWriter(file)) {
+            for (int v : values) {
+                w.println(v);
+            }
+        }
+        return file;
+    }
+}
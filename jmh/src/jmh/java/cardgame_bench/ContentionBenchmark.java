@@ -0,0 +1,102 @@
+// ContentionBenchmark.java
+
+package cardgame_bench;
+
+import cardgame.Card;
+import cardgame.Deck;
+import cardgame.DeckType;
+import cardgame.GameContext;
+import cardgame.Player;
+import cardgame.PlayerLogFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Latency of turn attempts in a three-player ring, with all three players hammering their shared decks at once.
+ * Sampled, so the percentiles show the outliers of monitor convoys against optimistic, versioned decks.
+ * Attempts that find the left deck empty or the right deck full are included.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContentionBenchmark {
+
+    @Param({"LINKED", "RING", "OPTIMISTIC"})
+    public DeckType deck;
+
+    private MethodHandle drawAndDiscard;
+    private final List<Player> players = new ArrayList<>();
+
+    /**
+     * Builds a ring of three players whose hands can never win: all 24 cards have distinct values.
+     *
+     * @throws Exception if the players can't be created or the turn method can't be reached.
+     */
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        GameContext context = new GameContext();
+        List<Deck> decks = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            decks.add(deck.create(context, 3));
+        }
+        for (int i = 0; i < 3; i++) {
+            Player p = new Player(context, decks.get(i), decks.get((i + 1) % 3), PlayerLogFactory.NONE);
+            for (int c = 0; c < 4; c++) {
+                p.addCardToHand(new Card(100 + 10 * i + c));
+                decks.get(i).addCard(new Card(200 + 10 * i + c));
+            }
+            players.add(p);
+        }
+
+        // The turn is package-private: look it up once, as the unit tests do.
+        Method m = Player.class.getDeclaredMethod("drawAndDiscard");
+        m.setAccessible(true);
+        drawAndDiscard = MethodHandles.lookup().unreflect(m);
+    }
+
+    /**
+     * One turn attempt by player 1.
+     *
+     * @return whether a turn was taken.
+     * @throws Throwable if the turn fails.
+     */
+    @Benchmark
+    @Group("ring")
+    public boolean player1() throws Throwable {
+        return (boolean) drawAndDiscard.invoke(players.get(0));
+    }
+
+    /**
+     * One turn attempt by player 2.
+     *
+     * @return whether a turn was taken.
+     * @throws Throwable if the turn fails.
+     */
+    @Benchmark
+    @Group("ring")
+    public boolean player2() throws Throwable {
+        return (boolean) drawAndDiscard.invoke(players.get(1));
+    }
+
+    /**
+     * One turn attempt by player 3.
+     *
+     * @return whether a turn was taken.
+     * @throws Throwable if the turn fails.
+     */
+    @Benchmark
+    @Group("ring")
+    public boolean player3() throws Throwable {
+        return (boolean) drawAndDiscard.invoke(players.get(2));
+    }
+}
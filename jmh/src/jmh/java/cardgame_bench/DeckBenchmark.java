@@ -0,0 +1,70 @@
+// DeckBenchmark.java
+
+package cardgame_bench;
+
+import cardgame.Card;
+import cardgame.Deck;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Throughput of {@link cardgame.Deck#addCard} and {@link cardgame.Deck#drawCard} on one shared deck.
+ * Each operation discards to the bottom then draws from the top, so the deck size stays constant.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DeckBenchmark {
+
+    private static final int INITIAL_CARDS = 64;
+
+    private Deck deck;
+    private Card card;
+
+    /**
+     * Creates a fresh deck with a few cards in it, so draws never see an empty deck.
+     */
+    @Setup(Level.Iteration)
+    public void setup() {
+        deck = new Deck();
+        card = new Card(1);
+        for (int i = 0; i < INITIAL_CARDS; i++) {
+            deck.addCard(card);
+        }
+    }
+
+    /**
+     * One thread: no contention, measures the bare monitor and queue cost.
+     */
+    @Benchmark
+    @Threads(1)
+    public Card addAndDrawUncontended() {
+        deck.addCard(card);
+        return deck.drawCard();
+    }
+
+    /**
+     * Two threads: the common case of a deck shared by two neighbouring players.
+     */
+    @Benchmark
+    @Threads(2)
+    public Card addAndDrawTwoThreads() {
+        deck.addCard(card);
+        return deck.drawCard();
+    }
+
+    /**
+     * One thread per available core, all on the same deck.
+     */
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Card addAndDrawAllCores() {
+        deck.addCard(card);
+        return deck.drawCard();
+    }
+}
@@ -0,0 +1,71 @@
+// EngineBenchmark.java
+
+package cardgame_bench;
+
+import cardgame.Engine;
+import cardgame.GameOptions;
+import cardgame.PackLoader;
+import cardgame.Simulation;
+import cardgame.SimulationSummary;
+import cardgame.ThreadMode;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Silent games with each engine. Reports games/s, and turns/s through the auxiliary counter,
+ * so the cost per turn of threads and of the single-threaded engine can be compared.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class EngineBenchmark {
+
+    @Param({"4", "1024"})
+    public int players;
+
+    @Param({"THREADS", "SEQUENTIAL", "ARRAYS", "SHARDED", "TASKS"})
+    public Engine engine;
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    public ThreadMode threads;
+
+    private Simulation simulation;
+
+    /**
+     * Turns completed by all players, reported by JMH as a rate (turns/s).
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Turns {
+        public double turns;
+    }
+
+    /**
+     * Loads the pack once per configuration.
+     *
+     * @throws Exception if the pack can't be written or read.
+     */
+    @Setup(Level.Trial)
+    public void loadPack() throws Exception {
+        int[] pack = PackLoader.load(BenchSupport.writePack(players, 42L), 8 * players);
+        simulation = new Simulation(players, pack, new GameOptions().setEngine(engine).setThreadMode(threads));
+    }
+
+    /**
+     * Plays one silent game.
+     *
+     * @param counter accumulates the turns taken.
+     * @return the game's summary, so its work isn't eliminated.
+     */
+    @Benchmark
+    public SimulationSummary game(Turns counter) {
+        SimulationSummary summary = simulation.run(1, 1);
+        counter.turns += summary.getMeanTotalTurns();
+        return summary;
+    }
+}
@@ -0,0 +1,70 @@
+// GameBenchmark.java
+
+package cardgame_bench;
+
+import cardgame.CardGame;
+import cardgame.DeckType;
+import cardgame.GameOptions;
+import cardgame.ThreadMode;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Whole games from dealing to the final deck files, at several player counts, with each deck type and thread mode.
+ * Reports games/s, and turns/s through the auxiliary counter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class GameBenchmark {
+
+    @Param({"4", "64", "1024", "10000"})
+    public int players;
+
+    @Param({"LINKED", "RING"})
+    public DeckType deck;
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    public ThreadMode threads;
+
+    private File packFile;
+
+    /**
+     * Turns completed by all players, reported by JMH as a rate (turns/s).
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Turns {
+        public long turns;
+    }
+
+    /**
+     * Writes the pack once per player count.
+     *
+     * @throws Exception if the pack can't be written.
+     */
+    @Setup(Level.Trial)
+    public void writePack() throws Exception {
+        packFile = BenchSupport.writePack(players, 42L);
+    }
+
+    /**
+     * Plays one full game without the terminal prompts.
+     *
+     * @param counter accumulates the turns taken.
+     * @return the game, so its work isn't eliminated.
+     */
+    @Benchmark
+    public CardGame game(Turns counter) {
+        CardGame game = new CardGame(new GameOptions().setDeckType(deck).setThreadMode(threads));
+        game.start(players, packFile);
+        counter.turns += game.getTurnCount();
+        return game;
+    }
+}
@@ -0,0 +1,97 @@
+// LockHoldBenchmark.java
+
+package cardgame_bench;
+
+import cardgame.Card;
+import cardgame.Deck;
+import cardgame.GameContext;
+import cardgame.Player;
+import cardgame.PlayerLogFactory;
+
+import java.io.File;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * How long a neighbour waits for a deck lock while a player takes turns with the direct (flushing) log.
+ *
+ * {@code LOG_INSIDE_LOCKS} holds the deck lock around the whole turn, including formatting and the flushed
+ * write, as turns did before the state change was split from the logging. {@code LOG_AFTER_LOCKS} is the
+ * current turn, which releases the deck before logging. The {@code neighbour} score is the lock wait
+ * distribution, which tracks how long the player holds the lock.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LockHoldBenchmark {
+
+    @Param({"LOG_INSIDE_LOCKS", "LOG_AFTER_LOCKS"})
+    public String turn;
+
+    private MethodHandle drawAndDiscard;
+    private Player player;
+    private ReentrantLock deckLock;
+    private boolean logInsideLocks;
+
+    /**
+     * Builds a one-player ring whose hand can never win, logging to {@code out/}.
+     *
+     * @throws Exception if the player can't be created or the turn method can't be reached.
+     */
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        GameContext context = new GameContext();
+        Deck deck = new Deck(context);
+        player = new Player(context, deck, deck, PlayerLogFactory.files(new File("out")));
+        for (int i = 0; i < 4; i++) {
+            player.addCardToHand(new Card(10 + i));
+            deck.addCard(new Card(20 + i));
+        }
+        deckLock = deck.getLock();
+        logInsideLocks = turn.equals("LOG_INSIDE_LOCKS");
+
+        Method m = Player.class.getDeclaredMethod("drawAndDiscard");
+        m.setAccessible(true);
+        drawAndDiscard = MethodHandles.lookup().unreflect(m);
+    }
+
+    /**
+     * The player: takes a turn, holding the deck through the logging if asked to.
+     *
+     * @throws Throwable if the turn fails.
+     */
+    @Benchmark
+    @Group("turns")
+    @GroupThreads(1)
+    public void player() throws Throwable {
+        if (logInsideLocks) {
+            deckLock.lock();
+            try {
+                drawAndDiscard.invoke(player);
+            } finally {
+                deckLock.unlock();
+            }
+        } else {
+            drawAndDiscard.invoke(player);
+        }
+    }
+
+    /**
+     * The neighbour: acquires and releases the shared deck, as it would at the start of its own turn.
+     */
+    @Benchmark
+    @Group("turns")
+    @GroupThreads(1)
+    public void neighbour() {
+        deckLock.lock();
+        deckLock.unlock();
+    }
+}
@@ -0,0 +1,109 @@
+// PackLoadBenchmark.java
+
+package cardgame_bench;
+
+import cardgame.BinaryPack;
+import cardgame.PackLoader;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Time to load and validate a large pack file.
+ * {@code scanner} is the original line-by-line reader (Scanner, trim, parseInt, a list of boxed values),
+ * kept here as the baseline for {@link cardgame.PackLoader}; {@code mapped} parses on one thread and
+ * {@code parallel} splits the file into chunks parsed on the common pool. {@code binary} loads the same pack
+ * converted to {@link cardgame.BinaryPack}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PackLoadBenchmark {
+
+    @Param({"125000", "1000000"})
+    public int players;
+
+    private File packFile;
+    private File binaryFile;
+
+    /**
+     * Writes the pack once, as text and binary: 8 cards per player.
+     *
+     * @throws IOException if the pack can't be written.
+     */
+    @Setup(Level.Trial)
+    public void writePack() throws IOException {
+        packFile = BenchSupport.writePack(players, 42L);
+        binaryFile = File.createTempFile("bench_pack_" + players + "_", ".cgp");
+        binaryFile.deleteOnExit();
+        BinaryPack.write(binaryFile, PackLoader.load(packFile, 8 * players));
+    }
+
+    /**
+     * The memory-mapped loader on one thread.
+     *
+     * @return the card values.
+     * @throws IOException if the pack can't be read.
+     */
+    @Benchmark
+    public int[] mapped() throws IOException {
+        return PackLoader.load(packFile, 8 * players, 1);
+    }
+
+    /**
+     * The memory-mapped loader, chunks parsed in parallel.
+     *
+     * @return the card values.
+     * @throws IOException if the pack can't be read.
+     */
+    @Benchmark
+    public int[] parallel() throws IOException {
+        return PackLoader.load(packFile, 8 * players, 4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * The binary pack loader.
+     *
+     * @return the card values.
+     * @throws IOException if the pack can't be read.
+     */
+    @Benchmark
+    public int[] binary() throws IOException {
+        return BinaryPack.load(binaryFile, 8 * players);
+    }
+
+    /**
+     * The original line-by-line loader.
+     *
+     * @return the card values.
+     * @throws IOException if the pack can't be read.
+     */
+    @Benchmark
+    public List<Integer> scanner() throws IOException {
+        List<Integer> values = new ArrayList<>();
+        try (Scanner sc = new Scanner(packFile)) {
+            while (sc.hasNextLine()) {
+                String line = sc.nextLine().trim();
+                if (line.isEmpty()) return null;
+                int value;
+                try {
+                    value = Integer.parseInt(line);
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+                if (value < 0) return null;
+                values.add(value);
+            }
+        }
+        return values.size() == 8 * players ? values : null;
+    }
+}
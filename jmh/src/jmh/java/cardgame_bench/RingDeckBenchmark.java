@@ -0,0 +1,66 @@
+// RingDeckBenchmark.java
+
+package cardgame_bench;
+
+import cardgame.Card;
+import cardgame.Deck;
+import cardgame.DeckType;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * One writer discarding to and one reader drawing from the same deck, as two neighbouring players do.
+ * Compares the synchronised deck with the lock-free ring deck.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RingDeckBenchmark {
+
+    @Param({"LINKED", "RING"})
+    public DeckType deck;
+
+    private Deck shared;
+    private Card card;
+
+    /**
+     * Creates a fresh deck per iteration.
+     */
+    @Setup(Level.Iteration)
+    public void setup() {
+        shared = deck.create(64);
+        card = new Card(1);
+    }
+
+    /**
+     * The writer: discards a card if the deck has space.
+     *
+     * @return whether a card was added.
+     */
+    @Benchmark
+    @Group("handoff")
+    @GroupThreads(1)
+    public boolean discard() {
+        // Keep the unbounded deck at the same bound as the ring, so both measure the same work.
+        if (!shared.hasSpace() || shared.size() >= 256) return false;
+        shared.addCard(card);
+        return true;
+    }
+
+    /**
+     * The reader: draws a card if there is one.
+     *
+     * @return the drawn card, or null if the deck was empty.
+     */
+    @Benchmark
+    @Group("handoff")
+    @GroupThreads(1)
+    public Card draw() {
+        return shared.drawCard();
+    }
+}
@@ -0,0 +1,120 @@
+// ThreadModeBenchmark.java
+
+package cardgame_bench;
+
+import cardgame.ThreadMode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Startup time and memory of platform-thread and virtual-thread players.
+ *
+ * Each invocation starts one thread per player, each blocking like a player waiting for a card, and the
+ * score is the time until all of them are running. The {@code rssKb} counter is the growth of the process's
+ * resident memory (Linux only) while they are all alive, which is where native thread stacks show up.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ThreadModeBenchmark {
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    public ThreadMode threads;
+
+    @Param({"1000", "10000", "50000"})
+    public int players;
+
+    private List<Thread> running;
+    private CountDownLatch finish;
+
+    /**
+     * Resident memory growth while the players are alive, in KB.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Memory {
+        public long rssKb;
+
+        /**
+         * Counters are summed per iteration, so start each invocation from zero.
+         */
+        @Setup(Level.Invocation)
+        public void clear() {
+            rssKb = 0;
+        }
+    }
+
+    /**
+     * Starts every player thread and waits until all of them are running.
+     *
+     * @param memory records the resident memory growth.
+     * @return the number of threads started.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    @Benchmark
+    public int startPlayers(Memory memory) throws InterruptedException {
+        long before = residentKb();
+        CountDownLatch started = new CountDownLatch(players);
+        finish = new CountDownLatch(1);
+        running = new ArrayList<>(players);
+
+        for (int i = 1; i <= players; i++) {
+            Thread t = threads.newThread(() -> {
+                started.countDown();
+                try {
+                    finish.await();     // Block like a player waiting for a card
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "Player-" + i);
+            running.add(t);
+            t.start();
+        }
+        started.await();
+
+        memory.rssKb = residentKb() - before;
+        return running.size();
+    }
+
+    /**
+     * Releases and joins the players outside the measured time.
+     *
+     * @throws InterruptedException if interrupted while joining.
+     */
+    @TearDown(Level.Invocation)
+    public void stopPlayers() throws InterruptedException {
+        finish.countDown();
+        for (Thread t : running) {
+            t.join();
+        }
+    }
+
+    /**
+     * Reads the resident set size of this process.
+     *
+     * @return the resident memory in KB, or 0 if it can't be read (not Linux).
+     */
+    private static long residentKb() {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc/self/status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", ""));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Not available on this platform
+        }
+        return 0;
+    }
+}
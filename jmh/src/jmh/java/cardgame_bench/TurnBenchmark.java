@@ -0,0 +1,134 @@
+// TurnBenchmark.java
+
+package cardgame_bench;
+
+import cardgame.AsyncLogPipeline;
+import cardgame.Card;
+import cardgame.Deck;
+import cardgame.EventLog;
+import cardgame.GameContext;
+import cardgame.GameEvent;
+import cardgame.GameEventPublisher;
+import cardgame.OverflowPolicy;
+import cardgame.Player;
+import cardgame.PlayerLogFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Throughput of a single {@link cardgame.Player} turn (draw, discard, log).
+ * The player draws from and discards to the same deck (a one-player ring), so the turn can repeat forever.
+ * The log parameter compares writing the log file directly, queueing it for a writer thread, recording binary
+ * events, and no log at all;
+ * the metrics parameter shows the cost of measuring every turn, and the events parameter the cost of publishing
+ * every turn to a live subscriber that dropping or coalescing keeps from slowing the player down.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TurnBenchmark {
+
+    @Param({"DIRECT", "ASYNC", "BINARY", "NONE"})
+    public String log;
+
+    @Param({"false", "true"})
+    public boolean metrics;
+
+    @Param({"NONE", "DROP", "COALESCE"})
+    public String events;
+
+    private MethodHandle drawAndDiscard;
+    private Player player;
+    private AsyncLogPipeline pipeline;
+    private EventLog eventLog;
+    private GameEventPublisher publisher;
+
+    /**
+     * Builds a player whose hand can never win: all eight cards have distinct values.
+     *
+     * @throws Exception if the player can't be created or the turn method can't be reached.
+     */
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        PlayerLogFactory logs = switch (log) {
+            case "ASYNC" -> pipeline = new AsyncLogPipeline(new File("out"), 1, AsyncLogPipeline.DEFAULT_QUEUE_CAPACITY);
+            case "BINARY" -> eventLog = new EventLog(new File("out", "events.cge"));
+            case "NONE" -> PlayerLogFactory.NONE;
+            default -> PlayerLogFactory.files(new File("out"));
+        };
+        publisher = new GameEventPublisher();
+        if (!events.equals("NONE")) {
+            publisher.subscribe(new Flow.Subscriber<GameEvent>() {
+                @Override
+                public void onSubscribe(Flow.Subscription subscription) {
+                    subscription.request(Long.MAX_VALUE);
+                }
+
+                @Override
+                public void onNext(GameEvent event) {
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                }
+
+                @Override
+                public void onComplete() {
+                }
+            }, GameEventPublisher.DEFAULT_CAPACITY, OverflowPolicy.valueOf(events));
+        }
+        logs = publisher.wrap(logs);
+        GameContext context = new GameContext();
+        Deck deck = new Deck(context);
+        player = new Player(context, deck, deck, logs);
+        if (metrics) {
+            player.enableMetrics();
+        }
+        for (int i = 0; i < 4; i++) {
+            player.addCardToHand(new Card(10 + i));
+            deck.addCard(new Card(20 + i));
+        }
+
+        // The turn is package-private: look it up once, as the unit tests do.
+        Method m = Player.class.getDeclaredMethod("drawAndDiscard");
+        m.setAccessible(true);
+        drawAndDiscard = MethodHandles.lookup().unreflect(m);
+    }
+
+    /**
+     * Stops the log writer thread or closes the event file, if any, and ends the event stream.
+     *
+     * @throws IOException if the queued log or the events could not be written.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (pipeline != null) {
+            pipeline.close();
+        }
+        if (eventLog != null) {
+            eventLog.close();
+        }
+        publisher.close();
+    }
+
+    /**
+     * One draw-and-discard turn.
+     *
+     * @throws Throwable if the turn fails.
+     */
+    @Benchmark
+    public void turn() throws Throwable {
+        drawAndDiscard.invoke(player);
+    }
+}
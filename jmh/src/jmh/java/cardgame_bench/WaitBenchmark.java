@@ -0,0 +1,77 @@
+// WaitBenchmark.java
+
+package cardgame_bench;
+
+import cardgame.GameOptions;
+import cardgame.PackLoader;
+import cardgame.Simulation;
+import cardgame.SimulationSummary;
+import cardgame.ThreadMode;
+import cardgame.WaitMode;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * CPU time per game with spinning and with parking players. Each invocation plays one silent game;
+ * {@code cpuMs} is the processor time the whole JVM used, summed over the measured games (divide by the count for
+ * CPU time per game), next to the wall time per game JMH reports.
+ * With more players than cores, spinning players burn time their neighbours need.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(1)
+public class WaitBenchmark {
+
+    @Param({"64", "1024"})
+    public int players;
+
+    @Param({"SPIN", "PARK"})
+    public WaitMode wait;
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    public ThreadMode threads;
+
+    private Simulation simulation;
+
+    /**
+     * Processor time used by the game, in milliseconds.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Cpu {
+        public double cpuMs;
+    }
+
+    /**
+     * Loads the pack once per configuration.
+     *
+     * @throws Exception if the pack can't be written or read.
+     */
+    @Setup(Level.Trial)
+    public void loadPack() throws Exception {
+        int[] pack = PackLoader.load(BenchSupport.writePack(players, 42L), 8 * players);
+        simulation = new Simulation(players, pack, new GameOptions().setWaitMode(wait).setThreadMode(threads));
+    }
+
+    /**
+     * Plays one game and records the processor time it took.
+     *
+     * @param cpu accumulates the processor time.
+     * @return the game's summary, so its work isn't eliminated.
+     */
+    @Benchmark
+    public SimulationSummary game(Cpu cpu) {
+        com.sun.management.OperatingSystemMXBean os =
+                (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        long before = os.getProcessCpuTime();
+        SimulationSummary summary = simulation.run(1, 1);
+        cpu.cpuMs += (os.getProcessCpuTime() - before) / 1e6;
+        return summary;
+    }
+}